@@ -0,0 +1,180 @@
+package com.tmk2003.zuultesting.benchmarks;
+
+import com.netflix.zuul.ExecutionStatus;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.ZuulFilterResult;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.cache.RequestCoalescer;
+import com.tmk2003.zuultesting.cache.ResponseCacheManager;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.filters.CoalescingPostFilter;
+import com.tmk2003.zuultesting.filters.CoalescingPreFilter;
+import com.tmk2003.zuultesting.filters.ResponseCachePostFilter;
+import com.tmk2003.zuultesting.filters.ResponseCachePreFilter;
+import com.tmk2003.zuultesting.filters.RouteBindingPreFilter;
+import com.tmk2003.zuultesting.filters.RouteTimingPostFilter;
+import com.tmk2003.zuultesting.filters.RouteTimingPreFilter;
+import com.tmk2003.zuultesting.metrics.GatewayMetrics;
+import com.tmk2003.zuultesting.metrics.RequestTimings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.post.SendResponseFilter;
+import org.springframework.cloud.netflix.zuul.filters.pre.PreDecorationFilter;
+import org.springframework.cloud.netflix.zuul.filters.pre.Servlet30WrapperFilter;
+import org.springframework.cloud.netflix.zuul.filters.pre.ServletDetectionFilter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.ROUTE_TYPE;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.SIMPLE_HOST_ROUTING_FILTER_ORDER;
+
+/**
+ * Pre, route and post filter overhead of one proxied GET, with Zuul's own filters only and with the
+ * gateway filters added. The upstream call is simulated so only the filter chain is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g", "-XX:+UseG1GC"})
+public class FilterChainBenchmark {
+
+    /* Final Variables */
+    private static final byte[] BODY = "{\"name\":\"Tester\",\"roles\":[\"user\"]}".getBytes(StandardCharsets.UTF_8);
+
+    /* Variables */
+    @Param({"zuul", "gateway"})
+    public String chain;                                                        // Filters taking part
+
+    private final List<ZuulFilter> preFilters = new ArrayList<>();
+    private final List<ZuulFilter> routeFilters = new ArrayList<>();
+    private final List<ZuulFilter> postFilters = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        ZuulProperties zuulProperties = GatewayFixture.zuulProperties(0);
+        ProxyRequestHelper helper = new ProxyRequestHelper(zuulProperties);
+
+        add(new ServletDetectionFilter());
+        add(new Servlet30WrapperFilter());
+        add(new PreDecorationFilter(GatewayFixture.trieRouteLocator(zuulProperties), "", zuulProperties, helper));
+        add(new SimulatedUpstream());
+        add(new SendResponseFilter(zuulProperties));
+
+        if ("gateway".equals(this.chain)) {
+            GatewayProperties gatewayProperties = new GatewayProperties();
+            GatewayProperties.RouteSettings user = new GatewayProperties.RouteSettings();
+            user.getCache().setEnabled(true);
+            user.getCoalesce().setEnabled(true);
+            gatewayProperties.getRoutes().put("user", user);
+
+            ResponseCacheManager cacheManager = new ResponseCacheManager(gatewayProperties);
+            RequestCoalescer coalescer = new RequestCoalescer();
+            GatewayMetrics metrics = new GatewayMetrics(gatewayProperties);
+            add(new ResponseCachePreFilter(cacheManager));
+            add(new CoalescingPreFilter(gatewayProperties, coalescer));
+            add(new RouteBindingPreFilter(metrics));
+            add(new RouteTimingPreFilter());
+            add(new RouteTimingPostFilter());
+            add(new ResponseCachePostFilter(cacheManager));
+            add(new CoalescingPostFilter(gatewayProperties, coalescer));
+        }
+
+        Comparator<ZuulFilter> byOrder = Comparator.comparingInt(ZuulFilter::filterOrder);
+        this.preFilters.sort(byOrder);
+        this.routeFilters.sort(byOrder);
+        this.postFilters.sort(byOrder);
+    }
+
+    @Benchmark
+    public int proxiedGet() throws Throwable {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        try {
+            MockHttpServletRequest request = GatewayFixture.request("/user/horse");
+            request.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, Boolean.TRUE);
+            request.setAttribute(RequestTimings.ATTRIBUTE, new RequestTimings(System.nanoTime()));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            ctx.setRequest(request);
+            ctx.setResponse(response);
+
+            run(this.preFilters);
+            run(this.routeFilters);
+            run(this.postFilters);
+            return response.getContentAsByteArray().length;
+        } finally {
+            ctx.unset();
+        }
+    }
+
+    private void add(ZuulFilter filter) {
+        switch (filter.filterType()) {
+            case "pre":     this.preFilters.add(filter); break;
+            case "route":   this.routeFilters.add(filter); break;
+            default:        this.postFilters.add(filter); break;
+        }
+    }
+
+    /**
+     * Runs filters the way FilterProcessor does, without its usage counters
+     */
+    private static void run(List<ZuulFilter> filters) throws Throwable {
+        for (ZuulFilter filter : filters) {
+            ZuulFilterResult result = filter.runFilter();
+            if (result.getStatus() == ExecutionStatus.FAILED) {
+                throw result.getException();
+            }
+        }
+    }
+
+    /**
+     * Stands in for SimpleHostRoutingFilter, answers like an upstream without touching the network
+     */
+    private static final class SimulatedUpstream extends ZuulFilter {
+
+        @Override
+        public String filterType() {
+            return ROUTE_TYPE;
+        }
+
+        @Override
+        public int filterOrder() {
+            return SIMPLE_HOST_ROUTING_FILTER_ORDER;
+        }
+
+        @Override
+        public boolean shouldFilter() {
+            RequestContext ctx = RequestContext.getCurrentContext();
+            return ctx.getRouteHost() != null && ctx.sendZuulResponse();
+        }
+
+        @Override
+        public Object run() {
+            RequestContext ctx = RequestContext.getCurrentContext();
+            ctx.setResponseStatusCode(200);
+            ctx.addZuulResponseHeader("Content-Type", "application/json");
+            ctx.setOriginContentLength((long) BODY.length);
+            ctx.setResponseDataStream(new ByteArrayInputStream(BODY));
+            return null;
+        }
+    }
+}
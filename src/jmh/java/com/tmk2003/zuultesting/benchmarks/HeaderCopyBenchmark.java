@@ -0,0 +1,78 @@
+package com.tmk2003.zuultesting.benchmarks;
+
+import com.netflix.zuul.context.RequestContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying headers between the client and upstream requests and responses, as done per proxied request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g", "-XX:+UseG1GC"})
+public class HeaderCopyBenchmark {
+
+    /* Variables */
+    private ProxyRequestHelper helper;                                          // Zuul's header copying
+    private MockHttpServletRequest request;                                     // Client request
+    private MultiValueMap<String, String> upstreamHeaders;                      // Upstream response headers
+
+    @Setup
+    public void setUp() {
+        this.helper = new ProxyRequestHelper(GatewayFixture.zuulProperties(0));
+        this.request = GatewayFixture.request("/user/horse");
+
+        this.upstreamHeaders = new LinkedMultiValueMap<>();
+        this.upstreamHeaders.add("Content-Type", "application/json;charset=UTF-8");
+        this.upstreamHeaders.add("Content-Length", "512");
+        this.upstreamHeaders.add("Cache-Control", "public, max-age=60");
+        this.upstreamHeaders.add("Date", "Thu, 18 Oct 2018 10:00:00 GMT");
+        this.upstreamHeaders.add("ETag", "\"5b1d1c3e7f4a\"");
+        this.upstreamHeaders.add("Connection", "keep-alive");
+        this.upstreamHeaders.add("Transfer-Encoding", "chunked");
+        this.upstreamHeaders.add("Vary", "Accept-Encoding");
+        this.upstreamHeaders.add("X-Request-Id", "5b1d1c3e-7f4a-4a8e-9f1c-0e0b7a1d2c3f");
+        this.upstreamHeaders.add("Set-Cookie", "session=0123456789abcdef; Path=/; HttpOnly");
+    }
+
+    @Benchmark
+    public MultiValueMap<String, String> requestHeaders() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        try {
+            ctx.setRequest(this.request);
+            return this.helper.buildZuulRequestHeaders(this.request);
+        } finally {
+            ctx.unset();
+        }
+    }
+
+    @Benchmark
+    public int responseHeaders() throws IOException {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        try {
+            ctx.setRequest(this.request);
+            this.helper.setResponse(200, null, this.upstreamHeaders);
+            return ctx.getZuulResponseHeaders().size();
+        } finally {
+            ctx.unset();
+        }
+    }
+}
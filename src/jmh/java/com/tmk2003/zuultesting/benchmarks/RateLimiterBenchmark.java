@@ -0,0 +1,78 @@
+package com.tmk2003.zuultesting.benchmarks;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.limit.RouteRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per client rate limiting with clients spread over many keys, on one and on four threads. The time per
+ * call stays flat as threads are added when the limiter has no shared hot spot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g", "-XX:+UseG1GC"})
+public class RateLimiterBenchmark {
+
+    /* Final Variables */
+    private static final int KEYS                   = 1024;                     // Distinct clients, a power of two
+
+    /* Variables */
+    private RouteRateLimiter limiter;                                           // Limiter measured
+    private String[] keys;                                                      // Client addresses
+
+    @Setup
+    public void setUp() {
+        GatewayProperties.RateLimit settings = new GatewayProperties.RateLimit();
+        settings.setEnabled(true);
+        settings.getClient().setPermits(1_000_000);
+        settings.getClient().setPeriod(Duration.ofMinutes(1));
+        settings.setMaxClients(10_000);
+        settings.setIdleTimeout(Duration.ofMinutes(5));
+        this.limiter = new RouteRateLimiter(settings, System::nanoTime);
+        this.keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            this.keys[i] = "10.0." + (i >> 8) + "." + (i & 255);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long oneThread(Cursor cursor) {
+        return this.limiter.tryAcquire(this.keys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long fourThreads(Cursor cursor) {
+        return this.limiter.tryAcquire(this.keys[cursor.next()]);
+    }
+
+    /**
+     * Position of one thread in the keys, threads start apart
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int position = (int) Thread.currentThread().getId() * 97;     // Next key, wrapped
+
+        int next() {
+            return this.position++ & (KEYS - 1);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tmk2003.zuultesting.benchmarks;
+
+import com.tmk2003.zuultesting.routing.TrieRouteLocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.SimpleRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route resolution for the configured routes and ignored patterns, ant pattern scan against the trie.
+ * With the synthetic routes, paths matching late or no routes show the cost of the linear scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g", "-XX:+UseG1GC"})
+public class RouteLocatorBenchmark {
+
+    /* Variables */
+    @Param({"/user/horse", "/admin", "/mod/horse/saddle", "/heartbeat/mod", "/unknown/path",
+            "/api/v997/horse/items", "/static/998/index"})
+    public String path;                                                         // Resolved path
+
+    @Param({"0", "1000"})
+    public int syntheticRoutes;                                                 // Routes declared after the configured ones
+
+    private SimpleRouteLocator antScan;                                         // Default locator
+    private TrieRouteLocator trie;                                              // Gateway locator
+
+    @Setup
+    public void setUp() {
+        ZuulProperties properties = GatewayFixture.zuulProperties(this.syntheticRoutes);
+        this.antScan = new SimpleRouteLocator("", properties);
+        this.trie = GatewayFixture.trieRouteLocator(properties);
+
+        // Load the routes outside of the measurement
+        this.antScan.getMatchingRoute(this.path);
+        this.trie.getMatchingRoute(this.path);
+    }
+
+    @Benchmark
+    public Route antPatternScan() {
+        return this.antScan.getMatchingRoute(this.path);
+    }
+
+    @Benchmark
+    public Route precompiledTrie() {
+        return this.trie.getMatchingRoute(this.path);
+    }
+
+    @Benchmark
+    public boolean ignoredPatternTrie() {
+        return this.trie.isIgnored(this.path);
+    }
+}
@@ -1,11 +1,24 @@
 package com.tmk2003.zuultesting;
 
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.routing.TrieRouteLocator;
+import com.tmk2003.zuultesting.warmup.GatewayWarmup;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.netflix.zuul.EnableZuulProxy;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.discovery.ServiceRouteMapper;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
 
 @EnableZuulProxy
 @SpringBootApplication
+@EnableConfigurationProperties(GatewayProperties.class)
 public class ZuulTestingApplication {
 
 	/**
@@ -15,4 +28,33 @@ public class ZuulTestingApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(ZuulTestingApplication.class, args);
 	}
+
+	/**
+	 * Replaces the default ant pattern scanning route locator with a precompiled trie
+	 * @param server - Server configuration, provides the context path
+	 * @param discovery - Discovery client used to locate service routes
+	 * @param zuulProperties - zuul.* configuration
+	 * @param serviceRouteMapper - Maps service ids to route paths
+	 * @return - Route locator used by Zuul
+	 */
+	@Bean
+	public TrieRouteLocator trieRouteLocator(ServerProperties server, DiscoveryClient discovery,
+											 ZuulProperties zuulProperties, ServiceRouteMapper serviceRouteMapper) {
+		return new TrieRouteLocator(server.getServlet().getContextPath(), discovery, zuulProperties,
+				serviceRouteMapper, null);
+	}
+
+	/**
+	 * Warm-up run once the server is up, before the application reports ready
+	 * @param properties - gateway.warmup.* configuration
+	 * @param routeLocator - Routes to warm up
+	 * @param context - Application context, provides the server port
+	 * @return - Warm-up runner
+	 */
+	@Bean
+	@ConditionalOnProperty("gateway.warmup.enabled")
+	public GatewayWarmup gatewayWarmup(GatewayProperties properties, RouteLocator routeLocator,
+									   ApplicationContext context) {
+		return new GatewayWarmup(properties, routeLocator, context);
+	}
 }
@@ -0,0 +1,26 @@
+package com.tmk2003.zuultesting.accesslog;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.filters.AccessLogFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * gateway.access-log.enabled=true, logs every request passing the Zuul filters to gateway.access-log.file
+ * without writing on the request thread
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.access-log.enabled", havingValue = "true")
+public class AccessLogConfiguration {
+
+    @Bean
+    public AccessLogWriter accessLogWriter(GatewayProperties properties) {
+        return new AccessLogWriter(properties.getAccessLog());
+    }
+
+    @Bean
+    public AccessLogFilter accessLogFilter(AccessLogWriter accessLogWriter) {
+        return new AccessLogFilter(accessLogWriter);
+    }
+}
@@ -0,0 +1,85 @@
+package com.tmk2003.zuultesting.accesslog;
+
+/**
+ * One slot of {@link AccessLogRing}. Slots are allocated with the ring and reused, a record only holds
+ * primitives and references to strings the request already had, so logging a request allocates nothing.
+ */
+public final class AccessLogRecord {
+
+    /* Final Variables */
+    public static final long UNKNOWN        = -1L;                              // Value not known for the request
+
+    /* Variables */
+    volatile long sequence;                                                     // Sequence published in the slot
+    long timestamp;                                                             // Response written, epoch millis
+    String routeId;                                                             // Matched route, null if none
+    String method;                                                              // HTTP method
+    String uri;                                                                 // Request URI, without the query
+    int status;                                                                 // Response status
+    long upstreamNanos;                                                         // Upstream latency, UNKNOWN if not routed
+    long totalNanos;                                                            // Time in the gateway
+    long bytesIn;                                                               // Request body bytes, UNKNOWN if not counted
+    long bytesOut;                                                              // Response body bytes, UNKNOWN if not counted
+
+    AccessLogRecord(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Fills the slot, references are dropped again once the record is written
+     */
+    void set(long timestamp, String routeId, String method, String uri, int status, long upstreamNanos,
+             long totalNanos, long bytesIn, long bytesOut) {
+        this.timestamp = timestamp;
+        this.routeId = routeId;
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.upstreamNanos = upstreamNanos;
+        this.totalNanos = totalNanos;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+    }
+
+    void clear() {
+        this.routeId = null;
+        this.method = null;
+        this.uri = null;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getUpstreamNanos() {
+        return upstreamNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+}
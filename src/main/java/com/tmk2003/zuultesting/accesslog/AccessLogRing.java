@@ -0,0 +1,93 @@
+package com.tmk2003.zuultesting.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded ring of preallocated {@link AccessLogRecord}s, filled by any number of request threads and
+ * drained by a single writer thread.
+ *
+ * Each slot carries a sequence telling its state: equal to the claim position when free, one past it once
+ * the record is published, and moved a full lap ahead when the writer hands it back. A request claims a
+ * slot with a single CAS on the head and never waits on another request, a full ring fails the offer.
+ */
+public final class AccessLogRing {
+
+    /* Final Variables */
+    private final AccessLogRecord[] slots;                                      // Allocated once, reused every lap
+    private final int mask;                                                     // Capacity - 1
+    private final AtomicLong head = new AtomicLong();                           // Next position to claim
+
+    /* Variables */
+    private volatile long tail;                                                 // Next position to drain, writer only
+
+    /**
+     * @param capacity - Slots, rounded up to a power of two
+     */
+    public AccessLogRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AccessLogRecord[size];
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = new AccessLogRecord(i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Claims a slot and publishes the record in it
+     * @return - Position of the record, -1 if the ring was full
+     */
+    public long offer(long timestamp, String routeId, String method, String uri, int status, long upstreamNanos,
+                      long totalNanos, long bytesIn, long bytesOut) {
+        while (true) {
+            long position = this.head.get();
+            AccessLogRecord slot = this.slots[(int) position & this.mask];
+            long lap = slot.sequence - position;
+            if (lap < 0) {
+                return -1;                                                      // Still holds a record of the last lap
+            }
+            if (lap == 0 && this.head.compareAndSet(position, position + 1)) {
+                slot.set(timestamp, routeId, method, uri, status, upstreamNanos, totalNanos, bytesIn, bytesOut);
+                slot.sequence = position + 1;
+                return position;
+            }
+            // Claimed by another request meanwhile
+        }
+    }
+
+    /**
+     * Hands published records to the sink in order, only called by the writer thread. Stops at the first
+     * slot claimed but not yet published.
+     * @param sink - Consumes each record before its slot is reused
+     * @param max - Most records drained
+     * @return - Records drained
+     */
+    public int drain(Consumer<AccessLogRecord> sink, int max) {
+        long position = this.tail;
+        int drained = 0;
+        while (drained < max) {
+            AccessLogRecord slot = this.slots[(int) position & this.mask];
+            if (slot.sequence != position + 1) {
+                break;
+            }
+            sink.accept(slot);
+            slot.clear();
+            slot.sequence = position + this.slots.length;
+            position++;
+            drained++;
+        }
+        this.tail = position;
+        return drained;
+    }
+
+    /**
+     * @return - Records claimed and not drained yet
+     */
+    public int size() {
+        return (int) Math.max(0, this.head.get() - this.tail);
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,275 @@
+package com.tmk2003.zuultesting.accesslog;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Access log of gateway.access-log.file. Requests publish fixed-layout records into an
+ * {@link AccessLogRing} and return, the "gateway-access-log" thread formats them in batches of
+ * gateway.access-log.batch-size into a reused buffer and appends each batch with one write.
+ *
+ * A line reads: time, route, method, URI, status, upstream micros, total micros, request bytes and
+ * response bytes, separated by spaces with "-" for unknown values. When the ring is full the record is
+ * dropped and counted, or with gateway.access-log.overflow-policy=WAIT dropped once max-wait passes.
+ */
+public class AccessLogWriter {
+
+    /* Final Variables */
+    private static final Logger LOG                 = LoggerFactory.getLogger(AccessLogWriter.class);
+    private static final DateTimeFormatter SECONDS  = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+    private static final long WAIT_STEP             = TimeUnit.MICROSECONDS.toNanos(50);   // Park of a waiting request
+    private static final int LINE_BYTES             = 128;                      // Expected line length, sizes the buffer
+
+    private final AccessLogRing ring;                                           // Records not written yet
+    private final Path file;                                                    // gateway.access-log.file
+    private final int batchSize;                                                // Most records per write
+    private final long flushIntervalNanos;                                      // Idle wait of the writer
+    private final OverflowPolicy overflowPolicy;                                // Full ring handling
+    private final long maxWaitNanos;                                            // Longest wait under WAIT
+    private final StringBuilder line;                                           // Batch being formatted, reused
+    private final Consumer<AccessLogRecord> formatter = this::format;           // Drain sink, allocated once
+
+    /* Variables */
+    private ByteBuffer buffer;                                                  // Encoded batch, grown if needed
+    private FileChannel channel;                                                // Open log file
+    private long second = Long.MIN_VALUE;                                       // Epoch second of the cached prefix
+    private String secondPrefix;                                                // Formatted time of that second
+    private volatile Thread thread;                                             // Writer thread
+    private volatile boolean running;                                           // Cleared on shutdown
+
+    /* Counters */
+    private final LongAdder logged      = new LongAdder();
+    private final LongAdder dropped     = new LongAdder();
+    private final LongAdder written     = new LongAdder();
+    private final LongAdder batches     = new LongAdder();
+    private final LongAdder failures    = new LongAdder();
+
+    public AccessLogWriter(GatewayProperties.AccessLog settings) {
+        this.ring = new AccessLogRing(settings.getCapacity());
+        this.file = Paths.get(settings.getFile());
+        this.batchSize = Math.max(1, settings.getBatchSize());
+        this.flushIntervalNanos = Math.max(1, settings.getFlushInterval().toNanos());
+        this.overflowPolicy = settings.getOverflowPolicy();
+        this.maxWaitNanos = settings.getMaxWait().toNanos();
+        this.line = new StringBuilder(this.batchSize * LINE_BYTES);
+        this.buffer = ByteBuffer.allocateDirect(this.batchSize * LINE_BYTES);
+    }
+
+    /**
+     * Opens the log file and starts the writer thread
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            Path parent = this.file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open access log " + this.file, e);
+        }
+        this.running = true;
+        Thread writer = new Thread(this::run, "gateway-access-log");
+        writer.setDaemon(true);
+        this.thread = writer;
+        writer.start();
+    }
+
+    /**
+     * Publishes the record of one request, called on the request thread
+     * @return - false if the record was dropped
+     */
+    public boolean log(String routeId, String method, String uri, int status, long upstreamNanos, long totalNanos,
+                       long bytesIn, long bytesOut) {
+        long timestamp = System.currentTimeMillis();
+        long position = this.ring.offer(timestamp, routeId, method, uri, status, upstreamNanos, totalNanos,
+                bytesIn, bytesOut);
+        if (position < 0 && this.overflowPolicy == OverflowPolicy.WAIT) {
+            long deadline = System.nanoTime() + this.maxWaitNanos;
+            do {
+                LockSupport.unpark(this.thread);
+                LockSupport.parkNanos(this, WAIT_STEP);
+                position = this.ring.offer(timestamp, routeId, method, uri, status, upstreamNanos, totalNanos,
+                        bytesIn, bytesOut);
+            } while (position < 0 && System.nanoTime() < deadline);
+        }
+        if (position < 0) {
+            this.dropped.increment();
+            return false;
+        }
+        this.logged.increment();
+        if (position % this.batchSize == 0) {
+            LockSupport.unpark(this.thread);                                    // A batch is ready, do not wait out the interval
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Thread writer = this.thread;
+        if (writer == null) {
+            return;
+        }
+        this.running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void run() {
+        try {
+            while (this.running) {
+                if (writeBatch() == 0) {
+                    LockSupport.parkNanos(this, this.flushIntervalNanos);
+                }
+            }
+            // Requests finished before shutdown still get their lines
+            int drained;
+            do {
+                drained = writeBatch();
+            } while (drained > 0);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Formats up to a batch of records and appends them to the file
+     * @return - Records drained from the ring
+     */
+    private int writeBatch() {
+        this.line.setLength(0);
+        int drained = this.ring.drain(this.formatter, this.batchSize);
+        if (drained == 0) {
+            return 0;
+        }
+        try {
+            encode();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.written.add(drained);
+            this.batches.increment();
+        } catch (IOException e) {
+            this.failures.increment();
+            LOG.warn("Failed to write {} access log records to {}", drained, this.file, e);
+        }
+        return drained;
+    }
+
+    private void format(AccessLogRecord record) {
+        StringBuilder out = this.line;
+        appendTime(out, record.timestamp);
+        out.append(' ').append(record.routeId == null ? "-" : record.routeId)
+                .append(' ').append(record.method)
+                .append(' ').append(record.uri)
+                .append(' ').append(record.status);
+        appendMicros(out, record.upstreamNanos);
+        appendMicros(out, record.totalNanos);
+        appendCount(out, record.bytesIn);
+        appendCount(out, record.bytesOut);
+        out.append('\n');
+    }
+
+    /**
+     * ISO-8601 UTC time to the millisecond, the seconds are formatted once per second
+     */
+    private void appendTime(StringBuilder out, long timestamp) {
+        long epochSecond = Math.floorDiv(timestamp, 1000L);
+        if (epochSecond != this.second) {
+            this.second = epochSecond;
+            this.secondPrefix = SECONDS.format(Instant.ofEpochSecond(epochSecond));
+        }
+        int millis = (int) Math.floorMod(timestamp, 1000L);
+        out.append(this.secondPrefix).append('.');
+        if (millis < 100) {
+            out.append('0');
+        }
+        if (millis < 10) {
+            out.append('0');
+        }
+        out.append(millis).append('Z');
+    }
+
+    private static void appendMicros(StringBuilder out, long nanos) {
+        appendCount(out, nanos < 0 ? AccessLogRecord.UNKNOWN : TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    private static void appendCount(StringBuilder out, long value) {
+        out.append(' ');
+        if (value < 0) {
+            out.append('-');
+        } else {
+            out.append(value);
+        }
+    }
+
+    /**
+     * Copies the formatted batch into the byte buffer, characters outside ASCII become '?'
+     */
+    private void encode() {
+        int length = this.line.length();
+        if (this.buffer.capacity() < length) {
+            this.buffer = ByteBuffer.allocateDirect(length * 2);
+        }
+        this.buffer.clear();
+        for (int i = 0; i < length; i++) {
+            char c = this.line.charAt(i);
+            this.buffer.put(c < 0x80 ? (byte) c : (byte) '?');
+        }
+        this.buffer.flip();
+    }
+
+    private void close() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close access log {}", this.file, e);
+        }
+    }
+
+    public AccessLogRing getRing() {
+        return ring;
+    }
+
+    public long getLogged() {
+        return logged.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+}
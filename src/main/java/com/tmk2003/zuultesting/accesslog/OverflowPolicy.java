@@ -0,0 +1,17 @@
+package com.tmk2003.zuultesting.accesslog;
+
+/**
+ * What a request does when {@link AccessLogRing} has no free slot for its record
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The record is dropped and counted, the request never waits on the log
+     */
+    DROP,
+
+    /**
+     * The request waits up to gateway.access-log.max-wait for the writer to free a slot, then drops
+     */
+    WAIT
+}
@@ -0,0 +1,54 @@
+package com.tmk2003.zuultesting.async;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Non-blocking upstream client shared by the async proxy mode and hedged requests, only created once
+ * one of them needs it
+ */
+@Configuration
+public class AsyncClientConfiguration {
+
+    /**
+     * Upstream client, with the zuul.host.* timeouts of SimpleHostRoutingFilter
+     * @param properties - Gateway configuration
+     * @param zuulProperties - zuul.host.* timeouts
+     * @return - Started client, closed with the context
+     */
+    @Lazy
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient gatewayAsyncHttpClient(GatewayProperties properties, ZuulProperties zuulProperties) {
+        GatewayProperties.Async async = properties.getAsync();
+        ZuulProperties.Host host = zuulProperties.getHost();
+        IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(async.getIoThreads() > 0 ? async.getIoThreads() : Runtime.getRuntime().availableProcessors())
+                .setConnectTimeout(host.getConnectTimeoutMillis())
+                .setSoTimeout(host.getSocketTimeoutMillis())
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(host.getConnectTimeoutMillis())
+                .setSocketTimeout(host.getSocketTimeoutMillis())
+                .setRedirectsEnabled(false)
+                .setCookieSpec(CookieSpecs.IGNORE_COOKIES)
+                .build();
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setDefaultIOReactorConfig(reactorConfig)
+                .setDefaultRequestConfig(requestConfig)
+                .setMaxConnTotal(async.getMaxConnections())
+                .setMaxConnPerRoute(async.getMaxConnectionsPerRoute())
+                .disableCookieManagement()
+                .build();
+        client.start();
+        return client;
+    }
+
+}
@@ -0,0 +1,365 @@
+package com.tmk2003.zuultesting.async;
+
+import com.netflix.zuul.FilterProcessor;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import com.tmk2003.zuultesting.balancer.RouteBalancer;
+import com.tmk2003.zuultesting.balancer.UpstreamInstance;
+import com.tmk2003.zuultesting.hedge.RouteHedger;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.Cancellable;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.http.HttpStatus;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One request suspended with Servlet 3.1 async while its upstream call runs on the non-blocking client.
+ *
+ * When the upstream answers or fails, the post stage is handed back to a container thread with
+ * {@link AsyncContext#start(Runnable)}: post filters may copy, decode or delete files, which must not
+ * stall the client I/O threads every upstream connection is multiplexed on. Timeouts and errors are
+ * already reported on container threads. There the Zuul context of the request is restored and the post
+ * filters run, as they would have on the worker thread. {@code AsyncResponseWriteFilter} then hands the body back to be written with a
+ * {@link WriteListener}, which completes the request. The post stage starts as soon as the upstream
+ * headers are in, the body follows through an {@link UpstreamBody} the listener drains without blocking,
+ * so neither a thread nor more than one buffer is held per request however large the body. Failures are
+ * rendered by dispatching to the error page, Zuul's error filters only forward and cannot be used on a
+ * suspended request.
+ */
+public final class AsyncExchange implements FutureCallback<HttpResponse>, AsyncListener {
+
+    /* Final Variables */
+    public static final String EXCHANGE_KEY = "asyncExchange";                  // Context key of the exchange
+    private static final int CHUNK          = 8192;                             // Bytes written per write call
+
+    private final RequestContext ctx;                                           // Context of the suspended request
+    private final ProxyRequestHelper helper;                                    // Copies the upstream response into the context
+    private final String errorPath;                                             // Error page dispatched to on failure
+    private final AsyncContext asyncContext;                                    // Suspended request
+    private final AtomicBoolean finished = new AtomicBoolean();                 // First of response, failure or timeout wins
+
+    /* Variables */
+    private volatile Cancellable upstream;                                      // Upstream call, cancelled on timeout
+    private volatile InputStream body;                                          // Upstream body once the headers are in
+    private boolean writing;                                                    // Body handed to a write listener
+
+    private AsyncExchange(RequestContext ctx, ProxyRequestHelper helper, String errorPath, AsyncContext asyncContext) {
+        this.ctx = ctx;
+        this.helper = helper;
+        this.errorPath = errorPath;
+        this.asyncContext = asyncContext;
+    }
+
+    /**
+     * Suspends the request of the context, the worker thread may return once the upstream call is sent
+     * @param ctx - Current request context
+     * @param helper - Zuul response helper
+     * @param errorPath - Error page path
+     * @param timeoutMillis - Longest wait for the upstream response
+     * @return - Exchange, also stored in the context under {@link #EXCHANGE_KEY}
+     */
+    public static AsyncExchange start(RequestContext ctx, ProxyRequestHelper helper, String errorPath,
+                                      long timeoutMillis) {
+        AsyncContext asyncContext = ctx.getRequest().startAsync(ctx.getRequest(), ctx.getResponse());
+        asyncContext.setTimeout(timeoutMillis);
+        AsyncExchange exchange = new AsyncExchange(ctx, helper, errorPath, asyncContext);
+        asyncContext.addListener(exchange);
+        ctx.set(EXCHANGE_KEY, exchange);
+        return exchange;
+    }
+
+    /**
+     * Sends the upstream request, the exchange is called back on a client I/O thread
+     * @param client - Non-blocking client
+     * @param request - Upstream request
+     * @param bufferBytes - Upstream body bytes held before reading pauses
+     */
+    public void execute(HttpAsyncClient client, UpstreamRequest request, int bufferBytes) {
+        try {
+            StreamingResponseConsumer consumer = new StreamingResponseConsumer(bufferBytes, this);
+            Future<HttpResponse> future = client.execute(HttpAsyncMethods.create(request.getTarget(), request.getRequest()),
+                    consumer, null, null);
+            this.upstream = () -> future.cancel(true);
+            consumer.setCall(this.upstream);
+        } catch (RuntimeException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Sends the upstream request hedged, the first attempt to answer calls the exchange back
+     * @param hedger - Hedging of the route
+     * @param client - Non-blocking client
+     * @param request - Upstream request
+     * @param balancer - Balancer of the route, null when it has a single upstream
+     * @param primary - Instance the request was routed to, null when not balanced
+     * @param bufferBytes - Upstream body bytes held before reading pauses
+     */
+    public void execute(RouteHedger hedger, HttpAsyncClient client, UpstreamRequest request, RouteBalancer balancer,
+                        UpstreamInstance primary, int bufferBytes) {
+        try {
+            this.upstream = hedger.execute(client, request, balancer, primary, bufferBytes, this);
+        } catch (RuntimeException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Writes the response body without blocking, completing the request once everything is written.
+     * An {@link UpstreamBody} is polled as it arrives, any other stream is read as it is written.
+     * @param body - Response body, closed once written
+     */
+    public void write(InputStream body) throws IOException {
+        HttpServletRequest request = (HttpServletRequest) this.asyncContext.getRequest();
+        if ("HEAD".equalsIgnoreCase(request.getMethod())) {
+            body.close();
+            return;
+        }
+        this.body = body;
+        ServletOutputStream out = this.asyncContext.getResponse().getOutputStream();
+        this.writing = true;
+        try {
+            // The body may outlast the wait for the headers, the upstream and client socket timeouts bound it
+            this.asyncContext.setTimeout(0);
+        } catch (IllegalStateException e) {
+            // The container keeps its timeout
+        }
+        out.setWriteListener(new BodyWriter(out, body));
+    }
+
+    @Override
+    public void completed(HttpResponse response) {
+        if (this.finished.compareAndSet(false, true)) {
+            finishOnContainer(response, null);
+        }
+    }
+
+    @Override
+    public void failed(Exception failure) {
+        if (this.finished.compareAndSet(false, true)) {
+            finishOnContainer(null, failure);
+        }
+    }
+
+    @Override
+    public void cancelled() {
+        failed(new CancellationException("Upstream request cancelled"));
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        if (this.finished.compareAndSet(false, true)) {
+            cancel();
+            finish(null, new SocketTimeoutException("No upstream response within "
+                    + this.asyncContext.getTimeout() + "ms"), true);
+        }
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        if (this.finished.get()) {
+            // The client left while the body was relayed
+            closeBody();
+            return;
+        }
+        if (this.finished.compareAndSet(false, true)) {
+            cancel();
+            Throwable cause = event.getThrowable();
+            // The client connection is gone, only the post filters are left to run
+            finish(null, cause instanceof Exception ? (Exception) cause : new IOException(cause), false);
+        }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    /**
+     * Leaves the client I/O thread, the post stage runs on a container thread
+     */
+    private void finishOnContainer(HttpResponse upstream, Exception failure) {
+        try {
+            this.asyncContext.start(() -> finish(upstream, failure, true));
+        } catch (IllegalStateException e) {
+            // The request is already over, the post filters still release what the request holds
+            finish(upstream, failure, false);
+        }
+    }
+
+    private void cancel() {
+        Cancellable call = this.upstream;
+        if (call != null) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * Closing an unfinished upstream body aborts its call
+     */
+    private void closeBody() {
+        InputStream body = this.body;
+        if (body != null) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                // Nothing left to relay
+            }
+        }
+    }
+
+    /**
+     * Runs the post filters on the calling container thread with the context of the suspended request
+     */
+    private void finish(HttpResponse upstream, Exception failure, boolean respond) {
+        RequestContext current = RequestContext.getCurrentContext();
+        current.clear();
+        current.putAll(this.ctx);
+        try {
+            current.setSendZuulResponse(true);
+            if (failure == null) {
+                try {
+                    HttpEntity entity = upstream.getEntity();
+                    this.body = entity == null ? null : entity.getContent();
+                    this.helper.setResponse(upstream.getStatusLine().getStatusCode(),
+                            entity == null ? null : entity.getContent(), UpstreamRequest.responseHeaders(upstream));
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                int status = UpstreamRequest.failureStatus(failure);
+                current.setResponseStatusCode(status);
+                current.setThrowable(new ZuulException(failure, status, failure.getMessage()));
+            }
+
+            try {
+                FilterProcessor.getInstance().postRoute();
+            } catch (ZuulException e) {
+                current.setThrowable(e);
+            } catch (Throwable e) {
+                current.setThrowable(new ZuulException(e, 500, "UNHANDLED_EXCEPTION_" + e.getClass().getName()));
+            }
+
+            if (this.writing) {
+                return;
+            }
+            // No post filter took the body, release the upstream connection
+            closeBody();
+            if (!respond) {
+                return;
+            }
+            if (current.getThrowable() != null) {
+                dispatchError(current.getThrowable());
+            } else {
+                this.asyncContext.complete();
+            }
+        } finally {
+            current.unset();
+        }
+    }
+
+    private void dispatchError(Throwable throwable) {
+        HttpServletRequest request = (HttpServletRequest) this.asyncContext.getRequest();
+        HttpServletResponse response = (HttpServletResponse) this.asyncContext.getResponse();
+        if (response.isCommitted()) {
+            this.asyncContext.complete();
+            return;
+        }
+        int status = throwable instanceof ZuulException
+                ? ((ZuulException) throwable).nStatusCode
+                : HttpStatus.INTERNAL_SERVER_ERROR.value();
+        request.setAttribute(RequestDispatcher.ERROR_STATUS_CODE, status);
+        request.setAttribute(RequestDispatcher.ERROR_EXCEPTION, throwable);
+        request.setAttribute(RequestDispatcher.ERROR_MESSAGE, throwable.getMessage());
+        response.setStatus(status);
+        this.asyncContext.dispatch(this.errorPath);
+    }
+
+    /**
+     * Writes the body whenever the container reports the connection writable and the body has data,
+     * a body waiting on the upstream resumes the writer on a container thread
+     */
+    private final class BodyWriter implements WriteListener {
+
+        private final ServletOutputStream out;                                  // Client connection
+        private final InputStream body;                                         // Bytes to write
+        private final byte[] chunk = new byte[CHUNK];                           // Bytes being written
+        private boolean done;                                                   // Request completed; guarded by this
+
+        private BodyWriter(ServletOutputStream out, InputStream body) {
+            this.out = out;
+            this.body = body;
+        }
+
+        @Override
+        public synchronized void onWritePossible() throws IOException {
+            while (!this.done && this.out.isReady()) {
+                int read = this.body instanceof UpstreamBody
+                        ? ((UpstreamBody) this.body).poll(this.chunk, 0, CHUNK)
+                        : this.body.read(this.chunk, 0, CHUNK);
+                if (read == -1) {
+                    finish();
+                    return;
+                }
+                if (read == 0) {
+                    ((UpstreamBody) this.body).onAvailable(this::resume);
+                    return;
+                }
+                this.out.write(this.chunk, 0, read);
+            }
+        }
+
+        @Override
+        public synchronized void onError(Throwable t) {
+            finish();
+        }
+
+        /**
+         * Called on a client I/O thread, writing happens on a container thread
+         */
+        private void resume() {
+            try {
+                asyncContext.start(() -> {
+                    try {
+                        onWritePossible();
+                    } catch (IOException e) {
+                        onError(e);
+                    }
+                });
+            } catch (IllegalStateException e) {
+                // The request is already over
+                closeBody();
+            }
+        }
+
+        private void finish() {
+            if (!this.done) {
+                this.done = true;
+                closeBody();
+                asyncContext.complete();
+            }
+        }
+    }
+}
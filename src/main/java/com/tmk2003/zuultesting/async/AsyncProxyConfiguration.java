@@ -0,0 +1,56 @@
+package com.tmk2003.zuultesting.async;
+
+import com.tmk2003.zuultesting.balancer.LoadBalancerRegistry;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.filters.AsyncHostRoutingFilter;
+import com.tmk2003.zuultesting.filters.AsyncResponseWriteFilter;
+import com.tmk2003.zuultesting.hedge.HedgeRegistry;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.web.ZuulController;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * gateway.async.enabled=true, proxies bodyless requests with Servlet 3.1 async I/O and a non-blocking
+ * client so a slow upstream holds a connection instead of a worker thread
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.async.enabled", havingValue = "true")
+public class AsyncProxyConfiguration {
+
+    /**
+     * Swaps the servlet wrapped by Zuul's controller for one that leaves suspended requests alone
+     * @return - Post processor of the Zuul controller
+     */
+    @Bean
+    public static BeanPostProcessor asyncZuulServletPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof ZuulController) {
+                    ((ZuulController) bean).setServletClass(AsyncZuulServlet.class);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public AsyncHostRoutingFilter asyncHostRoutingFilter(ProxyRequestHelper helper, CloseableHttpAsyncClient gatewayAsyncHttpClient,
+                                                         GatewayProperties properties, HedgeRegistry hedges,
+                                                         LoadBalancerRegistry balancers, ZuulProperties zuulProperties,
+                                                         @Value("${error.path:/error}") String errorPath) {
+        return new AsyncHostRoutingFilter(helper, gatewayAsyncHttpClient, properties, hedges, balancers, zuulProperties,
+                errorPath);
+    }
+
+    @Bean
+    public AsyncResponseWriteFilter asyncResponseWriteFilter() {
+        return new AsyncResponseWriteFilter();
+    }
+}
@@ -0,0 +1,78 @@
+package com.tmk2003.zuultesting.async;
+
+import com.netflix.zuul.ZuulRunner;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * {@code ZuulServlet} for gateway.async.enabled. Runs the pre and route stages like Zuul does, but
+ * leaves the post stage to the {@link AsyncExchange} when a route filter suspended the request, so the
+ * worker thread returns to the container while the upstream call is in flight.
+ */
+public class AsyncZuulServlet extends HttpServlet {
+
+    /* Final Variables */
+    public static final String ASYNC_CAPABLE_KEY    = "gatewayAsyncCapable";    // Set when route filters may suspend the request
+
+    /* Variables */
+    private ZuulRunner zuulRunner;                                              // Runs the filter stages
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        this.zuulRunner = new ZuulRunner(Boolean.parseBoolean(config.getInitParameter("buffer-requests")));
+    }
+
+    @Override
+    public void service(ServletRequest servletRequest, ServletResponse servletResponse)
+            throws ServletException, IOException {
+        try {
+            this.zuulRunner.init((HttpServletRequest) servletRequest, (HttpServletResponse) servletResponse);
+            RequestContext ctx = RequestContext.getCurrentContext();
+            ctx.setZuulEngineRan();
+            ctx.set(ASYNC_CAPABLE_KEY, Boolean.TRUE);
+
+            try {
+                this.zuulRunner.preRoute();
+            } catch (ZuulException e) {
+                error(e);
+                this.zuulRunner.postRoute();
+                return;
+            }
+            try {
+                this.zuulRunner.route();
+            } catch (ZuulException e) {
+                error(e);
+                this.zuulRunner.postRoute();
+                return;
+            }
+            // The exchange runs the post filters once the upstream answered
+            if (ctx.containsKey(AsyncExchange.EXCHANGE_KEY)) {
+                return;
+            }
+            try {
+                this.zuulRunner.postRoute();
+            } catch (ZuulException e) {
+                error(e);
+            }
+        } catch (Throwable e) {
+            error(new ZuulException(e, 500, "UNHANDLED_EXCEPTION_" + e.getClass().getName()));
+        } finally {
+            RequestContext.getCurrentContext().unset();
+        }
+    }
+
+    private void error(ZuulException e) {
+        RequestContext.getCurrentContext().setThrowable(e);
+        this.zuulRunner.error();
+    }
+}
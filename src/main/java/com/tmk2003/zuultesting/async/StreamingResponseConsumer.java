@@ -0,0 +1,124 @@
+package com.tmk2003.zuultesting.async;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.Cancellable;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands an upstream response over as soon as its headers arrive, its body following through an
+ * {@link UpstreamBody} of a fixed size whatever the length of the body.
+ *
+ * The callback is told exactly once: completed with the response when the headers are in, or failed
+ * when the call fails before them. Failures after the headers reach the reader of the body instead.
+ * Pass {@code null} as the callback of the client call, the future completes only once the body ends.
+ */
+public final class StreamingResponseConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+    private final int bufferBytes;                                              // Body bytes held before reading pauses
+    private final FutureCallback<HttpResponse> callback;                        // Told when the headers are in
+    private final AtomicBoolean reported = new AtomicBoolean();                 // Callback already told
+
+    /* Variables */
+    private volatile Cancellable call;                                          // Client call, cancelled on early close
+    private volatile HttpResponse response;                                     // Response being received
+    private volatile UpstreamBody body;                                         // Its body
+
+    public StreamingResponseConsumer(int bufferBytes, FutureCallback<HttpResponse> callback) {
+        this.bufferBytes = bufferBytes;
+        this.callback = callback;
+    }
+
+    /**
+     * @param call - Client call of this consumer, aborted when the body is closed before its end
+     */
+    public void setCall(Cancellable call) {
+        this.call = call;
+    }
+
+    /**
+     * @return - Body of the response, null until the headers are in or when there is none
+     */
+    public UpstreamBody getBody() {
+        return this.body;
+    }
+
+    @Override
+    protected void onResponseReceived(HttpResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+        UpstreamBody body = new UpstreamBody(this.bufferBytes);
+        body.setAbort(this::abort);
+        BasicHttpEntity streamed = new BasicHttpEntity();
+        streamed.setContentLength(entity.getContentLength());
+        streamed.setContentType(entity.getContentType());
+        streamed.setContentEncoding(entity.getContentEncoding());
+        streamed.setChunked(entity.isChunked());
+        streamed.setContent(body);
+        this.body = body;
+        this.response.setEntity(streamed);
+        report(this.response);
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+        this.body.consume(decoder, ioControl);
+    }
+
+    @Override
+    protected HttpResponse buildResult(HttpContext context) {
+        UpstreamBody body = this.body;
+        if (body != null) {
+            body.end();
+        }
+        // Responses without a body are reported once complete
+        report(this.response);
+        return this.response;
+    }
+
+    @Override
+    protected void releaseResources() {
+        Exception failure = getException();
+        UpstreamBody body = this.body;
+        if (body != null) {
+            body.fail(failure instanceof IOException ? (IOException) failure
+                    : new IOException("Upstream body not received", failure));
+        }
+        if (this.reported.compareAndSet(false, true)) {
+            if (failure != null) {
+                this.callback.failed(failure);
+            } else {
+                this.callback.cancelled();
+            }
+        }
+    }
+
+    private void report(HttpResponse response) {
+        if (this.reported.compareAndSet(false, true)) {
+            this.callback.completed(response);
+        }
+    }
+
+    /**
+     * Closing the body early cancels the call, the consumer alone only stops receiving
+     */
+    private void abort() {
+        Cancellable call = this.call;
+        if (call != null) {
+            call.cancel();
+        }
+        cancel();
+    }
+}
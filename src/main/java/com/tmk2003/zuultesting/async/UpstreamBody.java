@@ -0,0 +1,212 @@
+package com.tmk2003.zuultesting.async;
+
+import org.apache.http.concurrent.Cancellable;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Upstream body handed from a client I/O thread to the thread relaying it, through a fixed size buffer.
+ *
+ * The I/O thread stops reading the upstream connection while the buffer is full and resumes once the
+ * reader drains it, so a slow client slows the upstream down instead of growing the heap. Blocking
+ * readers use it as an {@link InputStream}; the async write listener polls it with {@link #poll} and is
+ * told through {@link #onAvailable} when more arrives. Closing it before the end aborts the upstream call.
+ */
+public final class UpstreamBody extends InputStream {
+
+    private final ByteBuffer buffer;                                            // Received bytes, in write mode; guarded by this
+
+    /* Variables */
+    private IOControl ioControl;                                                // Upstream connection, suspended while full
+    private boolean suspended;                                                  // Input suspended by a full buffer
+    private boolean ended;                                                      // Every upstream byte received
+    private boolean closed;                                                     // Reader gone, later bytes discarded
+    private IOException failure;                                                // Upstream failure after the headers
+    private Runnable listener;                                                  // Told once when data or the end arrives
+    private Cancellable abort;                                                  // Aborts the upstream call on early close
+
+    /**
+     * @param capacity - Bytes held before the upstream connection is suspended
+     */
+    public UpstreamBody(int capacity) {
+        this.buffer = ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * @param abort - Cancels the upstream call when the body is closed before its end
+     */
+    synchronized void setAbort(Cancellable abort) {
+        this.abort = abort;
+    }
+
+    /**
+     * Moves decoded content into the buffer, called on the client I/O thread
+     */
+    void consume(ContentDecoder decoder, IOControl ioControl) throws IOException {
+        Runnable notify;
+        synchronized (this) {
+            this.ioControl = ioControl;
+            if (this.closed) {
+                // Nobody reads any more, drain the connection until the call is aborted
+                this.buffer.clear();
+            }
+            while (this.buffer.hasRemaining()) {
+                if (decoder.read(this.buffer) <= 0) {
+                    break;
+                }
+                if (this.closed) {
+                    this.buffer.clear();
+                }
+            }
+            if (decoder.isCompleted()) {
+                this.ended = true;
+            } else if (!this.buffer.hasRemaining()) {
+                ioControl.suspendInput();
+                this.suspended = true;
+            }
+            notify = signal();
+        }
+        run(notify);
+    }
+
+    /**
+     * Marks the body complete, called on the client I/O thread
+     */
+    void end() {
+        Runnable notify;
+        synchronized (this) {
+            this.ended = true;
+            notify = signal();
+        }
+        run(notify);
+    }
+
+    /**
+     * Fails readers waiting for more, called when the upstream call fails after its headers
+     */
+    void fail(IOException failure) {
+        Runnable notify;
+        synchronized (this) {
+            if (this.ended) {
+                return;
+            }
+            this.failure = failure;
+            notify = signal();
+        }
+        run(notify);
+    }
+
+    /**
+     * Reads what is buffered without waiting
+     * @param target - Destination array
+     * @param offset - First index written
+     * @param length - Most bytes read
+     * @return - Bytes read, 0 when nothing is buffered yet or -1 at the end of the body
+     * @throws IOException - When the upstream failed or the body was closed
+     */
+    public synchronized int poll(byte[] target, int offset, int length) throws IOException {
+        if (this.closed) {
+            throw new IOException("Upstream body closed");
+        }
+        if (this.buffer.position() == 0) {
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            return this.ended ? -1 : 0;
+        }
+        this.buffer.flip();
+        int read = Math.min(length, this.buffer.remaining());
+        this.buffer.get(target, offset, read);
+        this.buffer.compact();
+        if (this.suspended) {
+            this.suspended = false;
+            this.ioControl.requestInput();
+        }
+        return read;
+    }
+
+    /**
+     * Calls the listener once, right away if data or the end is already there, else on the client I/O
+     * thread when it arrives. The listener must not read on that thread.
+     * @param listener - Told when {@link #poll} has something new to return
+     */
+    public void onAvailable(Runnable listener) {
+        synchronized (this) {
+            if (this.buffer.position() == 0 && !this.ended && this.failure == null && !this.closed) {
+                this.listener = listener;
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    @Override
+    public synchronized int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int read;
+        while ((read = poll(target, offset, length)) == 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the upstream body");
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public synchronized int available() {
+        return this.buffer.position();
+    }
+
+    @Override
+    public void close() {
+        Cancellable call;
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.buffer.clear();
+            call = this.ended ? null : this.abort;
+            if (this.suspended) {
+                this.suspended = false;
+                this.ioControl.requestInput();
+            }
+            notifyAll();
+        }
+        if (call != null) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * Wakes blocking readers and takes the listener, which is run outside the lock
+     */
+    private Runnable signal() {
+        notifyAll();
+        Runnable notify = this.listener;
+        this.listener = null;
+        return notify;
+    }
+
+    private static void run(Runnable notify) {
+        if (notify != null) {
+            notify.run();
+        }
+    }
+}
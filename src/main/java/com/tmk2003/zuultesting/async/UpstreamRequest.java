@@ -0,0 +1,123 @@
+package com.tmk2003.zuultesting.async;
+
+import com.netflix.zuul.context.RequestContext;
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.message.BasicHttpRequest;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bodyless upstream request for the non-blocking client, built with the same target, path, query and
+ * headers as SimpleHostRoutingFilter would send
+ */
+public final class UpstreamRequest {
+
+    /* Final Variables */
+    private final HttpHost target;                                              // Route host
+    private final HttpRequest request;                                          // Request line and headers
+    private final String uri;                                                   // Path below the route host
+    private final String query;                                                 // Query string, with its ?
+
+    private UpstreamRequest(HttpHost target, HttpRequest request, String uri, String query) {
+        this.target = target;
+        this.request = request;
+        this.uri = uri;
+        this.query = query;
+    }
+
+    /**
+     * @param helper - Zuul request copying
+     * @param ctx - Current request context, routed to a host
+     * @return - Request to the route host
+     */
+    public static UpstreamRequest of(ProxyRequestHelper helper, RequestContext ctx) {
+        HttpServletRequest request = ctx.getRequest();
+        MultiValueMap<String, String> headers = helper.buildZuulRequestHeaders(request);
+        MultiValueMap<String, String> params = helper.buildZuulRequestQueryParams(request);
+        String uri = helper.buildZuulRequestURI(request);
+        helper.addIgnoredHeaders();
+
+        String query = helper.getQueryString(params);
+
+        URL host = ctx.getRouteHost();
+        BasicHttpRequest upstream = new BasicHttpRequest(request.getMethod(), path(host, uri) + query);
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                upstream.addHeader(header.getKey(), value);
+            }
+        }
+        return new UpstreamRequest(target(host), upstream, uri, query);
+    }
+
+    /**
+     * @param host - Another instance of the route
+     * @return - The same request sent to that instance
+     */
+    public UpstreamRequest at(URL host) {
+        BasicHttpRequest copy = new BasicHttpRequest(this.request.getRequestLine().getMethod(),
+                path(host, this.uri) + this.query);
+        copy.setHeaders(this.request.getAllHeaders());
+        return new UpstreamRequest(target(host), copy, this.uri, this.query);
+    }
+
+    public HttpHost getTarget() {
+        return target;
+    }
+
+    public HttpRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return - Fresh copy of the request to the same host, for sending it a second time
+     */
+    public UpstreamRequest copy() {
+        BasicHttpRequest copy = new BasicHttpRequest(this.request.getRequestLine());
+        copy.setHeaders(this.request.getAllHeaders());
+        return new UpstreamRequest(this.target, copy, this.uri, this.query);
+    }
+
+    private static HttpHost target(URL host) {
+        return new HttpHost(host.getHost(), host.getPort(), host.getProtocol());
+    }
+
+    private static String path(URL host, String uri) {
+        return StringUtils.cleanPath((host.getPath() + uri).replaceAll("/{2,}", "/"));
+    }
+
+    /**
+     * @param response - Upstream response
+     * @return - Its headers, as ProxyRequestHelper takes them
+     */
+    public static MultiValueMap<String, String> responseHeaders(HttpResponse response) {
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        for (Header header : response.getAllHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        return headers;
+    }
+
+    /**
+     * @param failure - Why the upstream call failed
+     * @return - Status answered to the client, 504 for timeouts
+     */
+    public static int failureStatus(Exception failure) {
+        if (failure instanceof SocketTimeoutException || failure instanceof ConnectTimeoutException) {
+            return HttpStatus.GATEWAY_TIMEOUT.value();
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+}
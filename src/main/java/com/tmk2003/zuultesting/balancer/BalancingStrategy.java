@@ -0,0 +1,17 @@
+package com.tmk2003.zuultesting.balancer;
+
+/**
+ * How {@link RouteBalancer} picks an upstream instance
+ */
+public enum BalancingStrategy {
+
+    /**
+     * Instance with the fewest requests in flight, ties broken at random
+     */
+    LEAST_OUTSTANDING,
+
+    /**
+     * Cheaper of two random instances, costed by latency times requests in flight
+     */
+    POWER_OF_TWO_CHOICES
+}
@@ -0,0 +1,44 @@
+package com.tmk2003.zuultesting.balancer;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the balancer of every route with gateway.routes.<route id>.balancer.enabled=true
+ */
+@Component
+public class LoadBalancerRegistry {
+
+    /* Variables */
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final ConcurrentMap<String, RouteBalancer> balancers
+            = new ConcurrentHashMap<>();                                        // Route id -> balancer
+
+    public LoadBalancerRegistry(GatewayProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param routeId - Zuul route id
+     * @return - Balancer of the route, null when the route has a single upstream
+     */
+    public RouteBalancer getBalancer(String routeId) {
+        GatewayProperties.Balancer settings = this.properties.getRoute(routeId).getBalancer();
+        if (routeId == null || !settings.isEnabled() || settings.getUrls().isEmpty()) {
+            return null;
+        }
+        return this.balancers.computeIfAbsent(routeId, id -> new RouteBalancer(settings));
+    }
+
+    /**
+     * @return - Balancers created so far, by route id
+     */
+    public Map<String, RouteBalancer> getBalancers() {
+        return Collections.unmodifiableMap(this.balancers);
+    }
+}
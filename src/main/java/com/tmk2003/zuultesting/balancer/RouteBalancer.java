@@ -0,0 +1,138 @@
+package com.tmk2003.zuultesting.balancer;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks an upstream instance of one route per request.
+ *
+ * Instances that failed max-failures times in a row are ejected for the ejection time, then get traffic
+ * again; a success clears their failures. When every instance is ejected the route fails open over all
+ * of them. Picking only reads atomics, so concurrent requests never wait on each other.
+ */
+public class RouteBalancer {
+
+    /* Variables */
+    private final List<UpstreamInstance> instances;                             // Route instances
+    private final BalancingStrategy strategy;                                   // Picking rule
+    private final int maxFailures;                                              // Failures before ejection
+    private final long ejectionNanos;                                           // Ejection time
+
+    public RouteBalancer(GatewayProperties.Balancer settings) {
+        List<UpstreamInstance> instances = new ArrayList<>();
+        for (String url : settings.getUrls()) {
+            try {
+                instances.add(new UpstreamInstance(new URL(url)));
+            } catch (MalformedURLException e) {
+                throw new IllegalArgumentException("Invalid upstream url " + url, e);
+            }
+        }
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("Balancer needs at least one upstream url");
+        }
+        this.instances = Collections.unmodifiableList(instances);
+        this.strategy = settings.getStrategy();
+        this.maxFailures = Math.max(1, settings.getMaxFailures());
+        this.ejectionNanos = settings.getEjectionTime().toNanos();
+    }
+
+    /**
+     * Pick an instance and count the request against it
+     * @param now - Current time, in nanos
+     * @return - Instance to route to, must be released
+     */
+    public UpstreamInstance choose(long now) {
+        UpstreamInstance chosen = this.strategy == BalancingStrategy.LEAST_OUTSTANDING
+                ? leastOutstanding(now)
+                : powerOfTwoChoices(now);
+        chosen.acquire();
+        return chosen;
+    }
+
+    /**
+     * Pick the cheapest available instance other than the one a request already went to, for its hedge
+     * @param now - Current time, in nanos
+     * @param excluded - Instance of the first attempt
+     * @return - Instance to route to, must be released; null when no other instance is available
+     */
+    public UpstreamInstance chooseOther(long now, UpstreamInstance excluded) {
+        UpstreamInstance best = null;
+        for (UpstreamInstance candidate : this.instances) {
+            if (candidate != excluded && candidate.isAvailable(now)
+                    && (best == null || candidate.cost(now) < best.cost(now))) {
+                best = candidate;
+            }
+        }
+        if (best != null) {
+            best.acquire();
+        }
+        return best;
+    }
+
+    /**
+     * Pick an instance for a synthetic request, which is neither counted nor measured
+     * @return - Random instance, not to be released
+     */
+    public UpstreamInstance any() {
+        return this.instances.get(ThreadLocalRandom.current().nextInt(this.instances.size()));
+    }
+
+    /**
+     * @param instance - Instance from {@link #choose(long)}
+     * @param rtt - Latency of the request, in nanos
+     * @param failed - true if the request failed
+     * @param now - Current time, in nanos
+     */
+    public void release(UpstreamInstance instance, long rtt, boolean failed, long now) {
+        instance.release(rtt, failed, this.maxFailures, this.ejectionNanos, now);
+    }
+
+    private UpstreamInstance leastOutstanding(long now) {
+        int size = this.instances.size();
+        int start = ThreadLocalRandom.current().nextInt(size);
+        UpstreamInstance best = null;
+        for (int i = 0; i < size; i++) {
+            UpstreamInstance candidate = this.instances.get((start + i) % size);
+            if (candidate.isAvailable(now) && (best == null || candidate.getOutstanding() < best.getOutstanding())) {
+                best = candidate;
+            }
+        }
+        return best != null ? best : this.instances.get(start);
+    }
+
+    private UpstreamInstance powerOfTwoChoices(long now) {
+        int size = this.instances.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UpstreamInstance first = null;
+        UpstreamInstance second = null;
+        // A few draws find two available instances unless most are ejected, then fall back to a scan
+        for (int draw = 0; draw < 2 * size && second == null; draw++) {
+            UpstreamInstance candidate = this.instances.get(random.nextInt(size));
+            if (!candidate.isAvailable(now) || candidate == first) {
+                continue;
+            }
+            if (first == null) {
+                first = candidate;
+            } else {
+                second = candidate;
+            }
+        }
+        if (first == null) {
+            return leastOutstanding(now);
+        }
+        if (second == null) {
+            return first;
+        }
+        return second.cost(now) < first.cost(now) ? second : first;
+    }
+
+    public List<UpstreamInstance> getInstances() {
+        return instances;
+    }
+}
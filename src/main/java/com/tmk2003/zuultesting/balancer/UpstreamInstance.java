@@ -0,0 +1,108 @@
+package com.tmk2003.zuultesting.balancer;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One upstream instance of a route with its load and health, all kept in atomics
+ */
+public final class UpstreamInstance {
+
+    /* Final Variables */
+    private static final int RTT_WEIGHT             = 8;                        // 1/8 weight of a new latency sample
+    private static final long DECAY_NANOS           = TimeUnit.SECONDS.toNanos(2); // Idle time that halves the latency
+
+    /* Variables */
+    private final URL url;                                                      // Instance base url
+    private final AtomicInteger outstanding = new AtomicInteger();              // Requests in flight
+    private final AtomicInteger failures = new AtomicInteger();                 // Consecutive failures
+    private final AtomicLong rttNanos = new AtomicLong();                       // Moving average latency, 0 until measured
+    private volatile long lastReleased;                                         // Nano time of the last answer
+    private volatile long ejectedUntil;                                         // Nano time the ejection ends
+    private volatile boolean ejected;                                           // Sitting out failures
+
+    /* Counters */
+    private final LongAdder requests    = new LongAdder();
+    private final LongAdder ejections   = new LongAdder();
+
+    UpstreamInstance(URL url) {
+        this.url = url;
+    }
+
+    /**
+     * @param now - Current time, in nanos
+     * @return - true if the instance may take requests
+     */
+    boolean isAvailable(long now) {
+        return !this.ejected || now - this.ejectedUntil >= 0;
+    }
+
+    /**
+     * Latency times requests in flight. The latency halves for every idle decay period, so an instance
+     * that was avoided for being slow gets probed again.
+     * @param now - Current time, in nanos
+     * @return - Cost of sending one more request
+     */
+    long cost(long now) {
+        long rtt = this.rttNanos.get();
+        long idle = now - this.lastReleased;
+        if (idle > DECAY_NANOS) {
+            rtt >>= Math.min(62, idle / DECAY_NANOS);
+        }
+        return Math.max(1, rtt) * (this.outstanding.get() + 1);
+    }
+
+    void acquire() {
+        this.outstanding.incrementAndGet();
+        this.requests.increment();
+    }
+
+    /**
+     * @param rtt - Latency of the request, in nanos
+     * @param failed - true if the request failed
+     * @param maxFailures - Consecutive failures that eject the instance
+     * @param ejectionNanos - Time an ejected instance sits out
+     * @param now - Current time, in nanos
+     */
+    void release(long rtt, boolean failed, int maxFailures, long ejectionNanos, long now) {
+        this.outstanding.decrementAndGet();
+        this.lastReleased = now;
+        if (!failed) {
+            this.failures.set(0);
+            this.ejected = false;
+            long average = this.rttNanos.get();
+            // Lost updates between racing releases only skip a sample
+            this.rttNanos.lazySet(average == 0 ? rtt : average + (rtt - average) / RTT_WEIGHT);
+            return;
+        }
+        if (this.failures.incrementAndGet() >= maxFailures) {
+            this.failures.set(0);
+            this.ejectedUntil = now + ejectionNanos;
+            this.ejected = true;
+            this.ejections.increment();
+        }
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getEjections() {
+        return ejections.sum();
+    }
+
+    public long getRttNanos() {
+        return rttNanos.get();
+    }
+}
@@ -0,0 +1,142 @@
+package com.tmk2003.zuultesting.cache;
+
+import com.netflix.util.Pair;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Works out how long a response may be cached from its Cache-Control and Expires headers
+ */
+public final class Freshness {
+
+    /* Final Variables */
+    public static final long NOT_CACHEABLE = 0L;                                // Lifetime of uncacheable responses
+
+    private Freshness() {
+    }
+
+    /**
+     * Freshness lifetime of a response
+     * @param headers - Upstream response headers
+     * @param now - Current time in epoch millis
+     * @return - Lifetime in millis, NOT_CACHEABLE when the response must not be cached
+     */
+    public static long lifetimeMillis(List<Pair<String, String>> headers, long now) {
+        String cacheControl = null;
+        String expires = null;
+        for (Pair<String, String> header : headers) {
+            String name = header.first();
+            if ("Cache-Control".equalsIgnoreCase(name)) {
+                cacheControl = cacheControl == null ? header.second() : cacheControl + "," + header.second();
+            } else if ("Expires".equalsIgnoreCase(name)) {
+                expires = header.second();
+            } else if ("Set-Cookie".equalsIgnoreCase(name)) {
+                return NOT_CACHEABLE;                                           // Never share per client state
+            } else if ("Vary".equalsIgnoreCase(name) && !variesOnEncodingOnly(header.second())) {
+                return NOT_CACHEABLE;                                           // Key does not cover the variants
+            }
+        }
+
+        if (cacheControl != null) {
+            long maxAge = -1;
+            long sharedMaxAge = -1;
+            for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                String value = directive.trim();
+                if (value.equals("no-store") || value.equals("no-cache") || value.equals("private")) {
+                    return NOT_CACHEABLE;
+                } else if (value.startsWith("s-maxage=")) {
+                    sharedMaxAge = seconds(value.substring("s-maxage=".length()));
+                } else if (value.startsWith("max-age=")) {
+                    maxAge = seconds(value.substring("max-age=".length()));
+                }
+            }
+            // The gateway is a shared cache, s-maxage wins over max-age
+            long lifetime = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+            if (lifetime >= 0) {
+                return lifetime * 1000L;
+            }
+        }
+
+        if (expires != null) {
+            try {
+                long expiresAt = ZonedDateTime.parse(expires.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+                return Math.max(NOT_CACHEABLE, expiresAt - now);
+            } catch (DateTimeParseException e) {
+                return NOT_CACHEABLE;                                           // Invalid dates mean already expired
+            }
+        }
+        return NOT_CACHEABLE;
+    }
+
+    /**
+     * Whether a response belongs to the client that asked for it, whatever its lifetime
+     * @param headers - Response headers
+     * @return - true when the response sets a cookie or is marked private or no-store
+     */
+    public static boolean isPrivate(List<Pair<String, String>> headers) {
+        for (Pair<String, String> header : headers) {
+            String name = header.first();
+            if ("Set-Cookie".equalsIgnoreCase(name)) {
+                return true;
+            }
+            if ("Cache-Control".equalsIgnoreCase(name) && header.second() != null) {
+                for (String directive : header.second().toLowerCase(Locale.ROOT).split(",")) {
+                    String value = directive.trim();
+                    if (value.equals("private") || value.startsWith("private=") || value.equals("no-store")) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a shared cache may store a response to a request with Authorization, RFC 7234 section 3.2
+     * @param headers - Response headers
+     * @return - true when Cache-Control carries public, s-maxage or must-revalidate
+     */
+    public static boolean allowsAuthorized(List<Pair<String, String>> headers) {
+        for (Pair<String, String> header : headers) {
+            if ("Cache-Control".equalsIgnoreCase(header.first()) && header.second() != null) {
+                for (String directive : header.second().toLowerCase(Locale.ROOT).split(",")) {
+                    String value = directive.trim();
+                    if (value.equals("public") || value.startsWith("s-maxage=") || value.equals("must-revalidate")) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The cache key ignores request headers; Accept-Encoding variants are safe as SendResponseFilter
+     * inflates gzipped bodies for clients that do not accept them, any other variant is not
+     */
+    private static boolean variesOnEncodingOnly(String vary) {
+        if (vary == null) {
+            return true;
+        }
+        for (String field : vary.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty() && !"Accept-Encoding".equalsIgnoreCase(name)) {
+                return false;                                                   // Includes Vary: *
+            }
+        }
+        return true;
+    }
+
+    private static long seconds(String value) {
+        try {
+            return Math.max(0L, Long.parseLong(value.trim().replace("\"", "")));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
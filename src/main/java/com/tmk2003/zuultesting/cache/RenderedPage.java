@@ -0,0 +1,60 @@
+package com.tmk2003.zuultesting.cache;
+
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A rendered template, held as identity and gzip bytes with a strong ETag per representation
+ */
+public final class RenderedPage {
+
+    /* Variables */
+    private final byte[] identity;                                              // UTF-8 page
+    private final byte[] gzip;                                                  // Gzip encoded page
+    private final String identityETag;                                          // Quoted strong validator
+    private final String gzipETag;                                              // Differs, the bytes differ
+
+    private RenderedPage(byte[] identity, byte[] gzip) {
+        this.identity = identity;
+        this.gzip = gzip;
+        String digest = DigestUtils.md5DigestAsHex(identity);
+        this.identityETag = "\"" + digest + "\"";
+        this.gzipETag = "\"" + digest + "-gzip\"";
+    }
+
+    /**
+     * @param html - Rendered page
+     * @return - Page with both representations computed
+     */
+    public static RenderedPage of(String html) {
+        byte[] identity = html.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(identity.length / 2 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new RenderedPage(identity, gzip.toByteArray());
+    }
+
+    /**
+     * @param gzipped - true for the gzip representation
+     * @return - Body bytes, shared and must not be modified
+     */
+    public byte[] getBody(boolean gzipped) {
+        return gzipped ? gzip : identity;
+    }
+
+    /**
+     * @param gzipped - true for the gzip representation
+     * @return - Quoted strong ETag of the representation
+     */
+    public String getETag(boolean gzipped) {
+        return gzipped ? gzipETag : identityETag;
+    }
+}
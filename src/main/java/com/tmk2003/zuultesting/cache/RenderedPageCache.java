@@ -0,0 +1,124 @@
+package com.tmk2003.zuultesting.cache;
+
+import com.tmk2003.zuultesting.support.Contexts;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.expression.ThymeleafEvaluationContext;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Templates that only depend on static configuration, rendered once and served from memory.
+ *
+ * Each page is rendered on startup or on its first hit, then served as gzip or identity bytes with a
+ * strong ETag. Successful pages answer a matching If-None-Match with 304; error pages always carry
+ * their error status and body, so the error page costs a header copy and a write even in an error storm.
+ */
+@Component
+public class RenderedPageCache {
+
+    /* Final Variables */
+    private static final List<String> STATIC_PAGES  = Arrays.asList("index", "error");
+    private static final String CONTENT_TYPE        = MediaType.TEXT_HTML_VALUE + ";charset=UTF-8";
+
+    /* Variables */
+    private final ITemplateEngine templateEngine;                               // Thymeleaf
+    private final ApplicationContext applicationContext;                        // Beans for template expressions
+    private final ConcurrentMap<String, RenderedPage> pages
+            = new ConcurrentHashMap<>();                                        // Template name -> rendered page
+
+    public RenderedPageCache(ITemplateEngine templateEngine, ApplicationContext applicationContext) {
+        this.templateEngine = templateEngine;
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Render the static pages before the first request needs them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void renderStaticPages() {
+        STATIC_PAGES.forEach(this::getPage);
+    }
+
+    /**
+     * @param template - Thymeleaf template name
+     * @return - Rendered page, rendered now if it was not yet
+     */
+    public RenderedPage getPage(String template) {
+        return this.pages.computeIfAbsent(template, this::render);
+    }
+
+    /**
+     * Write a page, or 304 when the client already holds it
+     * @param template - Thymeleaf template name
+     * @param status - Response status, only 200 responses are answered with 304
+     * @param request - Current request
+     * @param response - Current response
+     * @throws IOException - When writing the page fails
+     */
+    public void write(String template, int status, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        RenderedPage page = getPage(template);
+        boolean gzipped = Contexts.acceptsGzip(request);
+        String eTag = page.getETag(gzipped);
+
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (status == HttpStatus.OK.value() && matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        byte[] body = page.getBody(gzipped);
+        response.setStatus(status);
+        response.setContentType(CONTENT_TYPE);
+        if (gzipped) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        if (!"HEAD".equalsIgnoreCase(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private RenderedPage render(String template) {
+        Context context = new Context(Locale.getDefault());
+        context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(this.applicationContext, null));
+        return RenderedPage.of(this.templateEngine.process(template, context));
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, W/ prefixes are ignored
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
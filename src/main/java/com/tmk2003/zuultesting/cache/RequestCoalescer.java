@@ -0,0 +1,75 @@
+package com.tmk2003.zuultesting.cache;
+
+import com.tmk2003.zuultesting.support.ResponseSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight registry: the first request for a key becomes the leader and goes upstream, every
+ * identical request arriving while it is in flight waits for the leader's response instead.
+ */
+@Component
+public class RequestCoalescer {
+
+    /* Variables */
+    private final ConcurrentMap<String, CompletableFuture<ResponseSnapshot>> inFlight
+            = new ConcurrentHashMap<>();                                        // Key -> response of the leader
+
+    /* Counters */
+    private final LongAdder leaders     = new LongAdder();                      // Requests that went upstream
+    private final LongAdder coalesced   = new LongAdder();                      // Requests that waited on a leader
+
+    /**
+     * Join the flight for a key
+     * @param key - Coalescing key
+     * @return - null if the caller is the leader, otherwise the leader's pending response
+     */
+    public CompletableFuture<ResponseSnapshot> join(String key) {
+        CompletableFuture<ResponseSnapshot> flight = this.inFlight.putIfAbsent(key, new CompletableFuture<>());
+        if (flight == null) {
+            this.leaders.increment();
+            return null;
+        }
+        this.coalesced.increment();
+        return flight;
+    }
+
+    /**
+     * Land the flight of a leader, releasing the waiting requests
+     * @param key - Coalescing key
+     * @param response - Shared response, null lets the followers go upstream themselves
+     */
+    public void complete(String key, ResponseSnapshot response) {
+        CompletableFuture<ResponseSnapshot> flight = this.inFlight.remove(key);
+        if (flight != null) {
+            flight.complete(response);
+        }
+    }
+
+    /**
+     * Drop a flight whose leader never landed, so later requests elect a new leader
+     * @param key - Coalescing key
+     * @param flight - The flight that timed out
+     */
+    public void abandon(String key, CompletableFuture<ResponseSnapshot> flight) {
+        if (this.inFlight.remove(key, flight)) {
+            flight.complete(null);
+        }
+    }
+
+    public long getLeaders() {
+        return leaders.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,61 @@
+package com.tmk2003.zuultesting.cache;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the response cache of every route with gateway.routes.<route id>.cache.enabled=true
+ */
+@Component
+public class ResponseCacheManager {
+
+    /* Variables */
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final ConcurrentMap<String, RouteResponseCache> caches
+            = new ConcurrentHashMap<>();                                        // Route id -> cache
+
+    public ResponseCacheManager(GatewayProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param routeId - Zuul route id
+     * @return - Cache of the route, null when caching is disabled for it
+     */
+    public RouteResponseCache getCache(String routeId) {
+        GatewayProperties.Cache settings = this.properties.getRoute(routeId).getCache();
+        if (routeId == null || !settings.isEnabled()) {
+            return null;
+        }
+        return this.caches.computeIfAbsent(routeId, id -> new RouteResponseCache(
+                settings.getMaxSize().toBytes(), settings.getMaxEntrySize().toBytes()));
+    }
+
+    /**
+     * @param routeId - Zuul route id
+     * @return - Longest time a response of the route may be cached, in millis
+     */
+    public long getMaxTtlMillis(String routeId) {
+        return this.properties.getRoute(routeId).getCache().getTtl().toMillis();
+    }
+
+    /**
+     * @param routeId - Zuul route id
+     * @return - Largest response body of the route that may be cached, in bytes
+     */
+    public long getMaxEntryBytes(String routeId) {
+        return this.properties.getRoute(routeId).getCache().getMaxEntrySize().toBytes();
+    }
+
+    /**
+     * @return - Caches created so far, by route id
+     */
+    public Map<String, RouteResponseCache> getCaches() {
+        return Collections.unmodifiableMap(this.caches);
+    }
+}
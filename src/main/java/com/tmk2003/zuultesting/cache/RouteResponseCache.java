@@ -0,0 +1,128 @@
+package com.tmk2003.zuultesting.cache;
+
+import com.tmk2003.zuultesting.support.ResponseSnapshot;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size bounded LRU cache of the responses of one route.
+ *
+ * Entries expire after their freshness lifetime, and the least recently used entries are evicted
+ * once the cached bytes exceed the route's cap.
+ */
+public class RouteResponseCache {
+
+    /* Variables */
+    private final long maxBytes;                                                // Cap on the cached bytes
+    private final long maxEntryBytes;                                           // Cap on a single entry
+    private final LinkedHashMap<String, Entry> entries
+            = new LinkedHashMap<>(64, 0.75f, true);                             // Access ordered, eldest is LRU
+    private long bytes;                                                         // Bytes currently cached
+
+    /* Counters */
+    private final LongAdder hits        = new LongAdder();
+    private final LongAdder misses      = new LongAdder();
+    private final LongAdder evictions   = new LongAdder();
+
+    public RouteResponseCache(long maxBytes, long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    }
+
+    /**
+     * Look up a fresh response
+     * @param key - Resource key
+     * @param now - Current time in epoch millis
+     * @return - Cached response or null on a miss
+     */
+    public ResponseSnapshot get(String key, long now) {
+        synchronized (this.entries) {
+            Entry entry = this.entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                this.hits.increment();
+                return entry.response;
+            }
+            if (entry != null) {
+                remove(key, entry);
+            }
+        }
+        this.misses.increment();
+        return null;
+    }
+
+    /**
+     * Cache a response, evicting least recently used entries to stay within the cap
+     * @param key - Resource key
+     * @param response - Response to cache
+     * @param expiresAt - Epoch millis the response stops being fresh
+     */
+    public void put(String key, ResponseSnapshot response, long expiresAt) {
+        long size = response.size();
+        if (size > this.maxEntryBytes) {
+            return;
+        }
+        synchronized (this.entries) {
+            Entry previous = this.entries.put(key, new Entry(response, expiresAt, size));
+            if (previous != null) {
+                this.bytes -= previous.size;
+            }
+            this.bytes += size;
+
+            Iterator<Map.Entry<String, Entry>> eldest = this.entries.entrySet().iterator();
+            while (this.bytes > this.maxBytes && eldest.hasNext()) {
+                Entry evicted = eldest.next().getValue();
+                eldest.remove();
+                this.bytes -= evicted.size;
+                this.evictions.increment();
+            }
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        this.entries.remove(key);
+        this.bytes -= entry.size;
+        this.evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getEntries() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public long getBytes() {
+        synchronized (this.entries) {
+            return this.bytes;
+        }
+    }
+
+    /**
+     * A cached response and its bookkeeping
+     */
+    private static final class Entry {
+        private final ResponseSnapshot response;
+        private final long expiresAt;
+        private final long size;
+
+        private Entry(ResponseSnapshot response, long expiresAt, long size) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+            this.size = size;
+        }
+    }
+}
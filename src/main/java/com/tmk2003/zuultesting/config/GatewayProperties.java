@@ -0,0 +1,913 @@
+package com.tmk2003.zuultesting.config;
+
+import com.tmk2003.zuultesting.accesslog.OverflowPolicy;
+import com.tmk2003.zuultesting.balancer.BalancingStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gateway features configured per route, next to the matching zuul.routes.* entries.
+ * gateway.routes.<route id> uses the same ids as zuul.routes.<route id>
+ */
+@ConfigurationProperties("gateway")
+public class GatewayProperties {
+
+    /* Final Variables */
+    private static final RouteSettings DEFAULTS = new RouteSettings();         // Settings of unconfigured routes
+
+    /* Variables */
+    private Map<String, RouteSettings> routes = new LinkedHashMap<>();         // Route id -> settings
+    private Buffers buffers = new Buffers();                                    // Shared copy buffers
+    private Async async = new Async();                                          // Non-blocking proxy mode
+    private RouteFile routeFile = new RouteFile();                              // Hot reloaded routes
+    private RequestBodies requestBodies = new RequestBodies();                  // Request body memory bounds
+    private Warmup warmup = new Warmup();                                       // Startup warm-up
+    private AccessLog accessLog = new AccessLog();                              // Per request access log
+    private Metrics metrics = new Metrics();                                    // Route latency windows
+
+    /**
+     * Settings of a route, unconfigured routes get the defaults
+     * @param routeId - Zuul route id
+     * @return - Route settings, never null
+     */
+    public RouteSettings getRoute(String routeId) {
+        RouteSettings settings = routeId == null ? null : this.routes.get(routeId);
+        return settings == null ? DEFAULTS : settings;
+    }
+
+    public Map<String, RouteSettings> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RouteSettings> routes) {
+        this.routes = routes;
+    }
+
+    public Buffers getBuffers() {
+        return buffers;
+    }
+
+    public void setBuffers(Buffers buffers) {
+        this.buffers = buffers;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public void setAsync(Async async) {
+        this.async = async;
+    }
+
+    public RouteFile getRouteFile() {
+        return routeFile;
+    }
+
+    public void setRouteFile(RouteFile routeFile) {
+        this.routeFile = routeFile;
+    }
+
+    public RequestBodies getRequestBodies() {
+        return requestBodies;
+    }
+
+    public void setRequestBodies(RequestBodies requestBodies) {
+        this.requestBodies = requestBodies;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public AccessLog getAccessLog() {
+        return accessLog;
+    }
+
+    public void setAccessLog(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * gateway.routes.<route id>.*
+     */
+    public static class RouteSettings {
+
+        private Cache cache = new Cache();                                      // Response cache
+        private Coalesce coalesce = new Coalesce();                             // Request coalescing
+        private Streaming streaming = new Streaming();                          // Response pass-through
+        private RateLimit rateLimit = new RateLimit();                          // Token buckets
+        private Bulkhead bulkhead = new Bulkhead();                             // Adaptive in-flight limit
+        private Balancer balancer = new Balancer();                             // Upstream instances
+        private Hedge hedge = new Hedge();                                      // Second attempts of slow GETs
+        private Compression compression = new Compression();                    // Gzip of uncompressed bodies
+        private RequestBody requestBody = new RequestBody();                    // Buffering of request bodies
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public void setCache(Cache cache) {
+            this.cache = cache;
+        }
+
+        public Coalesce getCoalesce() {
+            return coalesce;
+        }
+
+        public void setCoalesce(Coalesce coalesce) {
+            this.coalesce = coalesce;
+        }
+
+        public Streaming getStreaming() {
+            return streaming;
+        }
+
+        public void setStreaming(Streaming streaming) {
+            this.streaming = streaming;
+        }
+
+        public RateLimit getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(RateLimit rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public Bulkhead getBulkhead() {
+            return bulkhead;
+        }
+
+        public void setBulkhead(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        public Balancer getBalancer() {
+            return balancer;
+        }
+
+        public void setBalancer(Balancer balancer) {
+            this.balancer = balancer;
+        }
+
+        public Hedge getHedge() {
+            return hedge;
+        }
+
+        public void setHedge(Hedge hedge) {
+            this.hedge = hedge;
+        }
+
+        public Compression getCompression() {
+            return compression;
+        }
+
+        public void setCompression(Compression compression) {
+            this.compression = compression;
+        }
+
+        public RequestBody getRequestBody() {
+            return requestBody;
+        }
+
+        public void setRequestBody(RequestBody requestBody) {
+            this.requestBody = requestBody;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.cache.*
+     */
+    public static class Cache {
+
+        private boolean enabled = false;                                        // Cache GET responses of the route
+        private Duration ttl = Duration.ofSeconds(60);                          // Upper bound on the upstream freshness
+        private DataSize maxSize = DataSize.ofMegabytes(10);                    // Total bytes held for the route
+        private DataSize maxEntrySize = DataSize.ofMegabytes(1);                // Larger responses are not cached
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataSize getMaxEntrySize() {
+            return maxEntrySize;
+        }
+
+        public void setMaxEntrySize(DataSize maxEntrySize) {
+            this.maxEntrySize = maxEntrySize;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.coalesce.*
+     */
+    public static class Coalesce {
+
+        private boolean enabled = false;                                        // Share one upstream GET per key
+        private List<String> headers = Arrays.asList(
+                "Accept", "Accept-Encoding", "Accept-Language");                // Request headers that are part of the key
+        private Duration timeout = Duration.ofSeconds(10);                      // Longest wait for the shared response
+        private DataSize maxSize = DataSize.ofMegabytes(1);                     // Larger responses are not shared
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getHeaders() {
+            return headers;
+        }
+
+        public void setHeaders(List<String> headers) {
+            this.headers = headers;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.streaming.*
+     */
+    public static class Streaming {
+
+        private boolean enabled = false;                                        // Relay large bodies through pooled buffers
+        private DataSize threshold = DataSize.ofMegabytes(1);                   // Smaller bodies go through SendResponseFilter
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(DataSize threshold) {
+            this.threshold = threshold;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.rate-limit.*
+     */
+    public static class RateLimit {
+
+        private boolean enabled = false;                                        // Enforce the limits below
+        private Limit route = new Limit();                                      // Shared by every client of the route
+        private Limit client = new Limit();                                     // Per client key
+        private String clientHeader;                                            // Client key header, remote address if unset
+        private int maxClients = 10000;                                         // Client buckets kept per route
+        private Duration idleTimeout = Duration.ofMinutes(5);                   // Full buckets idle this long are evicted
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Limit getRoute() {
+            return route;
+        }
+
+        public void setRoute(Limit route) {
+            this.route = route;
+        }
+
+        public Limit getClient() {
+            return client;
+        }
+
+        public void setClient(Limit client) {
+            this.client = client;
+        }
+
+        public String getClientHeader() {
+            return clientHeader;
+        }
+
+        public void setClientHeader(String clientHeader) {
+            this.clientHeader = clientHeader;
+        }
+
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.rate-limit.route.* and .client.*
+     */
+    public static class Limit {
+
+        private int permits = 0;                                                // Requests per period, 0 is unlimited
+        private Duration period = Duration.ofSeconds(1);                        // Refill period
+        private int burst = 0;                                                  // Requests allowed at once, 0 uses permits
+
+        public int getPermits() {
+            return permits;
+        }
+
+        public void setPermits(int permits) {
+            this.permits = permits;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.bulkhead.*
+     */
+    public static class Bulkhead {
+
+        private boolean enabled = false;                                        // Limit upstream calls in flight
+        private int initialLimit = 0;                                           // Limit before any latency was seen, 0 for the ceiling
+        private int minLimit = 0;                                               // Floor while the upstream is slow, 0 for a tenth of the ceiling
+        private int maxLimit = 0;                                               // Ceiling while the upstream is healthy, 0 for a share of the worker threads
+        private double tolerance = 2.0;                                         // Latency growth accepted before shrinking
+        private double smoothing = 0.2;                                         // Weight of each new limit estimate
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.balancer.*
+     */
+    public static class Balancer {
+
+        private boolean enabled = false;                                        // Spread the route over the urls below
+        private List<String> urls = new ArrayList<>();                          // Upstream instances, replace zuul.routes.<id>.url
+        private BalancingStrategy strategy
+                = BalancingStrategy.POWER_OF_TWO_CHOICES;                       // How an instance is picked
+        private int maxFailures = 3;                                            // Consecutive failures before ejection
+        private Duration ejectionTime = Duration.ofSeconds(30);                 // Time an ejected instance sits out
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public BalancingStrategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(BalancingStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public int getMaxFailures() {
+            return maxFailures;
+        }
+
+        public void setMaxFailures(int maxFailures) {
+            this.maxFailures = maxFailures;
+        }
+
+        public Duration getEjectionTime() {
+            return ejectionTime;
+        }
+
+        public void setEjectionTime(Duration ejectionTime) {
+            this.ejectionTime = ejectionTime;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.hedge.*
+     */
+    public static class Hedge {
+
+        private boolean enabled = false;                                        // Send a second attempt of slow GETs
+        private Duration delay = Duration.ofMillis(50);                         // Wait before hedging, until the percentile is known
+        private double percentile = 0;                                          // Hedge past this latency percentile, 0 keeps the delay
+        private Duration window = Duration.ofSeconds(10);                       // Latencies the percentile is taken over
+        private double budget = 0.1;                                            // Hedges per request, at most 1
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getDelay() {
+            return delay;
+        }
+
+        public void setDelay(Duration delay) {
+            this.delay = delay;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public double getBudget() {
+            return budget;
+        }
+
+        public void setBudget(double budget) {
+            this.budget = budget;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.compression.*
+     */
+    public static class Compression {
+
+        private boolean enabled = false;                                        // Gzip responses for clients accepting it
+        private List<String> mimeTypes = Arrays.asList(
+                "application/json", "application/javascript", "application/xml",
+                "text/*", "image/svg+xml");                                     // Compressible content types
+        private DataSize minSize = DataSize.ofKilobytes(1);                     // Smaller bodies are sent as is
+        private int level = 6;                                                  // Deflate level, 1 fastest to 9 smallest
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getMimeTypes() {
+            return mimeTypes;
+        }
+
+        public void setMimeTypes(List<String> mimeTypes) {
+            this.mimeTypes = mimeTypes;
+        }
+
+        public DataSize getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(DataSize minSize) {
+            this.minSize = minSize;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+    }
+
+    /**
+     * gateway.routes.<route id>.request-body.*
+     */
+    public static class RequestBody {
+
+        private boolean buffered = false;                                       // Read the whole body before routing
+        private DataSize memoryThreshold = DataSize.ofMegabytes(1);             // Larger buffered bodies go to disk
+
+        public boolean isBuffered() {
+            return buffered;
+        }
+
+        public void setBuffered(boolean buffered) {
+            this.buffered = buffered;
+        }
+
+        public DataSize getMemoryThreshold() {
+            return memoryThreshold;
+        }
+
+        public void setMemoryThreshold(DataSize memoryThreshold) {
+            this.memoryThreshold = memoryThreshold;
+        }
+    }
+
+    /**
+     * gateway.request-bodies.*
+     */
+    public static class RequestBodies {
+
+        private DataSize maxMemory = DataSize.ofMegabytes(64);                  // Buffered body bytes held in heap, over all requests
+        private String spoolDirectory;                                          // Spilled bodies, null for java.io.tmpdir
+
+        public DataSize getMaxMemory() {
+            return maxMemory;
+        }
+
+        public void setMaxMemory(DataSize maxMemory) {
+            this.maxMemory = maxMemory;
+        }
+
+        public String getSpoolDirectory() {
+            return spoolDirectory;
+        }
+
+        public void setSpoolDirectory(String spoolDirectory) {
+            this.spoolDirectory = spoolDirectory;
+        }
+    }
+
+    /**
+     * gateway.buffers.*
+     */
+    public static class Buffers {
+
+        private DataSize size = DataSize.ofKilobytes(64);                       // Size of one copy buffer
+        private int maxPooled = 64;                                             // Idle buffers kept for reuse
+        private int maxPooledDeflaters = 32;                                    // Idle gzip deflaters kept for reuse
+
+        public DataSize getSize() {
+            return size;
+        }
+
+        public void setSize(DataSize size) {
+            this.size = size;
+        }
+
+        public int getMaxPooled() {
+            return maxPooled;
+        }
+
+        public void setMaxPooled(int maxPooled) {
+            this.maxPooled = maxPooled;
+        }
+
+        public int getMaxPooledDeflaters() {
+            return maxPooledDeflaters;
+        }
+
+        public void setMaxPooledDeflaters(int maxPooledDeflaters) {
+            this.maxPooledDeflaters = maxPooledDeflaters;
+        }
+    }
+
+    /**
+     * gateway.warmup.*
+     */
+    public static class Warmup {
+
+        private boolean enabled = false;                                        // Warm up before reporting ready
+        private int connectionsPerRoute = 4;                                    // Concurrent requests opening pooled connections
+        private int requests = 2000;                                            // Synthetic requests per route, for the JIT
+        private String path = "/";                                              // Requested below each route's prefix
+        private Duration timeout = Duration.ofSeconds(30);                      // Longest warm-up, ready regardless afterwards
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getConnectionsPerRoute() {
+            return connectionsPerRoute;
+        }
+
+        public void setConnectionsPerRoute(int connectionsPerRoute) {
+            this.connectionsPerRoute = connectionsPerRoute;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public void setRequests(int requests) {
+            this.requests = requests;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * gateway.metrics.*
+     */
+    public static class Metrics {
+
+        private Duration window = Duration.ofSeconds(10);                       // Latencies are reported over one to two windows
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+
+    /**
+     * gateway.access-log.*
+     */
+    public static class AccessLog {
+
+        private boolean enabled = false;                                        // Write a line per proxied request
+        private String file = "logs/access.log";                                // Appended to, parent directories created
+        private int capacity = 8192;                                            // Ring slots, rounded up to a power of two
+        private int batchSize = 512;                                            // Most records written per file write
+        private Duration flushInterval = Duration.ofMillis(100);                // Longest wait of the writer for new records
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;            // What a request does when the ring is full
+        private Duration maxWait = Duration.ofMillis(10);                       // Longest wait for a slot under WAIT
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    /**
+     * gateway.route-file.*, zuul.routes.* and zuul.ignored-patterns reloaded from a file
+     */
+    public static class RouteFile {
+
+        private String location;                                                // Properties or YAML file, null to disable
+        private Duration pollInterval = Duration.ofSeconds(1);                  // Delay between checks for changes
+
+        public String getLocation() {
+            return location;
+        }
+
+        public void setLocation(String location) {
+            this.location = location;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+    }
+
+    /**
+     * gateway.async.*, timeouts follow zuul.host.*
+     */
+    public static class Async {
+
+        private boolean enabled = false;                                        // Proxy bodyless requests without holding a worker thread
+        private int ioThreads = 0;                                              // Client I/O threads, 0 for one per core
+        private int maxConnections = 10000;                                     // Upstream connections over all routes
+        private int maxConnectionsPerRoute = 5000;                              // Upstream connections per host
+        private DataSize bufferSize = DataSize.ofKilobytes(64);                 // Upstream body held per response before reading pauses
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public DataSize getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(DataSize bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.tmk2003.zuultesting.controllers;
+
+import com.tmk2003.zuultesting.cache.ResponseCacheManager;
+import com.tmk2003.zuultesting.cache.RouteResponseCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Exposes the response cache counters
+ */
+@RestController
+public class CacheController {
+
+    private final ResponseCacheManager cacheManager;
+
+    public CacheController(ResponseCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Hit, miss and eviction counters of every route cache
+     * @return - Route id -> cache counters
+     */
+    @GetMapping("/gateway/cache")
+    public Map<String, RouteResponseCache> cache() {
+        return cacheManager.getCaches();
+    }
+}
@@ -1,18 +1,32 @@
 package com.tmk2003.zuultesting.controllers;
 
+import com.tmk2003.zuultesting.cache.RenderedPageCache;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
 @Controller
 public class ErrorController implements org.springframework.boot.web.servlet.error.ErrorController {
 
+    private final RenderedPageCache pageCache;                                  // Pre-rendered templates
+
+    public ErrorController(RenderedPageCache pageCache) {
+        this.pageCache = pageCache;
+    }
+
     /**
-     * Default route to the application error page
-     * @return - Thymeleaf template name
+     * Default route to the application error page, the pre-rendered error template with the error status
      */
     @RequestMapping("/error")
-    public String error() {
-        return "error";
+    public void error(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Object status = request.getAttribute(RequestDispatcher.ERROR_STATUS_CODE);
+        this.pageCache.write("error", status instanceof Integer ? (Integer) status : HttpStatus.OK.value(),
+                request, response);
     }
 
     @Override
@@ -1,20 +1,31 @@
 package com.tmk2003.zuultesting.controllers;
 
+import com.tmk2003.zuultesting.cache.RenderedPageCache;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
 /**
  * Basic routes for the application
  */
 @Controller
 public class IndexController {
 
+    private final RenderedPageCache pageCache;                                  // Pre-rendered templates
+
+    public IndexController(RenderedPageCache pageCache) {
+        this.pageCache = pageCache;
+    }
+
     /**
-     * Default route to the application
-     * @return - Thymeleaf template name
+     * Default route to the application, the pre-rendered index template
      */
     @RequestMapping("/")
-    public String index() {
-        return "index";
+    public void index(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        this.pageCache.write("index", HttpStatus.OK.value(), request, response);
     }
 }
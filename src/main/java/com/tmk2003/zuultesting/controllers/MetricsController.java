@@ -0,0 +1,29 @@
+package com.tmk2003.zuultesting.controllers;
+
+import com.tmk2003.zuultesting.metrics.GatewayMetrics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Exposes the per route gateway metrics, rendered by the index dashboard
+ */
+@RestController
+public class MetricsController {
+
+    private final GatewayMetrics metrics;
+
+    public MetricsController(GatewayMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Latency percentiles, in flight requests and traffic of every route
+     * @return - Route id -> metrics
+     */
+    @GetMapping("/gateway/metrics")
+    public Map<String, Object> metrics() {
+        return metrics.snapshot();
+    }
+}
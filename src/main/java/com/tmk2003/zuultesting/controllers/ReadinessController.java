@@ -0,0 +1,39 @@
+package com.tmk2003.zuultesting.controllers;
+
+import com.tmk2003.zuultesting.warmup.GatewayWarmup;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Readiness for load balancers, 503 while the gateway is still warming up
+ */
+@RestController
+public class ReadinessController {
+
+    private final ObjectProvider<GatewayWarmup> warmup;
+
+    public ReadinessController(ObjectProvider<GatewayWarmup> warmup) {
+        this.warmup = warmup;
+    }
+
+    /**
+     * @return - Whether the gateway takes traffic, with the warm-up phase timings once known
+     */
+    @GetMapping("/gateway/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        GatewayWarmup current = this.warmup.getIfAvailable();
+        boolean ready = current == null || current.isReady();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("ready", ready);
+        if (current != null) {
+            body.put("warmupMillis", current.getPhases());
+        }
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+}
@@ -0,0 +1,65 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.accesslog.AccessLogRecord;
+import com.tmk2003.zuultesting.accesslog.AccessLogWriter;
+import com.tmk2003.zuultesting.metrics.CountingRequestWrapper;
+import com.tmk2003.zuultesting.metrics.CountingResponseWrapper;
+import com.tmk2003.zuultesting.metrics.RequestTimings;
+import com.tmk2003.zuultesting.support.Contexts;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.SEND_RESPONSE_FILTER_ORDER;
+
+/**
+ * Last post filter: hands the route, status, upstream latency and body sizes of the request to the
+ * {@link AccessLogWriter}. It runs once {@code SendResponseFilter} has written the body so the response
+ * bytes are counted; async mode responses are written later and log the bytes sent so far.
+ */
+public class AccessLogFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = SEND_RESPONSE_FILTER_ORDER + 1;
+
+    private final AccessLogWriter writer;                                       // Ring of records not written yet
+
+    public AccessLogFilter(AccessLogWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public String filterType() {
+        return POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.getRequest() != null && ctx.getResponse() != null && !Contexts.isWarmup(ctx);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        HttpServletRequest request = ctx.getRequest();
+        HttpServletResponse response = ctx.getResponse();
+        RequestTimings timings = RequestTimings.of(request);
+        CountingRequestWrapper countingRequest = CountingRequestWrapper.of(request);
+        CountingResponseWrapper countingResponse = CountingResponseWrapper.of(response);
+        this.writer.log(Contexts.routeId(ctx), request.getMethod(), request.getRequestURI(), response.getStatus(),
+                timings == null ? AccessLogRecord.UNKNOWN : timings.getUpstreamNanos(),
+                timings == null ? AccessLogRecord.UNKNOWN : timings.getTotalNanos(),
+                countingRequest == null ? AccessLogRecord.UNKNOWN : countingRequest.getCount(),
+                countingResponse == null ? AccessLogRecord.UNKNOWN : countingResponse.getCount());
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.async.AsyncExchange;
+import com.tmk2003.zuultesting.async.AsyncZuulServlet;
+import com.tmk2003.zuultesting.async.UpstreamRequest;
+import com.tmk2003.zuultesting.balancer.LoadBalancerRegistry;
+import com.tmk2003.zuultesting.balancer.UpstreamInstance;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.hedge.HedgeRegistry;
+import com.tmk2003.zuultesting.hedge.RouteHedger;
+import com.tmk2003.zuultesting.support.Contexts;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.ROUTE_TYPE;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.SIMPLE_HOST_ROUTING_FILTER_ORDER;
+
+/**
+ * Non-blocking {@code SimpleHostRoutingFilter} for gateway.async.enabled. Requests without a body are
+ * suspended and sent with the async client, the worker thread returns to the container right away and
+ * the {@link AsyncExchange} finishes the request when the upstream answers. GETs of hedged routes are
+ * hedged on the same client, to another instance on balanced routes. Requests with a body, and requests through the /zuul servlet, are left to
+ * SimpleHostRoutingFilter.
+ */
+public class AsyncHostRoutingFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = SIMPLE_HOST_ROUTING_FILTER_ORDER - 1;
+    private static final long TIMEOUT_MARGIN        = 1000;                     // Async timeout past the client timeouts, in millis
+
+    private final ProxyRequestHelper helper;                                    // Zuul request and response copying
+    private final HttpAsyncClient client;                                       // Non-blocking upstream client
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final HedgeRegistry hedges;                                         // Per route hedging
+    private final LoadBalancerRegistry balancers;                               // Instances of hedges
+    private final String errorPath;                                             // Error page of failed exchanges
+    private final long timeoutMillis;                                           // Async timeout of suspended requests
+
+    public AsyncHostRoutingFilter(ProxyRequestHelper helper, HttpAsyncClient client, GatewayProperties properties,
+                                  HedgeRegistry hedges, LoadBalancerRegistry balancers, ZuulProperties zuulProperties,
+                                  String errorPath) {
+        this.helper = helper;
+        this.client = client;
+        this.properties = properties;
+        this.hedges = hedges;
+        this.balancers = balancers;
+        this.errorPath = errorPath;
+        this.timeoutMillis = zuulProperties.getHost().getConnectTimeoutMillis()
+                + zuulProperties.getHost().getSocketTimeoutMillis() + TIMEOUT_MARGIN;
+    }
+
+    @Override
+    public String filterType() {
+        return ROUTE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        HttpServletRequest request = ctx.getRequest();
+        return ctx.getBoolean(AsyncZuulServlet.ASYNC_CAPABLE_KEY)
+                && ctx.getRouteHost() != null
+                && ctx.sendZuulResponse()
+                && request.isAsyncSupported()
+                && !hasBody(request);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        UpstreamRequest upstream = UpstreamRequest.of(this.helper, ctx);
+        RouteHedger hedger = Contexts.isGet(ctx) ? this.hedges.getHedger(Contexts.routeId(ctx)) : null;
+        int bufferBytes = (int) this.properties.getAsync().getBufferSize().toBytes();
+
+        AsyncExchange exchange = AsyncExchange.start(ctx, this.helper, this.errorPath, this.timeoutMillis);
+        ctx.setSendZuulResponse(false);                                         // SimpleHostRoutingFilter skips the request
+        if (hedger != null) {
+            exchange.execute(hedger, this.client, upstream, this.balancers.getBalancer(Contexts.routeId(ctx)),
+                    (UpstreamInstance) ctx.get(LoadBalancerPreFilter.INSTANCE_KEY), bufferBytes);
+        } else {
+            exchange.execute(this.client, upstream, bufferBytes);
+        }
+        return null;
+    }
+
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import com.tmk2003.zuultesting.async.AsyncExchange;
+import com.tmk2003.zuultesting.support.Contexts;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+
+/**
+ * Writes the responses of {@link AsyncExchange}s in place of {@code SendResponseFilter}, which blocks
+ * on the output stream. The upstream body is handed to the exchange as it arrives, to be written with a
+ * write listener, and the Zuul response is cleared so neither StreamingResponseFilter nor
+ * SendResponseFilter send it again.
+ */
+public class AsyncResponseWriteFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER    = StreamingResponseFilter.FILTER_ORDER - 1;
+
+    @Override
+    public String filterType() {
+        return POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.get(AsyncExchange.EXCHANGE_KEY) != null
+                && ctx.getThrowable() == null
+                && ctx.sendZuulResponse();
+    }
+
+    @Override
+    public Object run() throws ZuulException {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        HttpServletResponse response = ctx.getResponse();
+        // Like SendResponseFilter, gzip bodies are decoded for clients without gzip support
+        boolean decode = ctx.getResponseGZipped() && !Contexts.acceptsGzip(ctx);
+        try {
+            InputStream body = body(ctx, response, decode);
+            for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.first())
+                        && !(decode && HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(header.first()))) {
+                    response.addHeader(header.first(), header.second());
+                }
+            }
+            ((AsyncExchange) ctx.get(AsyncExchange.EXCHANGE_KEY)).write(body);
+        } catch (IOException e) {
+            throw new ZuulException(e, HttpStatus.BAD_GATEWAY.value(), "Failed to relay upstream response");
+        } finally {
+            ctx.getZuulResponseHeaders().clear();
+            ctx.setResponseDataStream(null);
+            ctx.setResponseBody(null);
+        }
+        return null;
+    }
+
+    /**
+     * Sets the length when known, bodies of unknown length go out chunked
+     * @return - Body to write
+     */
+    private static InputStream body(RequestContext ctx, HttpServletResponse response, boolean decode) throws IOException {
+        String text = ctx.getResponseBody();
+        if (text != null) {
+            byte[] bytes = text.getBytes(Charset.forName(response.getCharacterEncoding()));
+            response.setContentLength(bytes.length);
+            return new ByteArrayInputStream(bytes);
+        }
+        InputStream stream = ctx.getResponseDataStream();
+        if (stream == null) {
+            response.setContentLength(0);
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        if (decode) {
+            return new GZIPInputStream(stream);
+        }
+        Long length = ctx.getOriginContentLength();
+        if (length != null && length >= 0) {
+            response.setContentLengthLong(length);
+        }
+        return stream;
+    }
+}
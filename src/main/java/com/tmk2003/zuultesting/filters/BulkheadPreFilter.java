@@ -0,0 +1,69 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.limit.AdaptiveConcurrencyLimit;
+import com.tmk2003.zuultesting.limit.BulkheadServletFilter;
+import com.tmk2003.zuultesting.limit.BulkheadRegistry;
+import com.tmk2003.zuultesting.support.Contexts;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+
+/**
+ * Admits upstream calls into the route's bulkhead, calls over its adaptive limit are shed with 503
+ * so a slow upstream cannot hold the worker threads of the other routes. The admission is kept in
+ * request attributes and released by {@link BulkheadServletFilter} once the response is written.
+ */
+@Component
+public class BulkheadPreFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = LoadBalancerPreFilter.FILTER_ORDER - 1;
+    public static final String BULKHEAD_KEY         = "gatewayBulkhead";        // Request attribute, admitting limit
+    public static final String ADMITTED_KEY         = "gatewayBulkheadAdmitted"; // Request attribute, admission time in nanos
+
+    private final BulkheadRegistry registry;                                    // Per route limits
+
+    public BulkheadPreFilter(BulkheadRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse()
+                && ctx.getRouteHost() != null
+                && !Contexts.isWarmup(ctx)
+                && this.registry.getBulkhead(Contexts.routeId(ctx)) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        AdaptiveConcurrencyLimit bulkhead = this.registry.getBulkhead(Contexts.routeId(ctx));
+        if (bulkhead.tryAcquire()) {
+            ctx.getRequest().setAttribute(ADMITTED_KEY, System.nanoTime());
+            ctx.getRequest().setAttribute(BULKHEAD_KEY, bulkhead);
+            return null;
+        }
+        ctx.setSendZuulResponse(false);
+        ctx.setResponseStatusCode(HttpStatus.SERVICE_UNAVAILABLE.value());
+        ctx.addZuulResponseHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE);
+        ctx.setResponseBody(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import com.tmk2003.zuultesting.cache.Freshness;
+import com.tmk2003.zuultesting.cache.RequestCoalescer;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.support.Contexts;
+import com.tmk2003.zuultesting.support.ResponseBodies;
+import com.tmk2003.zuultesting.support.ResponseSnapshot;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+
+/**
+ * Shares the leader's upstream response with the requests coalesced in {@link CoalescingPreFilter}.
+ * Post filters also run after routing errors, so the followers are always released.
+ */
+@Component
+public class CoalescingPostFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = ResponseCachePostFilter.FILTER_ORDER + 10;
+
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final RequestCoalescer coalescer;                                   // In flight upstream GETs
+
+    public CoalescingPostFilter(GatewayProperties properties, RequestCoalescer coalescer) {
+        this.properties = properties;
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public String filterType() {
+        return POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().containsKey(CoalescingPreFilter.COALESCE_KEY);
+    }
+
+    @Override
+    public Object run() throws ZuulException {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String key = (String) ctx.get(CoalescingPreFilter.COALESCE_KEY);
+        ResponseSnapshot shared = null;
+        try {
+            // Responses setting cookies or marked private are for the leader only, followers route themselves
+            if (ctx.getThrowable() == null && !Freshness.isPrivate(ctx.getZuulResponseHeaders())) {
+                long maxSize = this.properties.getRoute(Contexts.routeId(ctx)).getCoalesce().getMaxSize().toBytes();
+                byte[] body = ResponseBodies.buffer(ctx, maxSize);
+                shared = body == null ? null : ResponseSnapshot.capture(ctx, body);
+            }
+        } catch (IOException e) {
+            throw new ZuulException(e, HttpStatus.BAD_GATEWAY.value(), "Failed to read upstream response");
+        } finally {
+            this.coalescer.complete(key, shared);
+        }
+        return null;
+    }
+}
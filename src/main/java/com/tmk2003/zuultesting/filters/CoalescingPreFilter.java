@@ -0,0 +1,104 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.cache.RequestCoalescer;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.support.Contexts;
+import com.tmk2003.zuultesting.support.ResponseSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+
+/**
+ * Coalesces identical concurrent GETs of routes with gateway.routes.<route id>.coalesce.enabled=true.
+ *
+ * The leader is routed as usual and {@link CoalescingPostFilter} hands its response to the waiting
+ * followers. Followers that time out, or whose leader could not share its response, are routed
+ * themselves. Requests carrying Authorization or Cookie are never coalesced, the upstream may answer
+ * each client differently whatever the configured key headers.
+ */
+@Component
+public class CoalescingPreFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = ResponseCachePreFilter.FILTER_ORDER + 1;
+    public static final String COALESCE_KEY         = "gatewayCoalesceKey";     // Set on the leader
+
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final RequestCoalescer coalescer;                                   // In flight upstream GETs
+
+    public CoalescingPreFilter(GatewayProperties properties, RequestCoalescer coalescer) {
+        this.properties = properties;
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse()
+                && Contexts.isGet(ctx)
+                && !Contexts.carriesCredentials(ctx)
+                && this.properties.getRoute(Contexts.routeId(ctx)).getCoalesce().isEnabled();
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        GatewayProperties.Coalesce settings = this.properties.getRoute(Contexts.routeId(ctx)).getCoalesce();
+        String key = key(ctx, settings);
+
+        CompletableFuture<ResponseSnapshot> flight = this.coalescer.join(key);
+        if (flight == null) {
+            ctx.set(COALESCE_KEY, key);
+            return null;
+        }
+
+        ResponseSnapshot shared = await(key, flight, settings.getTimeout().toMillis());
+        if (shared != null) {
+            shared.applyTo(ctx);
+            ctx.setSendZuulResponse(false);
+        }
+        return null;
+    }
+
+    private ResponseSnapshot await(String key, CompletableFuture<ResponseSnapshot> flight, long timeoutMillis) {
+        try {
+            return flight.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            this.coalescer.abandon(key, flight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The leader failed, route this request on its own
+        }
+        return null;
+    }
+
+    /**
+     * Resource key plus the configured request headers
+     */
+    private String key(RequestContext ctx, GatewayProperties.Coalesce settings) {
+        StringBuilder key = new StringBuilder(Contexts.resourceKey(ctx));
+        for (String header : settings.getHeaders()) {
+            String value = ctx.getRequest().getHeader(header);
+            key.append('\n').append(header).append(':').append(value == null ? "" : value);
+        }
+        return key.toString();
+    }
+}
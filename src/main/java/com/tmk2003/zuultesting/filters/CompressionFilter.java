@@ -0,0 +1,147 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.metrics.GatewayMetrics;
+import com.tmk2003.zuultesting.support.BufferPool;
+import com.tmk2003.zuultesting.support.Contexts;
+import com.tmk2003.zuultesting.support.DeflaterPool;
+import com.tmk2003.zuultesting.support.GzipCompressingInputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+
+/**
+ * Gzips the responses of routes with gateway.routes.<route id>.compression.enabled=true for clients
+ * sending Accept-Encoding: gzip, when the content type is compressible and the body is not known to be
+ * below the minimum size. Bodies the upstream already encoded are left alone.
+ *
+ * The data stream is swapped for a {@link GzipCompressingInputStream}, so whichever filter sends the
+ * response compresses while it writes. It runs after the cache and coalescing filters, which keep the
+ * identity body and so serve gzip and plain clients alike.
+ */
+@Component
+public class CompressionFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = AsyncResponseWriteFilter.FILTER_ORDER - 1;
+    private static final String GZIP                = "gzip";
+
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final DeflaterPool deflaterPool;                                    // Shared deflaters
+    private final BufferPool bufferPool;                                        // Shared input buffers
+    private final GatewayMetrics metrics;                                       // Per route compression counters
+    private final ConcurrentMap<String, List<MediaType>> mimeTypes
+            = new ConcurrentHashMap<>();                                        // Route id -> compressible types
+
+    public CompressionFilter(GatewayProperties properties, DeflaterPool deflaterPool, BufferPool bufferPool,
+                             GatewayMetrics metrics) {
+        this.properties = properties;
+        this.deflaterPool = deflaterPool;
+        this.bufferPool = bufferPool;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String filterType() {
+        return POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = Contexts.routeId(ctx);
+        GatewayProperties.Compression settings = this.properties.getRoute(routeId).getCompression();
+        if (routeId == null
+                || !settings.isEnabled()
+                || ctx.getThrowable() != null
+                || ctx.getResponseBody() != null
+                || ctx.getResponseDataStream() == null
+                || ctx.getResponseGZipped()
+                || !Contexts.acceptsGzip(ctx)
+                || "HEAD".equalsIgnoreCase(ctx.getRequest().getMethod())) {
+            return false;
+        }
+        int status = ctx.getResponseStatusCode();
+        if (status == HttpStatus.NO_CONTENT.value() || status == HttpStatus.NOT_MODIFIED.value()) {
+            return false;
+        }
+        Long length = ctx.getOriginContentLength();
+        if (length != null && length < settings.getMinSize().toBytes()) {
+            return false;
+        }
+        String contentType = null;
+        for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(header.first())) {
+                return false;
+            }
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.first())) {
+                contentType = header.second();
+            }
+        }
+        return isCompressible(routeId, settings, contentType);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = Contexts.routeId(ctx);
+        GatewayProperties.Compression settings = this.properties.getRoute(routeId).getCompression();
+
+        // The compressed length is unknown until the body is sent
+        Iterator<Pair<String, String>> headers = ctx.getZuulResponseHeaders().iterator();
+        while (headers.hasNext()) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(headers.next().first())) {
+                headers.remove();
+            }
+        }
+        ctx.addZuulResponseHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        ctx.addZuulResponseHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        ctx.setOriginContentLength((Long) null);
+        ctx.setResponseGZipped(true);
+        ctx.setResponseDataStream(new GzipCompressingInputStream(ctx.getResponseDataStream(), settings.getLevel(),
+                this.deflaterPool, this.bufferPool, this.metrics.route(routeId)));
+        return null;
+    }
+
+    /**
+     * @param routeId - Zuul route id
+     * @param settings - Compression settings of the route
+     * @param contentType - Content-Type of the response, may be null
+     * @return - true if the content type is one of the configured mime types
+     */
+    private boolean isCompressible(String routeId, GatewayProperties.Compression settings, String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        for (MediaType compressible : this.mimeTypes.computeIfAbsent(routeId,
+                id -> MediaType.parseMediaTypes(settings.getMimeTypes()))) {
+            if (compressible.includes(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,143 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import com.tmk2003.zuultesting.async.AsyncZuulServlet;
+import com.tmk2003.zuultesting.async.UpstreamRequest;
+import com.tmk2003.zuultesting.balancer.LoadBalancerRegistry;
+import com.tmk2003.zuultesting.balancer.UpstreamInstance;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.hedge.HedgeRegistry;
+import com.tmk2003.zuultesting.hedge.RouteHedger;
+import com.tmk2003.zuultesting.support.Contexts;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.Cancellable;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.ROUTE_TYPE;
+
+/**
+ * Hedges the GETs of routes with gateway.routes.<route id>.hedge.enabled=true in place of
+ * {@code SimpleHostRoutingFilter}. The attempts run on the non-blocking client so both can be in flight,
+ * the worker thread waits for the headers of the first response and its body is streamed from there.
+ * On balanced routes the hedge goes to another instance. In async mode {@link AsyncHostRoutingFilter}
+ * hedges without waiting.
+ */
+@Component
+public class HedgingRoutingFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = AsyncHostRoutingFilter.FILTER_ORDER - 1;
+    private static final long TIMEOUT_MARGIN        = 1000;                     // Wait past the client timeouts, in millis
+
+    private final HedgeRegistry registry;                                       // Per route hedging
+    private final LoadBalancerRegistry balancers;                               // Instances of hedges
+    private final ProxyRequestHelper helper;                                    // Zuul request and response copying
+    private final ObjectProvider<CloseableHttpAsyncClient> client;              // Created on the first hedged request
+    private final GatewayProperties properties;                                 // gateway.async.buffer-size
+    private final long timeoutMillis;                                           // Longest wait for the first response
+
+    public HedgingRoutingFilter(HedgeRegistry registry, LoadBalancerRegistry balancers, ProxyRequestHelper helper,
+                                ObjectProvider<CloseableHttpAsyncClient> client, GatewayProperties properties,
+                                ZuulProperties zuulProperties) {
+        this.registry = registry;
+        this.balancers = balancers;
+        this.helper = helper;
+        this.client = client;
+        this.properties = properties;
+        this.timeoutMillis = zuulProperties.getHost().getConnectTimeoutMillis()
+                + zuulProperties.getHost().getSocketTimeoutMillis() + TIMEOUT_MARGIN;
+    }
+
+    @Override
+    public String filterType() {
+        return ROUTE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse()
+                && ctx.getRouteHost() != null
+                && Contexts.isGet(ctx)
+                && !ctx.getBoolean(AsyncZuulServlet.ASYNC_CAPABLE_KEY)
+                && this.registry.getHedger(Contexts.routeId(ctx)) != null;
+    }
+
+    @Override
+    public Object run() throws ZuulException {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        RouteHedger hedger = this.registry.getHedger(Contexts.routeId(ctx));
+        ResponseFuture response = new ResponseFuture();
+        Cancellable call = hedger.execute(this.client.getObject(), UpstreamRequest.of(this.helper, ctx),
+                this.balancers.getBalancer(Contexts.routeId(ctx)),
+                (UpstreamInstance) ctx.get(LoadBalancerPreFilter.INSTANCE_KEY),
+                (int) this.properties.getAsync().getBufferSize().toBytes(), response);
+        try {
+            HttpResponse upstream = response.get(this.timeoutMillis, TimeUnit.MILLISECONDS);
+            HttpEntity entity = upstream.getEntity();
+            if (entity != null) {
+                // Closed by the response filters, an unfinished body aborts its attempt
+                ctx.set(StreamingResponseFilter.ZUUL_RESPONSE_KEY, entity.getContent());
+            }
+            this.helper.setResponse(upstream.getStatusLine().getStatusCode(),
+                    entity == null ? null : entity.getContent(), UpstreamRequest.responseHeaders(upstream));
+        } catch (ExecutionException e) {
+            Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            throw new ZuulException(cause, UpstreamRequest.failureStatus(cause), cause.getMessage());
+        } catch (TimeoutException e) {
+            call.cancel();
+            throw new ZuulException(e, HttpStatus.GATEWAY_TIMEOUT.value(), "No upstream response within "
+                    + this.timeoutMillis + "ms");
+        } catch (InterruptedException e) {
+            call.cancel();
+            Thread.currentThread().interrupt();
+            throw new ZuulException(e, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Interrupted waiting for upstream");
+        } catch (IOException e) {
+            throw new ZuulException(e, HttpStatus.BAD_GATEWAY.value(), "Failed to read upstream response");
+        }
+        ctx.setSendZuulResponse(false);                                         // SimpleHostRoutingFilter skips the request
+        return null;
+    }
+
+    /**
+     * First response of the hedged call, waited on by the worker thread
+     */
+    private static final class ResponseFuture extends CompletableFuture<HttpResponse>
+            implements FutureCallback<HttpResponse> {
+
+        @Override
+        public void completed(HttpResponse response) {
+            complete(response);
+        }
+
+        @Override
+        public void failed(Exception e) {
+            completeExceptionally(e);
+        }
+
+        @Override
+        public void cancelled() {
+            cancel(false);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.balancer.LoadBalancerRegistry;
+import com.tmk2003.zuultesting.balancer.UpstreamInstance;
+import com.tmk2003.zuultesting.support.Contexts;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+
+/**
+ * Releases the instance chosen by {@link LoadBalancerPreFilter} with the outcome of the upstream call.
+ * Routing errors and 5xx answers count as failures towards ejection.
+ */
+@Component
+public class LoadBalancerPostFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = RouteTimingPostFilter.FILTER_ORDER + 1;
+
+    private final LoadBalancerRegistry registry;                                // Per route balancers
+
+    public LoadBalancerPostFilter(LoadBalancerRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public String filterType() {
+        return POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().containsKey(LoadBalancerPreFilter.INSTANCE_KEY);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        UpstreamInstance instance = (UpstreamInstance) ctx.remove(LoadBalancerPreFilter.INSTANCE_KEY);
+        long chosen = (Long) ctx.remove(LoadBalancerPreFilter.CHOSEN_KEY);
+        long now = System.nanoTime();
+        boolean failed = ctx.getThrowable() != null || ctx.getResponseStatusCode() >= 500;
+        this.registry.getBalancer(Contexts.routeId(ctx)).release(instance, now - chosen, failed, now);
+        return null;
+    }
+}
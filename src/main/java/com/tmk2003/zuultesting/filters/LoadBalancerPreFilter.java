@@ -0,0 +1,64 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.balancer.LoadBalancerRegistry;
+import com.tmk2003.zuultesting.balancer.RouteBalancer;
+import com.tmk2003.zuultesting.balancer.UpstreamInstance;
+import com.tmk2003.zuultesting.support.Contexts;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+
+/**
+ * Points requests of routes with gateway.routes.<route id>.balancer.urls at one of the instances,
+ * replacing the route host set from zuul.routes.<route id>.url. Released by {@link LoadBalancerPostFilter}.
+ */
+@Component
+public class LoadBalancerPreFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = RouteTimingPreFilter.FILTER_ORDER - 2;
+    public static final String INSTANCE_KEY         = "gatewayUpstreamInstance"; // Chosen instance
+    public static final String CHOSEN_KEY           = "gatewayUpstreamChosen";  // Time of the pick, in nanos
+
+    private final LoadBalancerRegistry registry;                                // Per route balancers
+
+    public LoadBalancerPreFilter(LoadBalancerRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse()
+                && ctx.getRouteHost() != null
+                && this.registry.getBalancer(Contexts.routeId(ctx)) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        RouteBalancer balancer = this.registry.getBalancer(Contexts.routeId(ctx));
+        if (Contexts.isWarmup(ctx)) {
+            ctx.setRouteHost(balancer.any().getUrl());                          // Warms a connection, not the latencies
+            return null;
+        }
+        long now = System.nanoTime();
+        UpstreamInstance instance = balancer.choose(now);
+        ctx.setRouteHost(instance.getUrl());
+        ctx.set(INSTANCE_KEY, instance);
+        ctx.set(CHOSEN_KEY, now);
+        return null;
+    }
+}
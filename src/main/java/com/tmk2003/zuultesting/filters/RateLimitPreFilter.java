@@ -0,0 +1,82 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.limit.RateLimiterRegistry;
+import com.tmk2003.zuultesting.limit.RouteRateLimiter;
+import com.tmk2003.zuultesting.limit.TokenBucket;
+import com.tmk2003.zuultesting.support.Contexts;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+
+/**
+ * Answers requests over the route or client limits of gateway.routes.<route id>.rate-limit with 429,
+ * before the cache, coalescing or the upstream are involved
+ */
+@Component
+public class RateLimitPreFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = RouteBindingPreFilter.FILTER_ORDER + 1;
+
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final RateLimiterRegistry registry;                                 // Per route limiters
+
+    public RateLimitPreFilter(GatewayProperties properties, RateLimiterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse()
+                && !Contexts.isWarmup(ctx)
+                && this.registry.getLimiter(Contexts.routeId(ctx)) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = Contexts.routeId(ctx);
+        RouteRateLimiter limiter = this.registry.getLimiter(routeId);
+
+        long wait = limiter.tryAcquire(clientKey(ctx.getRequest(), this.properties.getRoute(routeId).getRateLimit()));
+        if (wait != TokenBucket.ALLOWED) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            ctx.setSendZuulResponse(false);
+            ctx.setResponseStatusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+            ctx.addZuulResponseHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+            ctx.addZuulResponseHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE);
+            ctx.setResponseBody(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        }
+        return null;
+    }
+
+    /**
+     * Configured header when present, remote address otherwise
+     */
+    private static String clientKey(HttpServletRequest request, GatewayProperties.RateLimit settings) {
+        String header = settings.getClientHeader();
+        String key = header == null || header.isEmpty() ? null : request.getHeader(header);
+        return key != null ? key : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,103 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.support.Contexts;
+import com.tmk2003.zuultesting.support.RequestBodySpool;
+import com.tmk2003.zuultesting.support.SpooledBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.REQUEST_ENTITY_KEY;
+
+/**
+ * Reads the request bodies of routes with gateway.routes.<route id>.request-body.buffered=true before
+ * routing, through the {@link RequestBodySpool}, which spills large bodies to disk; the spooled body is
+ * released by {@link RequestBodyPostFilter}. Bodies of other routes are left alone: Zuul's
+ * Servlet30WrapperFilter already hands {@code SimpleHostRoutingFilter} the container's request, which
+ * streams upstream as it arrives. Form bodies are left to Zuul's FormBodyWrapperFilter, which has
+ * already parsed them.
+ *
+ * It runs once the rate limit, bulkhead and balancer have admitted the request, so rejected requests are
+ * never read; the balancer's latency clock restarts once the body is in, the upload is the client's time.
+ */
+@Component
+public class RequestBodyFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = LoadBalancerPreFilter.FILTER_ORDER + 1;
+    public static final String SPOOLED_BODY_KEY     = "gatewaySpooledBody";     // Buffered body, closed after the response
+
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final RequestBodySpool spool;                                       // Bounded body buffering
+
+    public RequestBodyFilter(GatewayProperties properties, RequestBodySpool spool) {
+        this.properties = properties;
+        this.spool = spool;
+    }
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        if (!ctx.sendZuulResponse() || ctx.getRouteHost() == null || ctx.containsKey(REQUEST_ENTITY_KEY)) {
+            return false;
+        }
+        HttpServletRequest request = ctx.getRequest();
+        return hasBody(request) && !isForm(request)
+                && this.properties.getRoute(Contexts.routeId(ctx)).getRequestBody().isBuffered();
+    }
+
+    @Override
+    public Object run() throws ZuulException {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        HttpServletRequest request = ctx.getRequest();
+        GatewayProperties.RequestBody settings = this.properties.getRoute(Contexts.routeId(ctx)).getRequestBody();
+        try {
+            SpooledBody body = this.spool.spool(request.getInputStream(), request.getContentLengthLong(),
+                    settings.getMemoryThreshold().toBytes());
+            ctx.set(SPOOLED_BODY_KEY, body);
+            ctx.set(REQUEST_ENTITY_KEY, body.openStream());
+            if (ctx.containsKey(LoadBalancerPreFilter.CHOSEN_KEY)) {
+                ctx.set(LoadBalancerPreFilter.CHOSEN_KEY, System.nanoTime());
+            }
+        } catch (IOException e) {
+            throw new ZuulException(e, HttpStatus.BAD_REQUEST.value(), "Failed to read request body");
+        }
+        return null;
+    }
+
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_FORM_URLENCODED.includes(type) || MediaType.MULTIPART_FORM_DATA.includes(type);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.support.SpooledBody;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+
+/**
+ * Releases the body spooled by {@link RequestBodyFilter}, returning its memory or deleting its file.
+ * Post filters also run after routing errors, so spilled bodies never outlive their request.
+ */
+@Component
+public class RequestBodyPostFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = LoadBalancerPostFilter.FILTER_ORDER + 1;
+
+    @Override
+    public String filterType() {
+        return POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().containsKey(RequestBodyFilter.SPOOLED_BODY_KEY);
+    }
+
+    @Override
+    public Object run() {
+        SpooledBody body = (SpooledBody) RequestContext.getCurrentContext().remove(RequestBodyFilter.SPOOLED_BODY_KEY);
+        try {
+            body.close();
+        } catch (IOException e) {
+            // Left in the temp directory, nothing else refers to it
+        }
+        return null;
+    }
+}
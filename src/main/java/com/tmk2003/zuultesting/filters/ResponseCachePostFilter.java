@@ -0,0 +1,87 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import com.tmk2003.zuultesting.cache.Freshness;
+import com.tmk2003.zuultesting.cache.ResponseCacheManager;
+import com.tmk2003.zuultesting.cache.RouteResponseCache;
+import com.tmk2003.zuultesting.support.Contexts;
+import com.tmk2003.zuultesting.support.ResponseBodies;
+import com.tmk2003.zuultesting.support.ResponseSnapshot;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.SEND_RESPONSE_FILTER_ORDER;
+
+/**
+ * Stores cacheable upstream responses that missed the cache in {@link ResponseCachePreFilter}. Responses
+ * to requests with Authorization are only stored when the origin marked them shareable.
+ */
+@Component
+public class ResponseCachePostFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = SEND_RESPONSE_FILTER_ORDER - 100;
+
+    private final ResponseCacheManager cacheManager;                            // Per route caches
+
+    public ResponseCachePostFilter(ResponseCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String filterType() {
+        return POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.containsKey(ResponseCachePreFilter.CACHE_KEY)
+                && ctx.getThrowable() == null
+                && ctx.getResponseStatusCode() == HttpStatus.OK.value();
+    }
+
+    @Override
+    public Object run() throws ZuulException {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = Contexts.routeId(ctx);
+        RouteResponseCache cache = this.cacheManager.getCache(routeId);
+
+        long now = System.currentTimeMillis();
+        long ttl = Math.min(Freshness.lifetimeMillis(ctx.getOriginResponseHeaders(), now),
+                this.cacheManager.getMaxTtlMillis(routeId));
+        if (cache == null || ttl <= Freshness.NOT_CACHEABLE) {
+            return null;
+        }
+        if (ctx.getRequest().getHeader(HttpHeaders.AUTHORIZATION) != null
+                && !Freshness.allowsAuthorized(ctx.getOriginResponseHeaders())) {
+            return null;                                                        // Only the origin may share it
+        }
+
+        try {
+            byte[] body = ResponseBodies.buffer(ctx, this.cacheManager.getMaxEntryBytes(routeId));
+            if (body != null) {
+                ResponseSnapshot snapshot = ResponseSnapshot.capture(ctx, body, now);
+                // Time spent in upstream caches counts against the lifetime
+                long expiresAt = now + ttl - snapshot.getAge(now) * 1000L;
+                if (expiresAt > now) {
+                    cache.put((String) ctx.get(ResponseCachePreFilter.CACHE_KEY), snapshot, expiresAt);
+                }
+            }
+        } catch (IOException e) {
+            throw new ZuulException(e, HttpStatus.BAD_GATEWAY.value(), "Failed to read upstream response");
+        }
+        return null;
+    }
+}
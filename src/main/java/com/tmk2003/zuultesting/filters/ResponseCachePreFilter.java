@@ -0,0 +1,74 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.cache.ResponseCacheManager;
+import com.tmk2003.zuultesting.cache.RouteResponseCache;
+import com.tmk2003.zuultesting.support.Contexts;
+import com.tmk2003.zuultesting.support.ResponseSnapshot;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+
+/**
+ * Answers cacheable GETs from the route's response cache, skipping the upstream call on a hit
+ */
+@Component
+public class ResponseCachePreFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = RateLimitPreFilter.FILTER_ORDER + 1;
+    public static final String CACHE_KEY            = "gatewayCacheKey";        // Set on a miss, the post filter stores
+
+    private final ResponseCacheManager cacheManager;                            // Per route caches
+
+    public ResponseCachePreFilter(ResponseCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse()
+                && Contexts.isGet(ctx)
+                && !Contexts.isWarmup(ctx)
+                && !isNoCacheRequest(ctx)
+                && this.cacheManager.getCache(Contexts.routeId(ctx)) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        RouteResponseCache cache = this.cacheManager.getCache(Contexts.routeId(ctx));
+        String key = Contexts.resourceKey(ctx);
+
+        long now = System.currentTimeMillis();
+        ResponseSnapshot cached = cache.get(key, now);
+        if (cached == null) {
+            ctx.set(CACHE_KEY, key);
+            return null;
+        }
+
+        cached.applyTo(ctx, now);
+        ctx.setSendZuulResponse(false);
+        return null;
+    }
+
+    /**
+     * Clients asking for a fresh copy bypass the cache
+     */
+    private boolean isNoCacheRequest(RequestContext ctx) {
+        String cacheControl = ctx.getRequest().getHeader("Cache-Control");
+        return cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"));
+    }
+}
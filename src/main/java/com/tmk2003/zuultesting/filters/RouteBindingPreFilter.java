@@ -0,0 +1,53 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.metrics.GatewayMetrics;
+import com.tmk2003.zuultesting.metrics.RequestTimings;
+import com.tmk2003.zuultesting.support.Contexts;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_DECORATION_FILTER_ORDER;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+
+/**
+ * Binds the request to its route as soon as the route is known, ahead of every filter that may reject
+ * or fail it, so shed and failed requests are measured against their route too
+ */
+@Component
+public class RouteBindingPreFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = PRE_DECORATION_FILTER_ORDER + 1;
+
+    private final GatewayMetrics metrics;
+
+    public RouteBindingPreFilter(GatewayMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return Contexts.routeId(ctx) != null && RequestTimings.of(ctx) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = Contexts.routeId(ctx);
+        RequestTimings.of(ctx).setRouteId(routeId);
+        this.metrics.route(routeId).requestStarted();
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.metrics.RequestTimings;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+
+/**
+ * First post filter: marks the end of the upstream call
+ */
+@Component
+public class RouteTimingPostFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = 0;
+
+    @Override
+    public String filterType() {
+        return POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestTimings.of(RequestContext.getCurrentContext()) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestTimings.of(RequestContext.getCurrentContext()).upstreamEnded(System.nanoTime());
+        return null;
+    }
+}
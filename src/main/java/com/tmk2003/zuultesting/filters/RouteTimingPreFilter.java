@@ -0,0 +1,44 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.metrics.RequestTimings;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.SERVICE_ID_KEY;
+
+/**
+ * Last pre filter: marks the start of the upstream call of requests bound by {@link RouteBindingPreFilter}
+ */
+@Component
+public class RouteTimingPreFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = 1000;
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestTimings timings = RequestTimings.of(RequestContext.getCurrentContext());
+        return timings != null && timings.getRouteId() != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        if (ctx.sendZuulResponse() && (ctx.getRouteHost() != null || ctx.get(SERVICE_ID_KEY) != null)) {
+            RequestTimings.of(ctx).upstreamStarted(System.nanoTime());
+        }
+        return null;
+    }
+}
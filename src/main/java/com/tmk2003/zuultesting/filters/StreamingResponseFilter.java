@@ -0,0 +1,112 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.support.BufferPool;
+import com.tmk2003.zuultesting.support.Contexts;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.SEND_RESPONSE_FILTER_ORDER;
+
+/**
+ * Relays upstream bodies above gateway.routes.<route id>.streaming.threshold straight to the client
+ * through a pooled buffer, in place of {@code SendResponseFilter}.
+ *
+ * Once written, the Zuul response headers and data stream are cleared so SendResponseFilter has nothing
+ * left to send. Gzip bodies for clients without gzip support are left to SendResponseFilter, which
+ * decodes them.
+ */
+@Component
+public class StreamingResponseFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = SEND_RESPONSE_FILTER_ORDER - 1;
+    public static final String ZUUL_RESPONSE_KEY    = "zuulResponse";          // Upstream response, closed once sent
+
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final ZuulProperties zuulProperties;                                // zuul.set-content-length
+    private final BufferPool bufferPool;                                        // Shared copy buffers
+
+    public StreamingResponseFilter(GatewayProperties properties, ZuulProperties zuulProperties, BufferPool bufferPool) {
+        this.properties = properties;
+        this.zuulProperties = zuulProperties;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public String filterType() {
+        return POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        GatewayProperties.Streaming settings = this.properties.getRoute(Contexts.routeId(ctx)).getStreaming();
+        if (!settings.isEnabled()
+                || ctx.getThrowable() != null
+                || ctx.getResponseBody() != null
+                || ctx.getResponseDataStream() == null
+                || (ctx.getResponseGZipped() && !Contexts.acceptsGzip(ctx))) {
+            return false;
+        }
+        // Unknown lengths are streamed, the body may be arbitrarily large
+        Long length = ctx.getOriginContentLength();
+        return length == null || length > settings.getThreshold().toBytes();
+    }
+
+    @Override
+    public Object run() throws ZuulException {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        HttpServletResponse response = ctx.getResponse();
+        InputStream body = ctx.getResponseDataStream();
+        try {
+            for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.first())) {
+                    response.addHeader(header.first(), header.second());
+                }
+            }
+            Long length = ctx.getOriginContentLength();
+            if (this.zuulProperties.isSetContentLength() && length != null) {
+                response.setContentLengthLong(length);
+            }
+            this.bufferPool.copy(body, response.getOutputStream());
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new ZuulException(e, HttpStatus.BAD_GATEWAY.value(), "Failed to stream upstream response");
+        } finally {
+            ctx.getZuulResponseHeaders().clear();
+            ctx.setResponseDataStream(null);
+            // Closing the response first aborts an unfinished body instead of draining it
+            close(ctx.remove(ZUUL_RESPONSE_KEY));
+            close(body);
+        }
+        return null;
+    }
+
+    private static void close(Object closeable) {
+        if (closeable instanceof Closeable) {
+            try {
+                ((Closeable) closeable).close();
+            } catch (IOException e) {
+                // Nothing left to send, the connection is released either way
+            }
+        }
+    }
+}
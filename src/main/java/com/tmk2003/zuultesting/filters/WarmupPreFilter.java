@@ -0,0 +1,47 @@
+package com.tmk2003.zuultesting.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.support.Contexts;
+import com.tmk2003.zuultesting.warmup.GatewayWarmup;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+
+/**
+ * Keeps the {@link GatewayWarmup#WARMUP_HEADER} of synthetic warm-up requests from reaching the upstreams
+ */
+@Component
+public class WarmupPreFilter extends ZuulFilter {
+
+    /* Final Variables */
+    public static final int FILTER_ORDER            = RouteTimingPreFilter.FILTER_ORDER + 1;
+
+    private final ProxyRequestHelper helper;                                    // Zuul request header copying
+
+    public WarmupPreFilter(ProxyRequestHelper helper) {
+        this.helper = helper;
+    }
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return Contexts.isWarmup(RequestContext.getCurrentContext());
+    }
+
+    @Override
+    public Object run() {
+        this.helper.addIgnoredHeaders(GatewayWarmup.WARMUP_HEADER);
+        return null;
+    }
+}
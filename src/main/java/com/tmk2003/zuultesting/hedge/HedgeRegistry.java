@@ -0,0 +1,60 @@
+package com.tmk2003.zuultesting.hedge;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Holds the hedging of every route with gateway.routes.<route id>.hedge.enabled=true, and the timer
+ * thread firing their hedges
+ */
+@Component
+public class HedgeRegistry {
+
+    /* Variables */
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final ScheduledThreadPoolExecutor scheduler;                        // Fires the hedges of every route
+    private final ConcurrentMap<String, RouteHedger> hedgers
+            = new ConcurrentHashMap<>();                                        // Route id -> hedging
+
+    public HedgeRegistry(GatewayProperties properties) {
+        this.properties = properties;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "gateway-hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most hedges are cancelled by the first response, do not keep them queued
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @param routeId - Zuul route id
+     * @return - Hedging of the route, null when the route is not hedged
+     */
+    public RouteHedger getHedger(String routeId) {
+        GatewayProperties.Hedge settings = this.properties.getRoute(routeId).getHedge();
+        if (routeId == null || !settings.isEnabled()) {
+            return null;
+        }
+        return this.hedgers.computeIfAbsent(routeId, id -> new RouteHedger(settings, this.scheduler, System::nanoTime));
+    }
+
+    /**
+     * @return - Hedging created so far, by route id
+     */
+    public Map<String, RouteHedger> getHedgers() {
+        return Collections.unmodifiableMap(this.hedgers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.scheduler.shutdownNow();
+    }
+}
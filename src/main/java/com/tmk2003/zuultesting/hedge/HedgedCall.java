@@ -0,0 +1,222 @@
+package com.tmk2003.zuultesting.hedge;
+
+import com.tmk2003.zuultesting.async.StreamingResponseConsumer;
+import com.tmk2003.zuultesting.async.UpstreamRequest;
+import com.tmk2003.zuultesting.balancer.RouteBalancer;
+import com.tmk2003.zuultesting.balancer.UpstreamInstance;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.Cancellable;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The attempts of one hedged request. The first response is passed on and the other attempt cancelled.
+ * A failed attempt only fails the call once no other attempt can still answer, hedges are not retries
+ * and are never sent after a failure.
+ *
+ * An attempt answers once its headers are in, the body of the winner streams on through its
+ * {@link StreamingResponseConsumer}. On a balanced route the hedge goes to another instance than the
+ * first attempt, the instance it picked is released when the hedge ends.
+ */
+final class HedgedCall implements Cancellable {
+
+    /* Final Variables */
+    private final RouteHedger hedger;                                           // Route budget and latencies
+    private final HttpAsyncClient client;                                       // Non-blocking client
+    private final UpstreamRequest request;                                      // Request of the first attempt
+    private final RouteBalancer balancer;                                       // Picks the hedge instance, null when not balanced
+    private final UpstreamInstance primary;                                     // Instance of the first attempt, null when not balanced
+    private final int bufferBytes;                                              // Body bytes held before reading pauses
+    private final FutureCallback<HttpResponse> callback;                        // Caller, called once
+    private final AtomicBoolean done = new AtomicBoolean();                     // Callback called or call cancelled
+    private final AtomicInteger pending = new AtomicInteger();                  // Attempts that may still answer
+
+    /* Variables */
+    private volatile Attempt first;                                             // First attempt
+    private volatile Attempt hedge;                                             // Second attempt, null until sent
+    private volatile ScheduledFuture<?> timer;                                  // Pending hedge
+    private volatile Exception failure;                                         // Last attempt failure
+
+    HedgedCall(RouteHedger hedger, HttpAsyncClient client, UpstreamRequest request, RouteBalancer balancer,
+               UpstreamInstance primary, int bufferBytes, FutureCallback<HttpResponse> callback) {
+        this.hedger = hedger;
+        this.client = client;
+        this.request = request;
+        this.balancer = balancer;
+        this.primary = primary;
+        this.bufferBytes = bufferBytes;
+        this.callback = callback;
+    }
+
+    void start(ScheduledExecutorService scheduler, long delayNanos) {
+        this.pending.incrementAndGet();
+        this.first = send(this.request, null, false);
+        if (this.done.get()) {
+            cancel(this.first);                                                 // Over before it was sent
+            return;
+        }
+        this.timer = scheduler.schedule(this::hedge, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean cancel() {
+        if (!this.done.compareAndSet(false, true)) {
+            return false;
+        }
+        cancelTimer();
+        cancel(this.first);
+        cancel(this.hedge);
+        return true;
+    }
+
+    private void hedge() {
+        // Counted before the check, so a primary failing meanwhile waits for the hedge decision
+        this.pending.incrementAndGet();
+        if (this.done.get() || !this.hedger.tryHedge()) {
+            failed(null);
+            return;
+        }
+        UpstreamInstance instance = this.balancer != null && this.primary != null
+                ? this.balancer.chooseOther(this.hedger.now(), this.primary)
+                : null;
+        try {
+            this.hedge = send(instance != null ? this.request.at(instance.getUrl()) : this.request.copy(), instance, true);
+        } catch (RuntimeException e) {
+            if (instance != null) {
+                this.balancer.release(instance, 0, true, this.hedger.now());
+            }
+            failed(e);
+            return;
+        }
+        // The primary may have answered while the hedge was sent, it found no hedge to cancel then
+        if (this.done.get()) {
+            cancel(this.hedge);
+        }
+    }
+
+    private Attempt send(UpstreamRequest upstream, UpstreamInstance instance, boolean isHedge) {
+        Attempt attempt = new Attempt(this.hedger.now(), instance, isHedge);
+        StreamingResponseConsumer consumer = new StreamingResponseConsumer(this.bufferBytes, attempt);
+        attempt.consumer = consumer;
+        Future<HttpResponse> future = this.client.execute(
+                HttpAsyncMethods.create(upstream.getTarget(), upstream.getRequest()), consumer, null, null);
+        attempt.future = future;
+        consumer.setCall(() -> future.cancel(true));
+        return attempt;
+    }
+
+    private void completed(HttpResponse response, boolean isHedge) {
+        if (this.done.compareAndSet(false, true)) {
+            cancelTimer();
+            cancel(isHedge ? this.first : this.hedge);
+            if (isHedge) {
+                this.hedger.hedgeWon();
+            }
+            this.callback.completed(response);
+        } else {
+            // Lost the race after its headers came in, the body is not wanted
+            close(response);
+        }
+    }
+
+    private void failed(Exception failure) {
+        if (failure != null) {
+            this.failure = failure;
+        }
+        if (this.pending.decrementAndGet() == 0 && this.done.compareAndSet(false, true)) {
+            cancelTimer();
+            Exception last = this.failure;
+            this.callback.failed(last != null ? last : new IOException("Every upstream attempt failed"));
+        }
+    }
+
+    private void cancelTimer() {
+        ScheduledFuture<?> pendingHedge = this.timer;
+        if (pendingHedge != null) {
+            pendingHedge.cancel(false);
+        }
+    }
+
+    /**
+     * Cancels the call and its consumer, which tells the attempt even when the client does not
+     */
+    private static void cancel(Attempt attempt) {
+        if (attempt != null) {
+            Future<HttpResponse> future = attempt.future;
+            if (future != null) {
+                future.cancel(true);
+            }
+            StreamingResponseConsumer consumer = attempt.consumer;
+            if (consumer != null) {
+                consumer.cancel();
+            }
+        }
+    }
+
+    private static void close(HttpResponse response) {
+        try {
+            if (response.getEntity() != null) {
+                response.getEntity().getContent().close();
+            }
+        } catch (IOException e) {
+            // Aborted either way
+        }
+    }
+
+    /**
+     * Callback of one attempt
+     */
+    private final class Attempt implements FutureCallback<HttpResponse> {
+
+        private final long sent;                                                // Send time, in nanos
+        private final UpstreamInstance instance;                                // Instance picked for a hedge, released here
+        private final boolean isHedge;                                          // Second attempt
+        private volatile Future<HttpResponse> future;                           // Client call
+        private volatile StreamingResponseConsumer consumer;                    // Its response
+
+        private Attempt(long sent, UpstreamInstance instance, boolean isHedge) {
+            this.sent = sent;
+            this.instance = instance;
+            this.isHedge = isHedge;
+        }
+
+        @Override
+        public void completed(HttpResponse response) {
+            long elapsed = hedger.now() - this.sent;
+            hedger.recordLatency(elapsed);
+            release(elapsed, response.getStatusLine().getStatusCode() >= 500);
+            HedgedCall.this.completed(response, this.isHedge);
+        }
+
+        @Override
+        public void failed(Exception e) {
+            release(hedger.now() - this.sent, true);
+            HedgedCall.this.failed(e);
+        }
+
+        @Override
+        public void cancelled() {
+            // Slow attempts are the ones cancelled, their wait so far keeps them in the percentile
+            long elapsed = hedger.now() - this.sent;
+            hedger.recordLatency(elapsed);
+            release(elapsed, false);
+            HedgedCall.this.failed(new CancellationException("Upstream attempt cancelled"));
+        }
+
+        private void release(long elapsed, boolean failed) {
+            if (this.instance != null) {
+                balancer.release(this.instance, elapsed, failed, hedger.now());
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.tmk2003.zuultesting.hedge;
+
+import com.tmk2003.zuultesting.async.UpstreamRequest;
+import com.tmk2003.zuultesting.balancer.RouteBalancer;
+import com.tmk2003.zuultesting.balancer.UpstreamInstance;
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import com.tmk2003.zuultesting.metrics.LatencyHistogram;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.Cancellable;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Hedged GETs of one route. An attempt that has not answered within the hedge delay gets a second
+ * attempt, whichever answers first wins and the other is cancelled.
+ *
+ * The delay is either fixed, or the configured percentile of the attempt latencies of the last full
+ * window; the fixed delay stands in until a window with enough samples completes. Hedges are paid from
+ * a budget credited with gateway.routes.<route id>.hedge.budget per request, capped at one, so hedging
+ * never sends more than twice the requests upstream.
+ */
+public class RouteHedger {
+
+    /* Final Variables */
+    private static final long SCALE         = 1000;                             // Budget fixed point, one hedge
+    private static final long MAX_BALANCE   = 10 * SCALE;                       // Hedges saved up for bursts
+    private static final long MIN_SAMPLES   = 20;                               // Latencies needed for a percentile delay
+
+    /* Variables */
+    private final ScheduledExecutorService scheduler;                           // Fires the hedges
+    private final LongSupplier clock;                                           // Nano time source
+    private final double percentile;                                            // 0 for a fixed delay
+    private final long windowNanos;                                             // Length of a latency window
+    private final long credit;                                                  // Budget credited per request, scaled
+    private final AtomicLong balance = new AtomicLong();                        // Hedges affordable, scaled
+    private final AtomicLong windowEnd;                                         // End of the current latency window
+    private volatile LatencyHistogram latencies = new LatencyHistogram();       // Latencies of the current window
+    private volatile long delayNanos;                                           // Wait before hedging
+
+    /* Counters */
+    private final LongAdder requests    = new LongAdder();
+    private final LongAdder hedged      = new LongAdder();
+    private final LongAdder hedgeWins   = new LongAdder();
+    private final LongAdder denied      = new LongAdder();
+
+    public RouteHedger(GatewayProperties.Hedge settings, ScheduledExecutorService scheduler, LongSupplier clock) {
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.percentile = settings.getPercentile();
+        this.windowNanos = settings.getWindow().toNanos();
+        this.credit = Math.round(Math.max(0, Math.min(1.0, settings.getBudget())) * SCALE);
+        this.windowEnd = new AtomicLong(clock.getAsLong() + this.windowNanos);
+        this.delayNanos = settings.getDelay().toNanos();
+    }
+
+    /**
+     * Sends the request, hedged once the delay passes and the budget allows
+     * @param client - Non-blocking client
+     * @param request - Upstream GET
+     * @param balancer - Balancer of the route, null when it has a single upstream
+     * @param primary - Instance the request was routed to, the hedge goes to another; null when not balanced
+     * @param bufferBytes - Upstream body bytes held per attempt before reading pauses
+     * @param callback - Called once, with the first response as soon as its headers are in or the last failure
+     * @return - Cancels every attempt still running
+     */
+    public Cancellable execute(HttpAsyncClient client, UpstreamRequest request, RouteBalancer balancer,
+                               UpstreamInstance primary, int bufferBytes, FutureCallback<HttpResponse> callback) {
+        onRequest();
+        HedgedCall call = new HedgedCall(this, client, request, balancer, primary, bufferBytes, callback);
+        call.start(this.scheduler, this.delayNanos);
+        return call;
+    }
+
+    /**
+     * Credits the budget of one request
+     */
+    void onRequest() {
+        this.requests.increment();
+        this.balance.accumulateAndGet(this.credit, (current, added) -> Math.min(MAX_BALANCE, current + added));
+    }
+
+    /**
+     * Takes one hedge from the budget
+     * @return - true if the hedge may be sent
+     */
+    boolean tryHedge() {
+        long current;
+        do {
+            current = this.balance.get();
+            if (current < SCALE) {
+                this.denied.increment();
+                return false;
+            }
+        } while (!this.balance.compareAndSet(current, current - SCALE));
+        this.hedged.increment();
+        return true;
+    }
+
+    /**
+     * Record the latency of an attempt, rolling the window once it is over
+     * @param nanos - Time from sending the attempt to its response, or to its cancellation as a lower bound
+     */
+    void recordLatency(long nanos) {
+        long now = this.clock.getAsLong();
+        long end = this.windowEnd.get();
+        if (now >= end && this.windowEnd.compareAndSet(end, now + this.windowNanos)) {
+            LatencyHistogram.Snapshot finished = this.latencies.snapshot();
+            this.latencies = new LatencyHistogram();
+            if (this.percentile > 0 && finished.getCount() >= MIN_SAMPLES) {
+                this.delayNanos = finished.percentile(this.percentile);
+            }
+        }
+        this.latencies.record(nanos);
+    }
+
+    void hedgeWon() {
+        this.hedgeWins.increment();
+    }
+
+    long now() {
+        return this.clock.getAsLong();
+    }
+
+    public long getDelayNanos() {
+        return delayNanos;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getHedged() {
+        return hedged.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public long getDenied() {
+        return denied.sum();
+    }
+}
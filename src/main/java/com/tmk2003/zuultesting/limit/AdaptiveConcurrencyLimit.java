@@ -0,0 +1,127 @@
+package com.tmk2003.zuultesting.limit;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-flight limit of one route that follows the upstream latency, after the Vegas and gradient limiters.
+ *
+ * The lowest round trip time seen stands in for the unloaded latency; it drifts up slowly so a lasting
+ * change of the upstream becomes the new normal after about a thousand calls. Each completed call scales
+ * the limit by min(1, tolerance * unloaded / sample), clamped at 0.5, and adds sqrt(limit) as headroom:
+ * a healthy upstream grows the limit towards the ceiling, a slowing one shrinks it towards the floor.
+ * Calls over the limit are refused at once instead of queueing.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    /* Final Variables */
+    private static final int DRIFT_WINDOW           = 1000;                     // Samples for the unloaded latency to follow a slower upstream
+    private static final double DROP_BACKOFF        = 0.9;                      // Limit kept after a failed call
+
+    /* Variables */
+    private final int minLimit;                                                 // Floor
+    private final int maxLimit;                                                 // Ceiling
+    private final double tolerance;                                             // Latency growth accepted
+    private final double smoothing;                                             // Weight of a new estimate
+    private final AtomicInteger inFlight = new AtomicInteger();                 // Calls currently admitted
+    private volatile int limit;                                                 // Published limit
+    private double estimatedLimit;                                              // Guarded by this
+    private double noLoadRtt;                                                   // Guarded by this, in nanos
+
+    /* Counters */
+    private final LongAdder rejected    = new LongAdder();
+    private final LongAdder dropped     = new LongAdder();
+
+    public AdaptiveConcurrencyLimit(GatewayProperties.Bulkhead settings) {
+        this(settings, settings.getMaxLimit());
+    }
+
+    /**
+     * @param settings - Route bulkhead, limits left at 0 follow the ceiling
+     * @param defaultMaxLimit - Ceiling when max-limit is not set
+     */
+    public AdaptiveConcurrencyLimit(GatewayProperties.Bulkhead settings, int defaultMaxLimit) {
+        int ceiling = Math.max(1, settings.getMaxLimit() > 0 ? settings.getMaxLimit() : defaultMaxLimit);
+        this.minLimit = Math.max(1, settings.getMinLimit() > 0 ? settings.getMinLimit() : ceiling / 10);
+        this.maxLimit = Math.max(this.minLimit, ceiling);
+        this.tolerance = settings.getTolerance();
+        this.smoothing = settings.getSmoothing();
+        this.estimatedLimit = clamp(settings.getInitialLimit() > 0 ? settings.getInitialLimit() : this.maxLimit);
+        this.limit = (int) this.estimatedLimit;
+    }
+
+    /**
+     * @return - true if the call was admitted and must be released
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = this.inFlight.get();
+            if (current >= this.limit) {
+                this.rejected.increment();
+                return false;
+            }
+            if (this.inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a call that completed and feed its latency into the limit
+     * @param rttNanos - Round trip time of the call
+     */
+    public void release(long rttNanos) {
+        int inFlightBefore = this.inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightBefore);
+    }
+
+    /**
+     * Release a call that failed, backing the limit off
+     */
+    public void releaseDropped() {
+        this.inFlight.decrementAndGet();
+        this.dropped.increment();
+        synchronized (this) {
+            this.estimatedLimit = clamp(this.estimatedLimit * DROP_BACKOFF);
+            this.limit = (int) this.estimatedLimit;
+        }
+    }
+
+    private synchronized void onSample(long rtt, int inFlightBefore) {
+        if (rtt <= 0) {
+            return;
+        }
+        this.noLoadRtt = this.noLoadRtt == 0 ? rtt : Math.min(rtt, this.noLoadRtt + (rtt - this.noLoadRtt) / DRIFT_WINDOW);
+        if (inFlightBefore < this.estimatedLimit / 2) {
+            // Far below the limit, the sample says nothing about it
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, this.tolerance * this.noLoadRtt / rtt));
+        double estimate = this.estimatedLimit * gradient + Math.sqrt(this.estimatedLimit);
+        this.estimatedLimit = clamp(this.estimatedLimit * (1 - this.smoothing) + estimate * this.smoothing);
+        this.limit = (int) this.estimatedLimit;
+    }
+
+    private double clamp(double value) {
+        return Math.max(this.minLimit, Math.min(this.maxLimit, value));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
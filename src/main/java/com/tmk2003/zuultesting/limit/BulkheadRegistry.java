@@ -0,0 +1,62 @@
+package com.tmk2003.zuultesting.limit;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the in-flight limit of every route with gateway.routes.<route id>.bulkhead.enabled=true.
+ *
+ * Without a bulkhead.max-limit a route may hold server.tomcat.max-threads / (routes + 1) worker threads,
+ * so even with every route flooded a share of the threads is left for the gateway's own endpoints.
+ */
+@Component
+public class BulkheadRegistry {
+
+    /* Variables */
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final ServerProperties serverProperties;                            // server.tomcat.max-threads
+    private final ZuulProperties zuulProperties;                                // zuul.routes.*
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimit> bulkheads
+            = new ConcurrentHashMap<>();                                        // Route id -> limit
+
+    public BulkheadRegistry(GatewayProperties properties, ServerProperties serverProperties,
+                            ZuulProperties zuulProperties) {
+        this.properties = properties;
+        this.serverProperties = serverProperties;
+        this.zuulProperties = zuulProperties;
+    }
+
+    /**
+     * @param routeId - Zuul route id
+     * @return - Limit of the route, null when the route has no bulkhead
+     */
+    public AdaptiveConcurrencyLimit getBulkhead(String routeId) {
+        GatewayProperties.Bulkhead settings = this.properties.getRoute(routeId).getBulkhead();
+        if (routeId == null || !settings.isEnabled()) {
+            return null;
+        }
+        return this.bulkheads.computeIfAbsent(routeId, id -> new AdaptiveConcurrencyLimit(settings, defaultMaxLimit()));
+    }
+
+    /**
+     * @return - Share of the worker threads one route may hold
+     */
+    private int defaultMaxLimit() {
+        int routes = this.zuulProperties.getRoutes().size();
+        return Math.max(1, this.serverProperties.getTomcat().getMaxThreads() / (routes + 1));
+    }
+
+    /**
+     * @return - Limits created so far, by route id
+     */
+    public Map<String, AdaptiveConcurrencyLimit> getBulkheads() {
+        return Collections.unmodifiableMap(this.bulkheads);
+    }
+}
@@ -0,0 +1,83 @@
+package com.tmk2003.zuultesting.limit;
+
+import com.tmk2003.zuultesting.filters.BulkheadPreFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Releases the bulkhead admission of {@link BulkheadPreFilter} once the response is written, so the
+ * route keeps its slot while the body is relayed and even when a post filter fails. Requests suspended
+ * by the async proxy mode are released when they complete. Requests answered through the error page
+ * count as dropped and back the limit off.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class BulkheadServletFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.getAttribute(BulkheadPreFilter.BULKHEAD_KEY) != null) {
+                if (request.isAsyncStarted()) {
+                    releaseOnComplete(request);
+                } else {
+                    release(request);
+                }
+            }
+        }
+    }
+
+    private static void releaseOnComplete(HttpServletRequest request) {
+        try {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    release(request);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } catch (IllegalStateException e) {
+            // Already completed
+            release(request);
+        }
+    }
+
+    private static void release(HttpServletRequest request) {
+        AdaptiveConcurrencyLimit bulkhead = (AdaptiveConcurrencyLimit) request.getAttribute(BulkheadPreFilter.BULKHEAD_KEY);
+        Long admitted = (Long) request.getAttribute(BulkheadPreFilter.ADMITTED_KEY);
+        request.removeAttribute(BulkheadPreFilter.BULKHEAD_KEY);
+        if (bulkhead == null) {
+            return;
+        }
+        if (request.getAttribute(RequestDispatcher.ERROR_EXCEPTION) != null || admitted == null) {
+            bulkhead.releaseDropped();
+        } else {
+            bulkhead.release(System.nanoTime() - admitted);
+        }
+    }
+}
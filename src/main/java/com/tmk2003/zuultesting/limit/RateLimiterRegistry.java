@@ -0,0 +1,44 @@
+package com.tmk2003.zuultesting.limit;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the rate limiter of every route with gateway.routes.<route id>.rate-limit.enabled=true
+ */
+@Component
+public class RateLimiterRegistry {
+
+    /* Variables */
+    private final GatewayProperties properties;                                 // Gateway configuration
+    private final ConcurrentMap<String, RouteRateLimiter> limiters
+            = new ConcurrentHashMap<>();                                        // Route id -> limiter
+
+    public RateLimiterRegistry(GatewayProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param routeId - Zuul route id
+     * @return - Limiter of the route, null when rate limiting is disabled for it
+     */
+    public RouteRateLimiter getLimiter(String routeId) {
+        GatewayProperties.RateLimit settings = this.properties.getRoute(routeId).getRateLimit();
+        if (routeId == null || !settings.isEnabled()) {
+            return null;
+        }
+        return this.limiters.computeIfAbsent(routeId, id -> new RouteRateLimiter(settings, System::nanoTime));
+    }
+
+    /**
+     * @return - Limiters created so far, by route id
+     */
+    public Map<String, RouteRateLimiter> getLimiters() {
+        return Collections.unmodifiableMap(this.limiters);
+    }
+}
@@ -0,0 +1,139 @@
+package com.tmk2003.zuultesting.limit;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limits of one route: an optional bucket shared by every client, and optional buckets per client key.
+ *
+ * Client buckets live in a concurrent map capped at max-clients. Buckets that have been full for the idle
+ * timeout are swept out at most once per sweep interval, when a new client shows up. A client arriving
+ * while the map is still full evicts the fullest of a few sampled buckets, the one losing the least
+ * state, so memory stays bounded whatever the key spread and every client keeps a bucket of its own.
+ * Racing newcomers may each add one bucket over the cap.
+ */
+public class RouteRateLimiter {
+
+    /* Final Variables */
+    private static final long SWEEP_INTERVAL        = TimeUnit.SECONDS.toNanos(1);
+    private static final int EVICTION_SAMPLE        = 8;                        // Buckets compared per eviction
+
+    /* Variables */
+    private final LongSupplier clock;                                           // Nano time source
+    private final TokenBucket routeBucket;                                      // Null when the route is unlimited
+    private final GatewayProperties.Limit clientLimit;                          // Null when clients are unlimited
+    private final ConcurrentMap<String, TokenBucket> clients
+            = new ConcurrentHashMap<>();                                        // Client key -> bucket
+    private final int maxClients;                                               // Cap on the client map
+    private final long idleNanos;                                               // Idle time before eviction
+    private final AtomicLong nextSweep;                                         // Earliest time of the next sweep
+
+    /* Counters */
+    private final LongAdder allowed     = new LongAdder();
+    private final LongAdder limited     = new LongAdder();
+    private final LongAdder evictions   = new LongAdder();
+
+    public RouteRateLimiter(GatewayProperties.RateLimit settings, LongSupplier clock) {
+        long now = clock.getAsLong();
+        this.clock = clock;
+        this.routeBucket = settings.getRoute().getPermits() > 0 ? new TokenBucket(settings.getRoute(), now) : null;
+        this.clientLimit = settings.getClient().getPermits() > 0 ? settings.getClient() : null;
+        this.maxClients = Math.max(1, settings.getMaxClients());
+        this.idleNanos = settings.getIdleTimeout().toNanos();
+        this.nextSweep = new AtomicLong(now + SWEEP_INTERVAL);
+    }
+
+    /**
+     * Take a permit from the client bucket, then from the route bucket. Rejected clients never drain
+     * the route bucket, and a client refused by the route gets its permit back.
+     * @param clientKey - Client key, remote address or header value
+     * @return - {@link TokenBucket#ALLOWED} or the nanos until the request may be retried
+     */
+    public long tryAcquire(String clientKey) {
+        long now = this.clock.getAsLong();
+        TokenBucket client = this.clientLimit != null ? client(clientKey, now) : null;
+        long wait = client != null ? client.tryAcquire(now) : TokenBucket.ALLOWED;
+        if (wait == TokenBucket.ALLOWED && this.routeBucket != null) {
+            wait = this.routeBucket.tryAcquire(now);
+            if (wait != TokenBucket.ALLOWED && client != null) {
+                client.refund(now);
+            }
+        }
+        (wait == TokenBucket.ALLOWED ? this.allowed : this.limited).increment();
+        return wait;
+    }
+
+    private TokenBucket client(String clientKey, long now) {
+        TokenBucket bucket = this.clients.get(clientKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        sweep(now);
+        if (this.clients.size() >= this.maxClients) {
+            evictFullest();
+        }
+        return this.clients.computeIfAbsent(clientKey, key -> new TokenBucket(this.clientLimit, now));
+    }
+
+    /**
+     * Evict idle client buckets, one sweeping thread at a time. A client racing its own eviction keeps
+     * the evicted bucket for that request, which can grant it at most one extra permit.
+     */
+    private void sweep(long now) {
+        long due = this.nextSweep.get();
+        if (now - due < 0 || !this.nextSweep.compareAndSet(due, now + SWEEP_INTERVAL)) {
+            return;
+        }
+        for (Iterator<TokenBucket> it = this.clients.values().iterator(); it.hasNext(); ) {
+            if (it.next().isIdle(now, this.idleNanos)) {
+                it.remove();
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Evict the bucket holding the most permits among the first few, an approximation of least recently
+     * used that keeps the state of clients that spent their permits
+     */
+    private void evictFullest() {
+        String fullestKey = null;
+        TokenBucket fullest = null;
+        int sampled = 0;
+        for (Iterator<Map.Entry<String, TokenBucket>> it = this.clients.entrySet().iterator();
+             it.hasNext() && sampled < EVICTION_SAMPLE; sampled++) {
+            Map.Entry<String, TokenBucket> entry = it.next();
+            if (fullest == null || entry.getValue().getArrival() - fullest.getArrival() < 0) {
+                fullestKey = entry.getKey();
+                fullest = entry.getValue();
+            }
+        }
+        if (fullest != null && this.clients.remove(fullestKey, fullest)) {
+            this.evictions.increment();
+        }
+    }
+
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    public long getLimited() {
+        return limited.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getClients() {
+        return clients.size();
+    }
+}
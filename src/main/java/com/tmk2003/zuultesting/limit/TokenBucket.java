@@ -0,0 +1,86 @@
+package com.tmk2003.zuultesting.limit;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single theoretical arrival time (GCRA), so taking a permit is one CAS and
+ * contended buckets never block.
+ *
+ * Each permit moves the arrival time one emission interval (period / permits) into the future; a
+ * request is rejected when that would put it more than burst intervals ahead of now.
+ */
+public final class TokenBucket {
+
+    /* Final Variables */
+    public static final long ALLOWED                = 0;                        // tryAcquire result when a permit was taken
+
+    /* Variables */
+    private final long interval;                                                // Nanos per permit
+    private final long tolerance;                                               // Nanos the arrival time may run ahead
+    private final AtomicLong arrival;                                           // Theoretical arrival time, in nanos
+
+    /**
+     * @param limit - Permits, period and burst, permits must be above 0
+     * @param now - Current time, in nanos, the bucket starts full
+     */
+    public TokenBucket(GatewayProperties.Limit limit, long now) {
+        int burst = limit.getBurst() > 0 ? limit.getBurst() : limit.getPermits();
+        this.interval = Math.max(1, limit.getPeriod().toNanos() / limit.getPermits());
+        this.tolerance = this.interval * burst;
+        this.arrival = new AtomicLong(now);
+    }
+
+    /**
+     * Take a permit if one is available
+     * @param now - Current time, in nanos
+     * @return - {@link #ALLOWED} or the nanos until the next permit is available
+     */
+    public long tryAcquire(long now) {
+        for (;;) {
+            long current = this.arrival.get();
+            long next = (current - now > 0 ? current : now) + this.interval;
+            long excess = next - now - this.tolerance;
+            if (excess > 0) {
+                return excess;
+            }
+            if (this.arrival.compareAndSet(current, next)) {
+                return ALLOWED;
+            }
+        }
+    }
+
+    /**
+     * Give back a permit taken by {@link #tryAcquire(long)} that went unused, never filling past the burst
+     * @param now - Current time, in nanos
+     */
+    public void refund(long now) {
+        for (;;) {
+            long current = this.arrival.get();
+            if (current - now <= 0) {
+                return;                                                         // Already full
+            }
+            long previous = Math.max(current - this.interval, now);
+            if (this.arrival.compareAndSet(current, previous)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return - Theoretical arrival time, in nanos; the earlier, the more permits the bucket holds
+     */
+    long getArrival() {
+        return this.arrival.get();
+    }
+
+    /**
+     * @param now - Current time, in nanos
+     * @param idleNanos - Time the bucket has to be full for
+     * @return - true if the bucket has been full for at least idleNanos
+     */
+    public boolean isIdle(long now, long idleNanos) {
+        return now - this.arrival.get() >= idleNanos;
+    }
+}
@@ -0,0 +1,110 @@
+package com.tmk2003.zuultesting.metrics;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletRequestWrapper;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.IOException;
+
+/**
+ * Counts the request body bytes read through the servlet input stream
+ */
+public class CountingRequestWrapper extends HttpServletRequestWrapper {
+
+    private CountingInputStream inputStream;
+    private long count;
+
+    public CountingRequestWrapper(HttpServletRequest request) {
+        super(request);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (this.inputStream == null) {
+            this.inputStream = new CountingInputStream(super.getInputStream());
+        }
+        return this.inputStream;
+    }
+
+    /**
+     * @param request - Request as seen by a filter, possibly wrapped again by Zuul or the servlet container
+     * @return - Counting wrapper below it, null if the request did not pass the metrics filter
+     */
+    public static CountingRequestWrapper of(ServletRequest request) {
+        ServletRequest current = request;
+        while (current != null && !(current instanceof CountingRequestWrapper)) {
+            if (current instanceof com.netflix.zuul.http.HttpServletRequestWrapper) {
+                current = ((com.netflix.zuul.http.HttpServletRequestWrapper) current).getRequest();
+            } else if (current instanceof ServletRequestWrapper) {
+                current = ((ServletRequestWrapper) current).getRequest();
+            } else {
+                current = null;
+            }
+        }
+        return (CountingRequestWrapper) current;
+    }
+
+    /**
+     * @return - Body bytes read so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Delegating stream adding up what is read
+     */
+    private final class CountingInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+
+        private CountingInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = this.delegate.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = this.delegate.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return this.delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return this.delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.delegate.setReadListener(readListener);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return this.delegate.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.delegate.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.tmk2003.zuultesting.metrics;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+
+/**
+ * Counts the response body bytes written through the servlet output stream
+ */
+public class CountingResponseWrapper extends HttpServletResponseWrapper {
+
+    private CountingOutputStream outputStream;
+    private long count;
+
+    public CountingResponseWrapper(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (this.outputStream == null) {
+            this.outputStream = new CountingOutputStream(super.getOutputStream());
+        }
+        return this.outputStream;
+    }
+
+    /**
+     * @param response - Response as seen by a filter, possibly wrapped again
+     * @return - Counting wrapper below it, null if the request did not pass the metrics filter
+     */
+    public static CountingResponseWrapper of(ServletResponse response) {
+        ServletResponse current = response;
+        while (current instanceof ServletResponseWrapper && !(current instanceof CountingResponseWrapper)) {
+            current = ((ServletResponseWrapper) current).getResponse();
+        }
+        return current instanceof CountingResponseWrapper ? (CountingResponseWrapper) current : null;
+    }
+
+    /**
+     * @return - Body bytes written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Delegating stream adding up what is written
+     */
+    private final class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public boolean isReady() {
+            return this.delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.delegate.setWriteListener(writeListener);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.delegate.close();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tmk2003.zuultesting.metrics;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the per route metrics, and the timer thread starting a new latency window of every route
+ * each gateway.metrics.window
+ */
+@Component
+public class GatewayMetrics {
+
+    /* Variables */
+    private final ConcurrentMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final long windowMillis;                                            // Length of a latency window
+    private final ScheduledThreadPoolExecutor rotator;                          // Rotates the latency windows
+
+    public GatewayMetrics(GatewayProperties properties) {
+        this.windowMillis = Math.max(1L, properties.getMetrics().getWindow().toMillis());
+        this.rotator = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "gateway-metrics-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rotator.scheduleAtFixedRate(this::rotate, this.windowMillis, this.windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param routeId - Zuul route id
+     * @return - Metrics of the route, created on first use
+     */
+    public RouteMetrics route(String routeId) {
+        RouteMetrics metrics = this.routes.get(routeId);
+        return metrics != null ? metrics : this.routes.computeIfAbsent(routeId, id -> new RouteMetrics());
+    }
+
+    /**
+     * @return - Route id -> metrics snapshot, sorted by route id, each with the window its latencies cover
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, RouteMetrics> entry : new TreeMap<>(this.routes).entrySet()) {
+            Map<String, Object> route = entry.getValue().snapshot();
+            route.put("windowMillis", this.windowMillis);
+            snapshot.put(entry.getKey(), route);
+        }
+        return snapshot;
+    }
+
+    private void rotate() {
+        for (RouteMetrics metrics : this.routes.values()) {
+            metrics.rotate();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.rotator.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package com.tmk2003.zuultesting.metrics;
+
+/**
+ * Latency histogram over a sliding window, in the style of the HdrHistogram Recorder.
+ *
+ * Values go to the current interval; {@link #rotate()} turns it into the previous one and starts an
+ * empty interval, dropping the one before. Snapshots cover both intervals, so they always hold the
+ * last full window plus the part of the current one, and a spike leaves the percentiles once it is
+ * two windows old. Recording stays a single atomic increment, a writer racing a rotation lands in the
+ * previous interval and is still counted.
+ */
+public class IntervalHistogram {
+
+    /* Variables */
+    private volatile LatencyHistogram current       = new LatencyHistogram();  // Interval being recorded
+    private volatile LatencyHistogram previous      = new LatencyHistogram();  // Last full interval
+
+    /**
+     * Record one value in the current interval
+     * @param value - Latency in nanoseconds, negative values count as 0
+     */
+    public void record(long value) {
+        this.current.record(value);
+    }
+
+    /**
+     * Start a new interval, called by a single thread at the end of each window
+     */
+    public void rotate() {
+        LatencyHistogram next = new LatencyHistogram();
+        this.previous = this.current;
+        this.current = next;
+    }
+
+    /**
+     * @return - Copy of the previous and current intervals
+     */
+    public LatencyHistogram.Snapshot snapshot() {
+        LatencyHistogram older = this.previous;
+        LatencyHistogram newer = this.current;
+        return older.snapshot().merge(newer.snapshot());
+    }
+}
@@ -0,0 +1,156 @@
+package com.tmk2003.zuultesting.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free, log-linear latency histogram in the style of HdrHistogram.
+ *
+ * Every power of two is split into 64 linear sub-buckets, which keeps each recorded value within
+ * 1.6% of its bucket bound over the whole long range, at a fixed 30KB per histogram. Recording is a
+ * single atomic increment, reading walks a copy of the buckets, so percentiles are computed from every
+ * recorded value and do not move with sampling. It never forgets, {@link IntervalHistogram} bounds it
+ * to a window.
+ */
+public class LatencyHistogram {
+
+    /* Final Variables */
+    private static final int SUB_BUCKET_BITS        = 6;
+    private static final int SUB_BUCKETS            = 1 << SUB_BUCKET_BITS;    // Linear buckets per power of two
+    private static final int BUCKETS                = SUB_BUCKETS * (64 - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts            = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum                     = new LongAdder();
+    private final AtomicLong max                    = new AtomicLong();
+
+    /**
+     * Record one value
+     * @param value - Latency in nanoseconds, negative values count as 0
+     */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        this.counts.incrementAndGet(index(v));
+        this.sum.add(v);
+
+        long current = this.max.get();
+        while (v > current && !this.max.compareAndSet(current, v)) {
+            current = this.max.get();
+        }
+    }
+
+    /**
+     * @return - Point in time copy of the histogram
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = this.counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, this.sum.sum(), this.max.get());
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Immutable copy of the histogram counts
+     */
+    public static final class Snapshot {
+
+        /* Final Variables */
+        public static final Snapshot EMPTY          = new Snapshot(new long[BUCKETS], 0L, 0L, 0L);
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * @param percentile - Percentile between 0 and 100
+         * @return - Highest value of the bucket holding the percentile, capped at the max
+         */
+        public long percentile(double percentile) {
+            if (this.count == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * this.count));
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), this.max);
+                }
+            }
+            return this.max;
+        }
+
+        /**
+         * @param other - Snapshot of another histogram
+         * @return - Snapshot holding the values of both
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] = this.counts[i] + other.counts[i];
+            }
+            return new Snapshot(merged, this.count + other.count, this.sum + other.sum, Math.max(this.max, other.max));
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return this.count == 0 ? 0.0 : (double) this.sum / this.count;
+        }
+
+        /**
+         * @param unitNanos - Nanoseconds per reported unit
+         * @return - count, mean, p50, p90, p99, p999 and max in the given unit
+         */
+        public Map<String, Object> summary(long unitNanos) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", this.count);
+            summary.put("mean", getMean() / unitNanos);
+            summary.put("p50", percentile(50.0) / unitNanos);
+            summary.put("p90", percentile(90.0) / unitNanos);
+            summary.put("p99", percentile(99.0) / unitNanos);
+            summary.put("p999", percentile(99.9) / unitNanos);
+            summary.put("max", this.max / unitNanos);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.tmk2003.zuultesting.metrics;
+
+import com.tmk2003.zuultesting.warmup.GatewayWarmup;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Wraps every request to time it and count its bytes. The Zuul timing filters fill in the route and
+ * the upstream timestamps, the request is recorded against its route once the response is written,
+ * whatever happened in between. Requests suspended by the async proxy mode are recorded when they complete.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class MetricsServletFilter extends OncePerRequestFilter {
+
+    private final GatewayMetrics metrics;
+
+    public MetricsServletFilter(GatewayMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Synthetic warm-up requests are not traffic
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return GatewayWarmup.isWarmupRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = new RequestTimings(System.nanoTime());
+        CountingRequestWrapper countingRequest = new CountingRequestWrapper(request);
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(response);
+        request.setAttribute(RequestTimings.ATTRIBUTE, timings);
+        try {
+            chain.doFilter(countingRequest, countingResponse);
+        } finally {
+            if (request.isAsyncStarted()) {
+                recordOnComplete(request, timings, countingRequest, countingResponse);
+            } else {
+                record(timings, countingRequest, countingResponse);
+            }
+        }
+    }
+
+    private void recordOnComplete(HttpServletRequest request, RequestTimings timings,
+                                  CountingRequestWrapper countingRequest, CountingResponseWrapper countingResponse) {
+        try {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    record(timings, countingRequest, countingResponse);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } catch (IllegalStateException e) {
+            // Already completed
+            record(timings, countingRequest, countingResponse);
+        }
+    }
+
+    private void record(RequestTimings timings, CountingRequestWrapper countingRequest,
+                        CountingResponseWrapper countingResponse) {
+        timings.ended(System.nanoTime());
+        String routeId = timings.getRouteId();
+        if (routeId != null) {
+            this.metrics.route(routeId).requestCompleted(timings, countingResponse.getStatus(),
+                    countingRequest.getCount(), countingResponse.getCount());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.tmk2003.zuultesting.metrics;
+
+import com.netflix.zuul.context.RequestContext;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Timestamps of one request, kept as a request attribute so both the servlet filter and the Zuul
+ * filters can reach them
+ */
+public final class RequestTimings {
+
+    /* Final Variables */
+    public static final String ATTRIBUTE            = RequestTimings.class.getName();
+    private static final long UNSET                 = -1L;
+
+    private final long startNanos;                                              // Request reached the gateway
+    private volatile long upstreamStartNanos        = UNSET;                    // Routing started
+    private volatile long upstreamEndNanos          = UNSET;                    // Upstream response received
+    private volatile long endNanos                  = UNSET;                    // Response written
+    private volatile String routeId;                                            // Matched route
+
+    public RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * @param request - Servlet request
+     * @return - Timings of the request, null if it did not pass the metrics filter
+     */
+    public static RequestTimings of(HttpServletRequest request) {
+        Object timings = request == null ? null : request.getAttribute(ATTRIBUTE);
+        return timings instanceof RequestTimings ? (RequestTimings) timings : null;
+    }
+
+    /**
+     * @param ctx - Zuul request context
+     * @return - Timings of the request, null if it did not pass the metrics filter
+     */
+    public static RequestTimings of(RequestContext ctx) {
+        return of(ctx.getRequest());
+    }
+
+    public void upstreamStarted(long nanos) {
+        this.upstreamStartNanos = nanos;
+    }
+
+    public void upstreamEnded(long nanos) {
+        if (this.upstreamStartNanos != UNSET && this.upstreamEndNanos == UNSET) {
+            this.upstreamEndNanos = nanos;
+        }
+    }
+
+    public void ended(long nanos) {
+        this.endNanos = nanos;
+    }
+
+    /**
+     * @return - Time from reaching the gateway to the response being written
+     */
+    public long getTotalNanos() {
+        return (this.endNanos == UNSET ? System.nanoTime() : this.endNanos) - this.startNanos;
+    }
+
+    /**
+     * @return - Time spent waiting on the upstream, -1 if the request was not routed upstream
+     */
+    public long getUpstreamNanos() {
+        if (this.upstreamStartNanos == UNSET || this.upstreamEndNanos == UNSET) {
+            return UNSET;
+        }
+        return this.upstreamEndNanos - this.upstreamStartNanos;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public void setRouteId(String routeId) {
+        this.routeId = routeId;
+    }
+}
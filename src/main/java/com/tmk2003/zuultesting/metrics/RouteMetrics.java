@@ -0,0 +1,122 @@
+package com.tmk2003.zuultesting.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, throughput and traffic counters of one route, updated without locks. Counters count since
+ * startup, latencies cover the last one to two windows of {@link #rotate()}.
+ */
+public class RouteMetrics {
+
+    /* Final Variables */
+    private static final long MICROS                = 1_000L;                   // Latencies are reported in micros
+
+    /* Latencies */
+    private final IntervalHistogram total           = new IntervalHistogram();  // Whole request as seen by the gateway
+    private final IntervalHistogram upstream        = new IntervalHistogram();  // Routing to the upstream service
+    private final IntervalHistogram overhead        = new IntervalHistogram();  // Total minus upstream
+
+    /* Counters */
+    private final LongAdder requests                = new LongAdder();
+    private final LongAdder errors                  = new LongAdder();          // 5xx responses
+    private final LongAdder inFlight                = new LongAdder();
+    private final LongAdder bytesIn                 = new LongAdder();
+    private final LongAdder bytesOut                = new LongAdder();
+
+    /* Compression */
+    private final LongAdder compressed              = new LongAdder();          // Gzipped responses
+    private final LongAdder compressionIn           = new LongAdder();          // Bytes before gzip
+    private final LongAdder compressionOut          = new LongAdder();          // Bytes after gzip
+    private final LongAdder compressionNanos        = new LongAdder();          // Time spent deflating
+
+    /**
+     * A request of the route started
+     */
+    public void requestStarted() {
+        this.inFlight.increment();
+    }
+
+    /**
+     * A request of the route completed
+     * @param timings - Timings of the request
+     * @param status - Response status code
+     * @param in - Request body bytes
+     * @param out - Response body bytes
+     */
+    public void requestCompleted(RequestTimings timings, int status, long in, long out) {
+        this.inFlight.decrement();
+        this.requests.increment();
+        if (status >= 500) {
+            this.errors.increment();
+        }
+        this.bytesIn.add(in);
+        this.bytesOut.add(out);
+
+        long totalNanos = timings.getTotalNanos();
+        long upstreamNanos = timings.getUpstreamNanos();
+        this.total.record(totalNanos);
+        if (upstreamNanos >= 0) {
+            this.upstream.record(upstreamNanos);
+            this.overhead.record(totalNanos - upstreamNanos);
+        } else {
+            this.overhead.record(totalNanos);
+        }
+    }
+
+    /**
+     * A response of the route was gzipped by the gateway
+     * @param in - Body bytes before compression
+     * @param out - Body bytes after compression
+     * @param nanos - Time spent compressing
+     */
+    public void compressionCompleted(long in, long out, long nanos) {
+        this.compressed.increment();
+        this.compressionIn.add(in);
+        this.compressionOut.add(out);
+        this.compressionNanos.add(nanos);
+    }
+
+    /**
+     * Start a new latency window
+     */
+    public void rotate() {
+        this.total.rotate();
+        this.upstream.rotate();
+        this.overhead.rotate();
+    }
+
+    /**
+     * @return - Upstream latencies of the route
+     */
+    public IntervalHistogram getUpstream() {
+        return upstream;
+    }
+
+    /**
+     * @return - JSON friendly view of the metrics, latencies in microseconds
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("requests", this.requests.sum());
+        snapshot.put("errors", this.errors.sum());
+        snapshot.put("inFlight", this.inFlight.sum());
+        snapshot.put("bytesIn", this.bytesIn.sum());
+        snapshot.put("bytesOut", this.bytesOut.sum());
+        snapshot.put("totalMicros", this.total.snapshot().summary(MICROS));
+        snapshot.put("upstreamMicros", this.upstream.snapshot().summary(MICROS));
+        snapshot.put("overheadMicros", this.overhead.snapshot().summary(MICROS));
+
+        Map<String, Object> compression = new LinkedHashMap<>();
+        long in = this.compressionIn.sum();
+        long out = this.compressionOut.sum();
+        compression.put("responses", this.compressed.sum());
+        compression.put("bytesIn", in);
+        compression.put("bytesOut", out);
+        compression.put("bytesSaved", in - out);
+        compression.put("cpuMicros", this.compressionNanos.sum() / MICROS);
+        snapshot.put("compression", compression);
+        return snapshot;
+    }
+}
@@ -0,0 +1,95 @@
+package com.tmk2003.zuultesting.routing;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answers requests matching zuul.ignoredPatterns with a fixed 404 before any other filter or the
+ * dispatcher sees them, so frequent load balancer probes skip MVC, body parsing and error page rendering.
+ *
+ * Only paths Zuul could have routed are answered: the path is taken within the dispatcher's servlet
+ * mapping, as ZuulHandlerMapping sees it, and must lie under zuul.prefix. Ignored paths that a
+ * controller or actuator endpoint maps are passed on to the dispatcher, ignoring them only takes them
+ * away from Zuul. Paths that are not ignored cost one trie lookup.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IgnoredPatternFilter extends OncePerRequestFilter {
+
+    /* Final Variables */
+    public static final String NOT_FOUND_BODY       = "404 Not Found";         // Body of every ignored request
+    private static final byte[] NOT_FOUND_BYTES     = NOT_FOUND_BODY.getBytes(StandardCharsets.UTF_8);
+    private static final String CONTENT_TYPE        = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8";
+
+    private final TrieRouteLocator routeLocator;                                // Compiled ignored patterns
+    private final ZuulProperties zuulProperties;                                // zuul.prefix
+    private final ObjectProvider<RequestMappingInfoHandlerMapping> mvcMappings; // Controllers and actuator endpoints
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();            // Same path resolution as Zuul
+
+    public IgnoredPatternFilter(TrieRouteLocator routeLocator, ZuulProperties zuulProperties,
+                                ObjectProvider<RequestMappingInfoHandlerMapping> mvcMappings) {
+        this.routeLocator = routeLocator;
+        this.zuulProperties = zuulProperties;
+        this.mvcMappings = mvcMappings;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = this.urlPathHelper.getLookupPathForRequest(request);
+        if (!isUnderPrefix(path) || !this.routeLocator.isIgnored(path) || hasMvcHandler(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(HttpStatus.NOT_FOUND.value());
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(NOT_FOUND_BYTES.length);
+        if (!"HEAD".equalsIgnoreCase(request.getMethod())) {
+            response.getOutputStream().write(NOT_FOUND_BYTES);
+        }
+    }
+
+    /**
+     * Paths outside zuul.prefix are never routed, the dispatcher answers them
+     */
+    private boolean isUnderPrefix(String path) {
+        String prefix = this.zuulProperties.getPrefix();
+        if (!StringUtils.hasText(prefix) || "/".equals(prefix)) {
+            return true;
+        }
+        return path.equals(prefix) || path.startsWith(prefix.endsWith("/") ? prefix : prefix + "/");
+    }
+
+    /**
+     * @return - true when a controller or actuator endpoint maps the request, also when only its method
+     *           or media type does not match, so MVC answers it with its own status
+     */
+    private boolean hasMvcHandler(HttpServletRequest request) {
+        for (RequestMappingInfoHandlerMapping mapping : this.mvcMappings) {
+            try {
+                if (mapping.getHandler(request) != null) {
+                    return true;
+                }
+            } catch (Exception e) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
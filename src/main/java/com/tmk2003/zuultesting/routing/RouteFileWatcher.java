@@ -0,0 +1,175 @@
+package com.tmk2003.zuultesting.routing;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties.ZuulRoute;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reloads zuul.routes.* and zuul.ignored-patterns from gateway.route-file.location, a properties or YAML
+ * file, without a restart.
+ *
+ * A single timer thread polls the file and parses it off the request path. Its routes are laid over the
+ * ones configured at startup, then a {@link RoutesRefreshedEvent} has Zuul refresh its handler mapping and
+ * the {@link TrieRouteLocator}, which compiles the new {@link RouteTable} and publishes it with one
+ * reference swap. Requests keep matching against the previous table until then and never see a partial
+ * one. A file that fails to parse leaves the current routes in place until it changes again, so replace
+ * the file by renaming a complete copy over it rather than writing it in place.
+ */
+@Component
+@ConditionalOnProperty("gateway.route-file.location")
+public class RouteFileWatcher {
+
+    /* Final Variables */
+    private static final Logger LOG = LoggerFactory.getLogger(RouteFileWatcher.class);
+
+    /* Variables */
+    private final Path file;                                                    // Watched routes file
+    private final long pollMillis;                                              // Delay between checks
+    private final ZuulProperties zuulProperties;                                // Routes Zuul locates
+    private final TrieRouteLocator routeLocator;                                // Source of the refresh event
+    private final ApplicationEventPublisher publisher;                          // Delivers the refresh event
+    private final Map<String, ZuulRoute> baseRoutes;                            // Routes configured at startup
+    private final Set<String> baseIgnoredPatterns;                              // Ignored patterns configured at startup
+    private final ScheduledThreadPoolExecutor scheduler;                        // Polls the file
+    private byte[] checked;                                                     // Content last checked
+
+    /* Counters */
+    private final LongAdder reloads     = new LongAdder();
+    private final LongAdder failures    = new LongAdder();
+
+    public RouteFileWatcher(GatewayProperties properties, ZuulProperties zuulProperties,
+                            TrieRouteLocator routeLocator, ApplicationEventPublisher publisher) {
+        this.file = Paths.get(properties.getRouteFile().getLocation());
+        this.pollMillis = Math.max(1, properties.getRouteFile().getPollInterval().toMillis());
+        this.zuulProperties = zuulProperties;
+        this.routeLocator = routeLocator;
+        this.publisher = publisher;
+        this.baseRoutes = new LinkedHashMap<>(zuulProperties.getRoutes());
+        this.baseIgnoredPatterns = new LinkedHashSet<>(zuulProperties.getIgnoredPatterns());
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "gateway-route-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the file before the first request, then keeps polling it
+     */
+    @PostConstruct
+    public void start() {
+        // On the starting thread, the refresh event may still create beans
+        check();
+        this.scheduler.scheduleWithFixedDelay(this::check, this.pollMillis, this.pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.scheduler.shutdownNow();
+    }
+
+    /**
+     * Reload the routes if the file changed since the last check
+     */
+    void check() {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(this.file);
+        } catch (NoSuchFileException e) {
+            return;                                                             // Not there (yet), keep the routes
+        } catch (IOException e) {
+            this.failures.increment();
+            LOG.warn("Keeping the current routes, failed to read {}", this.file, e);
+            return;
+        }
+        if (Arrays.equals(content, this.checked)) {
+            return;
+        }
+        this.checked = content;
+        try {
+            apply(parse(content));
+            this.reloads.increment();
+            LOG.info("Reloaded routes from {}", this.file);
+        } catch (IOException | RuntimeException e) {
+            this.failures.increment();
+            LOG.warn("Keeping the current routes, failed to load {}", this.file, e);
+        }
+    }
+
+    /**
+     * @param content - Routes file content
+     * @return - zuul.* settings of the file
+     * @throws IOException - When the file is not valid properties or YAML
+     */
+    private ZuulProperties parse(byte[] content) throws IOException {
+        String name = this.file.toString();
+        PropertySourceLoader loader = name.endsWith(".yml") || name.endsWith(".yaml")
+                ? new YamlPropertySourceLoader()
+                : new PropertiesPropertySourceLoader();
+        List<PropertySource<?>> sources = loader.load(name, new ByteArrayResource(content, name));
+        ZuulProperties parsed = new ZuulProperties();
+        new Binder(ConfigurationPropertySources.from(sources)).bind("zuul", Bindable.ofInstance(parsed));
+        parsed.init();                                                          // Default ids and paths, as on startup
+        return parsed;
+    }
+
+    /**
+     * Lay the file's routes over the startup ones and have Zuul refresh
+     */
+    private void apply(ZuulProperties parsed) {
+        Map<String, ZuulRoute> routes = new LinkedHashMap<>(this.baseRoutes);
+        routes.putAll(parsed.getRoutes());
+        Set<String> ignoredPatterns = new LinkedHashSet<>(this.baseIgnoredPatterns);
+        ignoredPatterns.addAll(parsed.getIgnoredPatterns());
+
+        // Whole collections are swapped in, the ones a refresh may still be reading are never modified
+        this.zuulProperties.setRoutes(routes);
+        this.zuulProperties.setIgnoredPatterns(ignoredPatterns);
+        this.publisher.publishEvent(new RoutesRefreshedEvent(this.routeLocator));
+    }
+
+    /**
+     * @return - Number of times the file was loaded
+     */
+    public long getReloads() {
+        return this.reloads.sum();
+    }
+
+    /**
+     * @return - Number of times the file could not be read or parsed
+     */
+    public long getFailures() {
+        return this.failures.sum();
+    }
+}
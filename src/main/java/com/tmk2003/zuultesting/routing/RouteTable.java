@@ -0,0 +1,73 @@
+package com.tmk2003.zuultesting.routing;
+
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties.ZuulRoute;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, compiled snapshot of the routes and ignored patterns
+ */
+public final class RouteTable {
+
+    private final RouteTrie<ZuulRoute> routes;                                  // Route pattern -> route
+    private final RouteTrie<String> ignored;                                    // Ignored pattern -> pattern
+    private final List<String> ignoredPatterns;                                 // Ignored patterns as declared
+
+    private RouteTable(RouteTrie<ZuulRoute> routes, RouteTrie<String> ignored, List<String> ignoredPatterns) {
+        this.routes = routes;
+        this.ignored = ignored;
+        this.ignoredPatterns = ignoredPatterns;
+    }
+
+    /**
+     * Compile a route table
+     * @param routes - Route patterns in priority order
+     * @param ignoredPatterns - Patterns that are never routed
+     * @return - Compiled table
+     */
+    public static RouteTable compile(Map<String, ZuulRoute> routes, Collection<String> ignoredPatterns) {
+        Map<String, String> ignored = new LinkedHashMap<>();
+        for (String pattern : ignoredPatterns) {
+            ignored.put(pattern, pattern);
+        }
+        return new RouteTable(
+                RouteTrie.compile(routes),
+                RouteTrie.compile(ignored),
+                Collections.unmodifiableList(new ArrayList<>(ignored.keySet())));
+    }
+
+    /**
+     * @param path - Adjusted request path
+     * @return - The matching route or null when the path is ignored or unrouted
+     */
+    public ZuulRoute matchRoute(String path) {
+        return isIgnored(path) ? null : this.routes.match(path);
+    }
+
+    /**
+     * @param path - Adjusted request path
+     * @return - true if the path matches an ignored pattern
+     */
+    public boolean isIgnored(String path) {
+        return this.ignored.match(path) != null;
+    }
+
+    /**
+     * @return - Ignored patterns this table was compiled from
+     */
+    public List<String> getIgnoredPatterns() {
+        return this.ignoredPatterns;
+    }
+
+    /**
+     * @return - Number of compiled routes
+     */
+    public int size() {
+        return this.routes.size();
+    }
+}
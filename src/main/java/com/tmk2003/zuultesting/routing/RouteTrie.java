@@ -0,0 +1,223 @@
+package com.tmk2003.zuultesting.routing;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segment trie over ant style path patterns.
+ *
+ * Patterns made of literal segments, whole-segment "*" wildcards and an optional trailing "/**" are
+ * compiled into the trie, so a lookup costs one walk over the path segments no matter how many
+ * patterns are registered. Anything else ("?", "{var}", partial wildcards, "**" in the middle) is kept
+ * in a small fallback list that is matched with an {@link AntPathMatcher}.
+ *
+ * Matching follows {@link AntPathMatcher} semantics: when several patterns match, the one declared
+ * first wins, exactly like the linear scan done by the default route locator.
+ *
+ * @param <T> value bound to each pattern
+ */
+public final class RouteTrie<T> {
+
+    /* Final Variables */
+    private static final String SEPARATOR           = "/";
+    private static final String WILDCARD            = "*";
+    private static final String DOUBLE_WILDCARD     = "**";
+    private static final PathMatcher PATH_MATCHER   = new AntPathMatcher();
+
+    private final Node<T> root;                                                 // Compiled patterns
+    private final List<Match<T>> fallback;                                      // Patterns the trie can not express
+    private final int size;                                                     // Number of patterns
+
+    private RouteTrie(Node<T> root, List<Match<T>> fallback, int size) {
+        this.root = root;
+        this.fallback = fallback;
+        this.size = size;
+    }
+
+    /**
+     * Compile the given patterns, the iteration order of the map is the match priority
+     * @param patterns - ant style patterns mapped to their values
+     * @return - Compiled trie
+     */
+    public static <T> RouteTrie<T> compile(Map<String, T> patterns) {
+        Node<T> root = new Node<>();
+        List<Match<T>> fallback = new ArrayList<>();
+        int rank = 0;
+        for (Map.Entry<String, T> entry : patterns.entrySet()) {
+            Match<T> match = new Match<>(rank++, entry.getKey(), entry.getValue());
+            if (!insert(root, match)) {
+                fallback.add(match);
+            }
+        }
+        return new RouteTrie<>(root, Collections.unmodifiableList(fallback), rank);
+    }
+
+    /**
+     * Find the value of the highest priority pattern matching the path
+     * @param path - request path
+     * @return - Bound value or null when nothing matches
+     */
+    public T match(String path) {
+        Match<T> best = null;
+        if (path != null && path.startsWith(SEPARATOR)) {
+            best = walk(this.root, tokenize(path), 0, path.endsWith(SEPARATOR), null);
+        }
+
+        // Fallback patterns are in priority order, stop once they can no longer beat the trie
+        for (Match<T> candidate : this.fallback) {
+            if (best != null && candidate.rank > best.rank) {
+                break;
+            }
+            if (path != null && PATH_MATCHER.match(candidate.pattern, path)) {
+                best = candidate;
+                break;
+            }
+        }
+        return best == null ? null : best.value;
+    }
+
+    /**
+     * @return - Number of compiled patterns
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return - Number of patterns matched by the slow fallback scan
+     */
+    public int fallbackSize() {
+        return this.fallback.size();
+    }
+
+    private static <T> Match<T> walk(Node<T> node, String[] tokens, int depth, boolean trailingSlash, Match<T> best) {
+        // "/x/**" matches "/x" and everything below it
+        best = better(best, node.any);
+
+        if (depth == tokens.length) {
+            best = better(best, trailingSlash ? node.exactSlash : node.exact);
+            // AntPathMatcher lets "/x/*" match "/x/"
+            if (trailingSlash && node.wildcard != null) {
+                best = better(best, node.wildcard.exact);
+                best = better(best, node.wildcard.exactSlash);
+            }
+            return best;
+        }
+
+        Node<T> child = node.children.get(tokens[depth]);
+        if (child != null) {
+            best = walk(child, tokens, depth + 1, trailingSlash, best);
+        }
+        if (node.wildcard != null) {
+            best = walk(node.wildcard, tokens, depth + 1, trailingSlash, best);
+        }
+        return best;
+    }
+
+    private static <T> Match<T> better(Match<T> best, Match<T> candidate) {
+        if (candidate == null) {
+            return best;
+        }
+        return best == null || candidate.rank < best.rank ? candidate : best;
+    }
+
+    private static <T> boolean insert(Node<T> root, Match<T> match) {
+        String pattern = match.pattern;
+        if (pattern == null || !pattern.startsWith(SEPARATOR)) {
+            return false;
+        }
+
+        String[] tokens = tokenize(pattern);
+        int last = tokens.length - 1;
+        for (int i = 0; i < tokens.length; i++) {
+            if (!isCompilable(tokens[i], i == last)) {
+                return false;
+            }
+        }
+
+        Node<T> node = root;
+        boolean anyDepth = last >= 0 && DOUBLE_WILDCARD.equals(tokens[last]);
+        int depth = anyDepth ? last : tokens.length;
+        for (int i = 0; i < depth; i++) {
+            node = WILDCARD.equals(tokens[i])
+                    ? node.wildcard()
+                    : node.children.computeIfAbsent(tokens[i], key -> new Node<>());
+        }
+
+        if (anyDepth) {
+            node.any = better(node.any, match);
+        } else if (pattern.endsWith(SEPARATOR)) {
+            node.exactSlash = better(node.exactSlash, match);
+        } else {
+            node.exact = better(node.exact, match);
+        }
+        return true;
+    }
+
+    private static boolean isCompilable(String token, boolean last) {
+        if (WILDCARD.equals(token)) {
+            return true;
+        }
+        if (DOUBLE_WILDCARD.equals(token)) {
+            return last;
+        }
+        return token.indexOf('*') < 0 && token.indexOf('?') < 0 && token.indexOf('{') < 0;
+    }
+
+    /**
+     * Split on "/" dropping empty segments, the same way AntPathMatcher tokenizes
+     */
+    private static String[] tokenize(String path) {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/') {
+                if (i > start) {
+                    tokens.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * One path segment of the trie
+     */
+    private static final class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();  // Literal segments
+        private Node<T> wildcard;                                       // "*" segment
+        private Match<T> exact;                                         // Pattern ends here
+        private Match<T> exactSlash;                                    // Pattern ends here with a trailing "/"
+        private Match<T> any;                                           // Pattern ends here with "/**"
+
+        private Node<T> wildcard() {
+            if (this.wildcard == null) {
+                this.wildcard = new Node<>();
+            }
+            return this.wildcard;
+        }
+    }
+
+    /**
+     * A declared pattern and its priority
+     */
+    private static final class Match<T> {
+        private final int rank;
+        private final String pattern;
+        private final T value;
+
+        private Match(int rank, String pattern, T value) {
+            this.rank = rank;
+            this.pattern = pattern;
+            this.value = value;
+        }
+    }
+}
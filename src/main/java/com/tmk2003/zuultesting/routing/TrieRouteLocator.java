@@ -0,0 +1,71 @@
+package com.tmk2003.zuultesting.routing;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties.ZuulRoute;
+import org.springframework.cloud.netflix.zuul.filters.discovery.DiscoveryClientRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.discovery.ServiceRouteMapper;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Route locator that resolves requests against a precompiled {@link RouteTable}.
+ *
+ * Routes are still located the same way as the default locator (zuul.routes.* and discovery), only
+ * the matching is replaced: instead of running every ant pattern per request, the routes and
+ * ignored patterns are compiled into segment tries whenever the routes are (re)loaded, and the new
+ * table replaces the old one in a single swap (see {@link RouteFileWatcher}).
+ */
+public class TrieRouteLocator extends DiscoveryClientRouteLocator {
+
+    /* Variables */
+    private final ZuulProperties properties;                                    // Zuul configuration
+    private final AtomicReference<RouteTable> table = new AtomicReference<>();  // Currently published table
+
+    public TrieRouteLocator(String servletPath, DiscoveryClient discovery, ZuulProperties properties,
+                            ServiceRouteMapper serviceRouteMapper, ServiceInstance localServiceInstance) {
+        super(servletPath, discovery, properties, serviceRouteMapper, localServiceInstance);
+        this.properties = properties;
+    }
+
+    /**
+     * @param path - Adjusted request path
+     * @return - true if the path matches one of the ignored patterns
+     */
+    public boolean isIgnored(String path) {
+        return getTable().isIgnored(path);
+    }
+
+    /**
+     * @return - Currently published route table
+     */
+    public RouteTable getTable() {
+        RouteTable current = this.table.get();
+        if (current == null) {
+            this.table.compareAndSet(null, compile());
+            current = this.table.get();
+        }
+        return current;
+    }
+
+    @Override
+    protected ZuulRoute getZuulRoute(String adjustedPath) {
+        return getTable().matchRoute(adjustedPath);
+    }
+
+    @Override
+    protected boolean matchesIgnoredPatterns(String path) {
+        return getTable().isIgnored(path);
+    }
+
+    @Override
+    protected void doRefresh() {
+        super.doRefresh();
+        this.table.set(compile());
+    }
+
+    private RouteTable compile() {
+        return RouteTable.compile(getRoutesMap(), this.properties.getIgnoredPatterns());
+    }
+}
@@ -0,0 +1,85 @@
+package com.tmk2003.zuultesting.support;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reusable copy buffers for relaying bodies, so large transfers do not allocate per request.
+ *
+ * Buffers are handed out to one caller at a time; when the pool is empty a new buffer is allocated and
+ * offered back afterwards, surplus buffers beyond gateway.buffers.max-pooled are left to the GC.
+ */
+@Component
+public class BufferPool {
+
+    /* Variables */
+    private final int bufferSize;                                               // Bytes per buffer
+    private final BlockingQueue<byte[]> idle;                                   // Buffers ready for reuse
+    private final LongAdder allocated = new LongAdder();                        // Buffers created so far
+
+    public BufferPool(GatewayProperties properties) {
+        this.bufferSize = (int) properties.getBuffers().getSize().toBytes();
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, properties.getBuffers().getMaxPooled()));
+    }
+
+    /**
+     * @return - Buffer owned by the caller until it is released
+     */
+    public byte[] acquire() {
+        byte[] buffer = this.idle.poll();
+        if (buffer == null) {
+            this.allocated.increment();
+            buffer = new byte[this.bufferSize];
+        }
+        return buffer;
+    }
+
+    /**
+     * @param buffer - Buffer taken from {@link #acquire()}, must not be used afterwards
+     */
+    public void release(byte[] buffer) {
+        if (buffer != null && buffer.length == this.bufferSize) {
+            this.idle.offer(buffer);
+        }
+    }
+
+    /**
+     * Copy a stream through one pooled buffer
+     * @param in - Source, read until its end
+     * @param out - Target, not flushed or closed
+     * @return - Number of bytes copied
+     * @throws IOException - When reading or writing fails
+     */
+    public long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = acquire();
+        try {
+            long copied = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                copied += read;
+            }
+            return copied;
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * @return - Buffers allocated since startup, stays flat once the pool is warm
+     */
+    public long getAllocated() {
+        return this.allocated.sum();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,124 @@
+package com.tmk2003.zuultesting.support;
+
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.warmup.GatewayWarmup;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Enumeration;
+import java.util.Locale;
+
+/**
+ * Helpers shared by the gateway filters for reading the Zuul request context
+ */
+public final class Contexts {
+
+    private Contexts() {
+    }
+
+    /**
+     * @param ctx - Current request context
+     * @return - Zuul route id, null when the request was not matched to a route
+     */
+    public static String routeId(RequestContext ctx) {
+        Object routeId = ctx.get(FilterConstants.PROXY_KEY);
+        return routeId instanceof String ? (String) routeId : null;
+    }
+
+    /**
+     * @param ctx - Current request context
+     * @return - true if the request is a GET
+     */
+    public static boolean isGet(RequestContext ctx) {
+        HttpServletRequest request = ctx.getRequest();
+        return request != null && "GET".equalsIgnoreCase(request.getMethod());
+    }
+
+    /**
+     * @param ctx - Current request context
+     * @return - true for a synthetic warm-up request, left out of limits, caches and measurements
+     */
+    public static boolean isWarmup(RequestContext ctx) {
+        return GatewayWarmup.isWarmupRequest(ctx.getRequest());
+    }
+
+    /**
+     * @param ctx - Current request context
+     * @return - true if the request carries client credentials, its response is not for other clients
+     */
+    public static boolean carriesCredentials(RequestContext ctx) {
+        HttpServletRequest request = ctx.getRequest();
+        return request != null && (request.getHeader("Authorization") != null || request.getHeader("Cookie") != null);
+    }
+
+    /**
+     * @param ctx - Current request context
+     * @return - Route id, path and query identifying the requested resource
+     */
+    public static String resourceKey(RequestContext ctx) {
+        HttpServletRequest request = ctx.getRequest();
+        String query = request.getQueryString();
+        StringBuilder key = new StringBuilder(64)
+                .append(routeId(ctx))
+                .append(' ')
+                .append(request.getRequestURI());
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        return key.toString();
+    }
+
+    /**
+     * @param ctx - Current request context
+     * @return - true if the client accepts gzip encoded responses
+     */
+    public static boolean acceptsGzip(RequestContext ctx) {
+        return acceptsGzip(ctx.getRequest());
+    }
+
+    /**
+     * Reads Accept-Encoding as RFC 7231 section 5.3.4 does: gzip, or x-gzip, is accepted when listed with a
+     * qvalue above 0, or when not listed and * is; q=0 refuses it
+     * @param request - Client request, may be null
+     * @return - true if the client accepts gzip encoded responses
+     */
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        if (request == null) {
+            return false;
+        }
+        Enumeration<String> headers = request.getHeaders("Accept-Encoding");
+        double gzip = -1;
+        double any = -1;
+        while (headers != null && headers.hasMoreElements()) {
+            for (String coding : headers.nextElement().split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim().toLowerCase(Locale.ROOT);
+                if (name.equals("gzip") || name.equals("x-gzip")) {
+                    gzip = Math.max(gzip, qvalue(parts));
+                } else if (name.equals("*")) {
+                    any = Math.max(any, qvalue(parts));
+                }
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    /**
+     * @param parts - Coding followed by its parameters
+     * @return - Its qvalue, 1 when absent, 0 when invalid
+     */
+    private static double qvalue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+                    && parameter.substring(1).trim().startsWith("=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(parameter.indexOf('=') + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
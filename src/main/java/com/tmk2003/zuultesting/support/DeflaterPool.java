@@ -0,0 +1,63 @@
+package com.tmk2003.zuultesting.support;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * Reusable raw deflaters for gzip responses. A Deflater holds a few hundred KB of native zlib state,
+ * allocating and ending one per response costs more than compressing a small body.
+ *
+ * Like {@link BufferPool}, an empty pool allocates and surplus deflaters beyond
+ * gateway.buffers.max-pooled-deflaters are ended on release.
+ */
+@Component
+public class DeflaterPool {
+
+    /* Variables */
+    private final BlockingQueue<Deflater> idle;                                 // Deflaters ready for reuse
+    private final LongAdder allocated = new LongAdder();                        // Deflaters created so far
+
+    public DeflaterPool(GatewayProperties properties) {
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, properties.getBuffers().getMaxPooledDeflaters()));
+    }
+
+    /**
+     * @param level - Deflate level
+     * @return - Raw deflater without zlib framing, owned by the caller until it is released
+     */
+    public Deflater acquire(int level) {
+        Deflater deflater = this.idle.poll();
+        if (deflater == null) {
+            this.allocated.increment();
+            deflater = new Deflater(level, true);
+        } else {
+            deflater.setLevel(level);
+        }
+        return deflater;
+    }
+
+    /**
+     * @param deflater - Deflater taken from {@link #acquire(int)}, must not be used afterwards
+     */
+    public void release(Deflater deflater) {
+        if (deflater == null) {
+            return;
+        }
+        deflater.reset();
+        if (!this.idle.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return - Deflaters allocated since startup, stays flat once the pool is warm
+     */
+    public long getAllocated() {
+        return this.allocated.sum();
+    }
+}
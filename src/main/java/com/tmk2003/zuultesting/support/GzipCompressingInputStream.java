@@ -0,0 +1,140 @@
+package com.tmk2003.zuultesting.support;
+
+import com.tmk2003.zuultesting.metrics.RouteMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip encodes a body while it is read, so whichever filter relays the response streams the compressed
+ * bytes without holding the body. Input is read through a pooled buffer into a pooled raw deflater, the
+ * gzip header and trailer are written around the deflate output. Both are returned to their pools and the
+ * compression is recorded against the route when the stream is closed.
+ */
+public class GzipCompressingInputStream extends InputStream {
+
+    /* Final Variables */
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };   // Magic, deflate, no flags or mtime, unknown OS
+    private static final int TRAILER_LENGTH = 8;                                // CRC32 and input size
+
+    private final InputStream source;                                           // Uncompressed body
+    private final DeflaterPool deflaterPool;                                    // Owner of the deflater
+    private final BufferPool bufferPool;                                        // Owner of the input buffer
+    private final RouteMetrics metrics;                                         // Null when not measured
+    private final CRC32 crc = new CRC32();                                      // Checksum of the input
+    private final byte[] single = new byte[1];                                  // Buffer of read()
+
+    /* Variables */
+    private Deflater deflater;                                                  // Null once closed
+    private byte[] input;                                                       // Null once closed
+    private byte[] trailer;                                                     // Built once the deflater finished
+    private int headerWritten;                                                  // Header bytes read so far
+    private int trailerWritten;                                                 // Trailer bytes read so far
+    private boolean finishing;                                                  // Source exhausted
+
+    /* Counters */
+    private long bytesIn;
+    private long bytesOut;
+    private long deflateNanos;
+
+    public GzipCompressingInputStream(InputStream source, int level, DeflaterPool deflaterPool, BufferPool bufferPool,
+                                      RouteMetrics metrics) {
+        this.source = source;
+        this.deflaterPool = deflaterPool;
+        this.bufferPool = bufferPool;
+        this.metrics = metrics;
+        this.deflater = deflaterPool.acquire(level);
+        this.input = bufferPool.acquire();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = read(this.single, 0, 1);
+        return read == -1 ? -1 : this.single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (this.deflater == null) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (this.headerWritten < HEADER.length) {
+            int length = Math.min(len, HEADER.length - this.headerWritten);
+            System.arraycopy(HEADER, this.headerWritten, b, off, length);
+            this.headerWritten += length;
+            this.bytesOut += length;
+            return length;
+        }
+        while (!this.deflater.finished()) {
+            if (this.deflater.needsInput() && !this.finishing) {
+                int read = this.source.read(this.input);
+                if (read == -1) {
+                    this.finishing = true;
+                    this.deflater.finish();
+                } else if (read > 0) {
+                    this.crc.update(this.input, 0, read);
+                    this.bytesIn += read;
+                    this.deflater.setInput(this.input, 0, read);
+                }
+                continue;
+            }
+            long started = System.nanoTime();
+            int deflated = this.deflater.deflate(b, off, len);
+            this.deflateNanos += System.nanoTime() - started;
+            if (deflated > 0) {
+                this.bytesOut += deflated;
+                return deflated;
+            }
+        }
+        return readTrailer(b, off, len);
+    }
+
+    private int readTrailer(byte[] b, int off, int len) {
+        if (this.trailer == null) {
+            this.trailer = new byte[TRAILER_LENGTH];
+            writeInt(this.trailer, 0, this.crc.getValue());
+            writeInt(this.trailer, 4, this.bytesIn);
+        }
+        if (this.trailerWritten == TRAILER_LENGTH) {
+            return -1;
+        }
+        int length = Math.min(len, TRAILER_LENGTH - this.trailerWritten);
+        System.arraycopy(this.trailer, this.trailerWritten, b, off, length);
+        this.trailerWritten += length;
+        this.bytesOut += length;
+        return length;
+    }
+
+    /**
+     * Little endian, as gzip wants it
+     */
+    private static void writeInt(byte[] target, int offset, long value) {
+        for (int i = 0; i < 4; i++) {
+            target[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.deflater == null) {
+            return;
+        }
+        try {
+            this.source.close();
+        } finally {
+            this.deflaterPool.release(this.deflater);
+            this.bufferPool.release(this.input);
+            this.deflater = null;
+            this.input = null;
+            if (this.metrics != null) {
+                this.metrics.compressionCompleted(this.bytesIn, this.bytesOut, this.deflateNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.tmk2003.zuultesting.support;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers request bodies that must be read before routing, within a global bound on heap.
+ *
+ * A body is kept in memory up to the route's threshold, as long as the bytes buffered over all requests
+ * stay within gateway.request-bodies.max-memory. Past either limit it spills to a temp file, so
+ * concurrent large uploads cost disk instead of heap.
+ */
+@Component
+public class RequestBodySpool {
+
+    /* Final Variables */
+    private static final int INITIAL_CAPACITY       = 8192;                     // Buffer for bodies of unknown length
+    private static final int MAX_ARRAY              = Integer.MAX_VALUE - 8;    // Largest array the VM allocates
+    private static final String PREFIX              = "gateway-body-";
+
+    /* Variables */
+    private final BufferPool bufferPool;                                        // Copy buffers of spilled bodies
+    private final long maxMemory;                                               // Heap bytes over all buffered bodies
+    private final Path directory;                                               // Spilled bodies, null for the default
+    private final AtomicLong memoryInUse = new AtomicLong();                    // Heap bytes held by buffered bodies
+
+    /* Counters */
+    private final LongAdder spooled     = new LongAdder();
+    private final LongAdder spilled     = new LongAdder();
+
+    public RequestBodySpool(GatewayProperties properties, BufferPool bufferPool) {
+        GatewayProperties.RequestBodies settings = properties.getRequestBodies();
+        this.bufferPool = bufferPool;
+        this.maxMemory = settings.getMaxMemory().toBytes();
+        this.directory = settings.getSpoolDirectory() == null ? null : Paths.get(settings.getSpoolDirectory());
+    }
+
+    /**
+     * Read a body until its end
+     * @param in - Body, not closed
+     * @param contentLength - Declared length, -1 when unknown
+     * @param memoryThreshold - Larger bodies go to disk
+     * @return - Buffered body, to be closed once no longer needed
+     * @throws IOException - When reading the body or writing the spill file fails
+     */
+    public SpooledBody spool(InputStream in, long contentLength, long memoryThreshold) throws IOException {
+        this.spooled.increment();
+        long limit = Math.min(memoryThreshold, MAX_ARRAY);
+        if (contentLength > limit) {
+            return spill(in, null, 0, 0);
+        }
+        int capacity = (int) (contentLength >= 0 ? contentLength : Math.min(limit, INITIAL_CAPACITY));
+        if (!reserve(capacity)) {
+            return spill(in, null, 0, 0);
+        }
+
+        byte[] memory = new byte[capacity];
+        int length = 0;
+        long held = capacity;                                                   // Reserved, until handed to spill
+        try {
+            while (true) {
+                if (length == memory.length) {
+                    int next = -1;                                              // Byte read probing for the end
+                    if (memory.length >= limit || length == contentLength) {
+                        // Full at the threshold or the declared length, most bodies end here
+                        next = in.read();
+                        if (next == -1) {
+                            break;
+                        }
+                    }
+                    InputStream rest = next == -1 ? in : unread(next, in);
+                    if (memory.length >= limit) {
+                        held = 0;
+                        return spill(rest, memory, length, memory.length);
+                    }
+                    int grown = (int) Math.min(limit, Math.max(INITIAL_CAPACITY, (long) memory.length * 2));
+                    if (!reserve(grown - memory.length)) {
+                        held = 0;
+                        return spill(rest, memory, length, memory.length);
+                    }
+                    held = grown;
+                    memory = Arrays.copyOf(memory, grown);
+                    if (next != -1) {
+                        memory[length++] = (byte) next;
+                    }
+                }
+                int read = in.read(memory, length, memory.length - length);
+                if (read == -1) {
+                    break;
+                }
+                length += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            release(held);
+            throw e;
+        }
+        return new SpooledBody(this, memory, length);
+    }
+
+    /**
+     * Write a body to a temp file, after the part already read into memory
+     * @param reserved - Heap bytes of the prefix, released once written
+     */
+    private SpooledBody spill(InputStream in, byte[] prefix, int prefixLength, long reserved) throws IOException {
+        this.spilled.increment();
+        byte[] buffer = this.bufferPool.acquire();
+        Path file = null;
+        try {
+            file = this.directory == null
+                    ? Files.createTempFile(PREFIX, ".tmp")
+                    : Files.createTempFile(this.directory, PREFIX, ".tmp");
+            long size = prefixLength;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                if (prefixLength > 0) {
+                    out.write(prefix, 0, prefixLength);
+                }
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            return new SpooledBody(this, file, size);
+        } catch (IOException | RuntimeException e) {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+            throw e;
+        } finally {
+            release(reserved);
+            this.bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * @return - The body with a byte read ahead put back in front
+     */
+    private static InputStream unread(int next, InputStream in) {
+        return new SequenceInputStream(new ByteArrayInputStream(new byte[] { (byte) next }), in);
+    }
+
+    private boolean reserve(long bytes) {
+        long current;
+        do {
+            current = this.memoryInUse.get();
+            if (current + bytes > this.maxMemory) {
+                return false;
+            }
+        } while (!this.memoryInUse.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    void release(long bytes) {
+        if (bytes > 0) {
+            this.memoryInUse.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * @return - Heap bytes held by buffered bodies, never above gateway.request-bodies.max-memory
+     */
+    public long getMemoryInUse() {
+        return this.memoryInUse.get();
+    }
+
+    /**
+     * @return - Bodies buffered since startup
+     */
+    public long getSpooled() {
+        return this.spooled.sum();
+    }
+
+    /**
+     * @return - Bodies written to disk since startup
+     */
+    public long getSpilled() {
+        return this.spilled.sum();
+    }
+}
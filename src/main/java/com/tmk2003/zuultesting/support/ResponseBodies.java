@@ -0,0 +1,75 @@
+package com.tmk2003.zuultesting.support;
+
+import com.netflix.zuul.context.RequestContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffers upstream response bodies for filters that need the whole body.
+ *
+ * The body is read at most once per request: the bytes are remembered in the request context and
+ * the data stream is replaced so {@code SendResponseFilter} still writes the full body.
+ */
+public final class ResponseBodies {
+
+    /* Final Variables */
+    private static final String BUFFERED_BODY_KEY   = "gatewayBufferedBody";   // Context key of the buffered bytes
+    private static final byte[] EMPTY               = new byte[0];
+
+    private ResponseBodies() {
+    }
+
+    /**
+     * Buffer the response body if it is no larger than the limit
+     * @param ctx - Current request context
+     * @param limit - Largest body to buffer, in bytes
+     * @return - Body bytes or null when the body is larger than the limit
+     * @throws IOException - When reading the upstream body fails
+     */
+    public static byte[] buffer(RequestContext ctx, long limit) throws IOException {
+        Object buffered = ctx.get(BUFFERED_BODY_KEY);
+        if (buffered instanceof byte[]) {
+            byte[] bytes = (byte[]) buffered;
+            return bytes.length <= limit ? bytes : null;
+        }
+        if (ctx.getResponseBody() != null) {
+            byte[] bytes = ctx.getResponseBody().getBytes(StandardCharsets.UTF_8);
+            return bytes.length <= limit ? bytes : null;
+        }
+
+        InputStream body = ctx.getResponseDataStream();
+        if (body == null) {
+            return EMPTY;
+        }
+        Long length = ctx.getOriginContentLength();
+        if (length != null && length > limit) {
+            return null;
+        }
+
+        // Read one byte past the limit, the length may be unknown or wrong
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length != null ? (int) Math.min(length, 1 << 20) : 4096);
+        byte[] chunk = new byte[4096];
+        long remaining = limit + 1;
+        int read;
+        while (remaining > 0 && (read = body.read(chunk, 0, (int) Math.min(chunk.length, remaining))) != -1) {
+            out.write(chunk, 0, read);
+            remaining -= read;
+        }
+
+        byte[] bytes = out.toByteArray();
+        if (bytes.length > limit) {
+            // Too large, hand the read prefix back in front of the rest of the stream
+            ctx.setResponseDataStream(new SequenceInputStream(new ByteArrayInputStream(bytes), body));
+            return null;
+        }
+        body.close();
+        ctx.set(BUFFERED_BODY_KEY, bytes);
+        ctx.setResponseDataStream(new ByteArrayInputStream(bytes));
+        return bytes;
+    }
+}
@@ -0,0 +1,125 @@
+package com.tmk2003.zuultesting.support;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of a routed response that can be replayed into other request contexts. Replays carry
+ * an Age header counting the time since the copy was taken, on top of any Age the upstream sent, so
+ * clients do not keep a replayed max-age fresh for longer than the origin allowed.
+ */
+public final class ResponseSnapshot {
+
+    private final int status;                                                   // Response status code
+    private final List<Pair<String, String>> headers;                           // Zuul response headers
+    private final byte[] body;                                                  // Body as received from upstream
+    private final boolean gzipped;                                              // Body is gzip encoded
+    private final long capturedAt;                                              // Copy time, in epoch millis
+    private final long upstreamAge;                                             // Age sent by the upstream, in seconds
+
+    private ResponseSnapshot(int status, List<Pair<String, String>> headers, byte[] body, boolean gzipped,
+                             long capturedAt, long upstreamAge) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.gzipped = gzipped;
+        this.capturedAt = capturedAt;
+        this.upstreamAge = upstreamAge;
+    }
+
+    /**
+     * Copy the routed response of the context
+     * @param ctx - Request context holding the upstream response
+     * @param body - Buffered response body
+     * @return - Snapshot of the response
+     */
+    public static ResponseSnapshot capture(RequestContext ctx, byte[] body) {
+        return capture(ctx, body, System.currentTimeMillis());
+    }
+
+    /**
+     * Copy the routed response of the context
+     * @param ctx - Request context holding the upstream response
+     * @param body - Buffered response body
+     * @param now - Current time in epoch millis
+     * @return - Snapshot of the response
+     */
+    public static ResponseSnapshot capture(RequestContext ctx, byte[] body, long now) {
+        List<Pair<String, String>> headers = new ArrayList<>();
+        long upstreamAge = 0;
+        for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+            if (HttpHeaders.AGE.equalsIgnoreCase(header.first())) {
+                upstreamAge = seconds(header.second());                         // Replaced by the replay's own
+            } else {
+                headers.add(new Pair<>(header.first(), header.second()));
+            }
+        }
+        return new ResponseSnapshot(ctx.getResponseStatusCode(), Collections.unmodifiableList(headers), body,
+                ctx.getResponseGZipped(), now, upstreamAge);
+    }
+
+    /**
+     * Replay the response into a context, SendResponseFilter writes it to the client
+     * @param ctx - Request context to answer
+     */
+    public void applyTo(RequestContext ctx) {
+        applyTo(ctx, System.currentTimeMillis());
+    }
+
+    /**
+     * Replay the response into a context, SendResponseFilter writes it to the client
+     * @param ctx - Request context to answer
+     * @param now - Current time in epoch millis
+     */
+    public void applyTo(RequestContext ctx, long now) {
+        ctx.setResponseStatusCode(this.status);
+        for (Pair<String, String> header : this.headers) {
+            ctx.addZuulResponseHeader(header.first(), header.second());
+        }
+        ctx.addZuulResponseHeader(HttpHeaders.AGE, Long.toString(getAge(now)));
+        ctx.setResponseGZipped(this.gzipped);
+        ctx.setOriginContentLength((long) this.body.length);
+        ctx.setResponseDataStream(new ByteArrayInputStream(this.body));
+    }
+
+    /**
+     * @return - Approximate number of bytes held by the snapshot
+     */
+    public long size() {
+        long size = this.body.length;
+        for (Pair<String, String> header : this.headers) {
+            size += header.first().length() + (header.second() == null ? 0 : header.second().length());
+        }
+        return size;
+    }
+
+    /**
+     * @param now - Current time in epoch millis
+     * @return - Seconds since the origin produced the response, as sent in the Age header
+     */
+    public long getAge(long now) {
+        return this.upstreamAge + Math.max(0L, now - this.capturedAt) / 1000L;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public List<Pair<String, String>> getHeaders() {
+        return headers;
+    }
+
+    private static long seconds(String value) {
+        try {
+            return value == null ? 0L : Math.max(0L, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.tmk2003.zuultesting.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A request body buffered by {@link RequestBodySpool}, in memory or in a temp file. It can be read any
+ * number of times, closing it returns the memory to the spool or deletes the file.
+ */
+public final class SpooledBody implements Closeable {
+
+    /* Final Variables */
+    private final RequestBodySpool spool;                                       // Owner of the memory
+    private final byte[] memory;                                                // In memory body, null once spilled
+    private final Path file;                                                    // Spilled body, null in memory
+    private final long size;                                                    // Body bytes
+
+    /* Variables */
+    private boolean closed;
+
+    SpooledBody(RequestBodySpool spool, byte[] memory, int length) {
+        this.spool = spool;
+        this.memory = memory;
+        this.file = null;
+        this.size = length;
+    }
+
+    SpooledBody(RequestBodySpool spool, Path file, long size) {
+        this.spool = spool;
+        this.memory = null;
+        this.file = file;
+        this.size = size;
+    }
+
+    /**
+     * @return - A new stream over the whole body
+     * @throws IOException - When the spill file can not be opened
+     */
+    public InputStream openStream() throws IOException {
+        return this.memory != null
+                ? new ByteArrayInputStream(this.memory, 0, (int) this.size)
+                : Files.newInputStream(this.file);
+    }
+
+    /**
+     * @return - true if the body was written to disk
+     */
+    public boolean isSpilled() {
+        return this.file != null;
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if (this.memory != null) {
+            this.spool.release(this.memory.length);
+        } else {
+            Files.deleteIfExists(this.file);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.tmk2003.zuultesting.warmup;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.context.ApplicationContext;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Warms the gateway up between the server starting and the application reporting ready, so the first
+ * real requests neither open upstream connections nor run interpreted code.
+ *
+ * Every route is requested gateway.warmup.connections-per-route times at once, each concurrent request
+ * leasing its own pooled upstream connection that stays open for reuse. Then gateway.warmup.requests
+ * synthetic requests per route run through the whole filter chain to get it compiled. The time of each
+ * phase is logged and exposed on /gateway/ready, which answers 503 until the warm-up is over.
+ *
+ * Synthetic requests carry a per process token in {@link #WARMUP_HEADER}. The metrics, rate limit,
+ * cache, bulkhead, balancer and access log filters leave them out, and {@code WarmupPreFilter} keeps
+ * the header from being forwarded.
+ */
+public class GatewayWarmup implements ApplicationRunner {
+
+    /* Final Variables */
+    public static final String WARMUP_HEADER        = "X-Gateway-Warmup";      // Marks synthetic requests
+    private static final String TOKEN               = UUID.randomUUID().toString(); // Header value, unknown to clients
+    private static final Logger LOG                 = LoggerFactory.getLogger(GatewayWarmup.class);
+    private static final int MAX_THREADS            = 64;                       // Synthetic clients over all routes
+
+    /* Variables */
+    private final GatewayProperties.Warmup settings;                            // gateway.warmup.*
+    private final RouteLocator routeLocator;                                    // Routes to warm up
+    private final ApplicationContext context;                                   // Provides the server port
+    private volatile Map<String, Long> phases = Collections.emptyMap();         // Phase -> millis, complete once ready
+    private volatile boolean ready;                                             // Warm-up over
+
+    /* Counters */
+    private final LongAdder requests    = new LongAdder();
+    private final LongAdder failures    = new LongAdder();
+
+    public GatewayWarmup(GatewayProperties properties, RouteLocator routeLocator, ApplicationContext context) {
+        this.settings = properties.getWarmup();
+        this.routeLocator = routeLocator;
+        this.context = context;
+    }
+
+    /**
+     * @param request - Client request, may be null
+     * @return - true for a synthetic request of the warm-up, which must not count as traffic
+     */
+    public static boolean isWarmupRequest(HttpServletRequest request) {
+        return request != null && TOKEN.equals(request.getHeader(WARMUP_HEADER));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        long deadline = started + this.settings.getTimeout().toNanos();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        if (!(this.context instanceof WebServerApplicationContext)) {
+            this.ready = true;                                                  // Nothing serves requests
+            return;
+        }
+
+        String base = "http://localhost:" + ((WebServerApplicationContext) this.context).getWebServer().getPort();
+        List<String> urls = new ArrayList<>();
+        for (Route route : this.routeLocator.getRoutes()) {
+            urls.add(base + prefix(route.getFullPath()) + this.settings.getPath());
+        }
+        long phase = record(timings, "routes", started);
+
+        int perRoute = Math.max(1, this.settings.getConnectionsPerRoute());
+        ExecutorService clients = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_THREADS, urls.size() * perRoute)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "gateway-warmup");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            List<Callable<Void>> opening = new ArrayList<>();
+            for (String url : urls) {
+                for (int i = 0; i < perRoute; i++) {
+                    opening.add(() -> {
+                        send(url);
+                        return null;
+                    });
+                }
+            }
+            clients.invokeAll(opening, remaining(deadline), TimeUnit.NANOSECONDS);
+            phase = record(timings, "connections", phase);
+
+            List<Callable<Void>> synthetic = new ArrayList<>();
+            for (String url : urls) {
+                for (int i = 0; i < perRoute; i++) {
+                    int share = this.settings.getRequests() / perRoute + (i < this.settings.getRequests() % perRoute ? 1 : 0);
+                    synthetic.add(() -> {
+                        for (int sent = 0; sent < share && System.nanoTime() < deadline; sent++) {
+                            send(url);
+                        }
+                        return null;
+                    });
+                }
+            }
+            clients.invokeAll(synthetic, remaining(deadline), TimeUnit.NANOSECONDS);
+            record(timings, "requests", phase);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.shutdownNow();
+        }
+
+        timings.put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        this.phases = Collections.unmodifiableMap(timings);
+        this.ready = true;
+        LOG.info("Warmed up {} routes in {}ms {}, {} synthetic requests, {} failed", urls.size(), timings.get("total"),
+                timings, this.requests.sum(), this.failures.sum());
+    }
+
+    /**
+     * Send one synthetic GET, reading the response to the end so the connection is kept alive
+     */
+    private void send(String url) {
+        this.requests.increment();
+        int timeout = (int) Math.min(Integer.MAX_VALUE, this.settings.getTimeout().toMillis());
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(timeout);
+            connection.setReadTimeout(timeout);
+            connection.setRequestProperty(WARMUP_HEADER, TOKEN);
+            int status = connection.getResponseCode();
+            if (status >= 500) {
+                this.failures.increment();
+            }
+            try (InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                if (body != null) {
+                    byte[] discard = new byte[4096];
+                    while (body.read(discard) != -1) {
+                        // Drained
+                    }
+                }
+            }
+        } catch (IOException e) {
+            this.failures.increment();
+        }
+    }
+
+    /**
+     * @param fullPath - Route pattern, such as /user/**
+     * @return - Its literal part without the trailing slash, such as /user
+     */
+    private static String prefix(String fullPath) {
+        int wildcard = fullPath.indexOf('*');
+        String prefix = wildcard < 0 ? fullPath : fullPath.substring(0, wildcard);
+        return prefix.endsWith("/") ? prefix.substring(0, prefix.length() - 1) : prefix;
+    }
+
+    private static long record(Map<String, Long> timings, String phase, long phaseStarted) {
+        long now = System.nanoTime();
+        timings.put(phase, TimeUnit.NANOSECONDS.toMillis(now - phaseStarted));
+        return now;
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    /**
+     * @return - true once the warm-up is over, whether or not every request succeeded
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return - Phase -> duration in millis, empty until ready
+     */
+    public Map<String, Long> getPhases() {
+        return phases;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+}
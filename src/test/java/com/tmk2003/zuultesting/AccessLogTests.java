@@ -0,0 +1,103 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.tmk2003.zuultesting.accesslog.AccessLogWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.access-log.enabled=true",
+        "gateway.access-log.file=target/access-log-tests/access.log",
+        "gateway.access-log.flush-interval=10ms"
+})
+public class AccessLogTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockAdminService    = new WireMockRule(8082);           // Mocked Admin Service
+    @Autowired private AccessLogWriter accessLog;                                           // Gateway access log
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final String TEST_BODY                      = "Tester";                         // Test response from mock services
+    private final Path LOG_FILE                         = Paths.get("target/access-log-tests/access.log"); // gateway.access-log.file
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure each proxied request is written as one line with its route, status, timings and sizes
+     */
+    @Test
+    public void whenRequestIsProxiedWriteAccessLogLine() throws Exception {
+        mockAdminService.stubFor(get(urlEqualTo("/logged"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(20)
+                        .withBody(TEST_BODY)));
+        mockAdminService.stubFor(get(urlEqualTo("/missing"))
+                .willReturn(aResponse()
+                        .withStatus(404)));
+
+        ResponseEntity<String> response = TEMPLATE.getForEntity(routeBuilder("/admin/logged"), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());                              // It was successful
+        TEMPLATE.getForEntity(routeBuilder("/admin/missing"), String.class);
+
+        String[] logged = awaitLine("/admin/logged");
+        String[] missing = awaitLine("/admin/missing");
+        assertEquals("admin", logged[1]);                                                   // Route
+        assertEquals("GET", logged[2]);                                                     // Method
+        assertEquals("200", logged[4]);                                                     // Status
+        assertTrue(Long.parseLong(logged[5]) >= 20000);                                     // Upstream micros, past the delay
+        assertTrue(Long.parseLong(logged[6]) >= Long.parseLong(logged[5]));                 // Total includes upstream
+        assertEquals(String.valueOf(TEST_BODY.length()), logged[8]);                        // Response bytes
+        assertEquals("404", missing[4]);                                                    // Failures logged too
+        assertEquals(0, accessLog.getDropped());                                            // Nothing dropped
+    }
+
+    /**
+     * Helper waiting for the writer thread to append the line of a request
+     * @return - Fields of the newest line for the URI
+     */
+    private String[] awaitLine(String uri) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (Files.exists(LOG_FILE)) {
+                List<String[]> lines = Files.readAllLines(LOG_FILE, StandardCharsets.US_ASCII).stream()
+                        .map(line -> line.split(" "))
+                        .filter(fields -> fields.length == 9 && uri.equals(fields[3]))
+                        .collect(Collectors.toList());
+                if (!lines.isEmpty()) {
+                    return lines.get(lines.size() - 1);
+                }
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No access log line for " + uri);
+    }
+}
@@ -0,0 +1,108 @@
+package com.tmk2003.zuultesting;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.async.AsyncExchange;
+import org.junit.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.POST_TYPE;
+
+/**
+ * {@link RouteTests} with the routes proxied in async mode
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.async.enabled=true",
+        "gateway.async.buffer-size=8KB"
+})
+public class AsyncRouteTests extends RouteTests {
+
+    /* Final Variables */
+    private static final List<String> POST_THREADS      = new CopyOnWriteArrayList<>();     // Threads running post filters of async requests
+    private static final int LARGE_BODY_SIZE            = 2 * 1024 * 1024;                  // Above buffer-size and the streaming threshold
+
+    /**
+     * Ensure the post filters of suspended requests run on container threads, not on the client I/O threads
+     */
+    @Test
+    public void whenUpstreamAnswersRunPostFiltersOffClientThreads() {
+        mockModService.stubFor(get(urlEqualTo("/threads"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withBody("Tester")));
+        POST_THREADS.clear();
+
+        ResponseEntity<String> response = new TestRestTemplate()
+                .getForEntity("http://localhost:" + port + "/mod/threads", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        assertFalse(POST_THREADS.isEmpty());                                           // The request was suspended
+        for (String thread : POST_THREADS) {
+            assertFalse(thread, thread.startsWith("I/O dispatcher"));                  // Never on the reactor
+        }
+    }
+
+    /**
+     * Ensure bodies far larger than gateway.async.buffer-size stream through whole in async mode
+     */
+    @Test
+    public void whenUpstreamBodyIsAboveBufferSizeStreamItWhole() {
+        byte[] body = new byte[LARGE_BODY_SIZE];
+        new Random(LARGE_BODY_SIZE).nextBytes(body);
+        mockAdminService.stubFor(get(urlEqualTo("/large"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/octet-stream")
+                        .withBody(body)));
+
+        ResponseEntity<byte[]> response = new TestRestTemplate()
+                .getForEntity("http://localhost:" + port + "/admin/large", byte[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        assertArrayEquals(body, response.getBody());                                   // Every byte arrived in order
+    }
+
+    @TestConfiguration
+    static class PostThreadConfiguration {
+
+        /**
+         * @return - Post filter noting the thread of every suspended request
+         */
+        @Bean
+        public ZuulFilter postThreadRecorder() {
+            return new ZuulFilter() {
+                @Override
+                public String filterType() {
+                    return POST_TYPE;
+                }
+
+                @Override
+                public int filterOrder() {
+                    return 0;
+                }
+
+                @Override
+                public boolean shouldFilter() {
+                    return RequestContext.getCurrentContext().containsKey(AsyncExchange.EXCHANGE_KEY);
+                }
+
+                @Override
+                public Object run() {
+                    POST_THREADS.add(Thread.currentThread().getName());
+                    return null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.tmk2003.zuultesting.limit.BulkheadRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class BulkheadTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockUserService     = new WireMockRule(8081);     // Mocked User Service
+    @Rule public final WireMockRule mockModService      = new WireMockRule(8083);     // Mocked Mod Service
+    @Autowired private BulkheadRegistry bulkheads;                                          // Gateway per route limits
+    @Autowired private ServerProperties serverProperties;                                   // Shipped worker thread count
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final String TEST_BODY                      = "Tester";                         // Test response from mock services
+    private final int FLOOD_MARGIN                      = 40;                               // Clients hammering Mod beyond the worker threads
+    private final int SLOW_DELAY                        = 1500;                             // Degraded Mod latency, in millis
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure a slow, flooded Mod service neither holds the worker threads of /User nor queues its own excess,
+     * with the shipped bulkhead and thread pool settings
+     */
+    @Test
+    public void whenModIsSlowKeepUserLatency() throws Exception {
+        int flooders = serverProperties.getTomcat().getMaxThreads() + FLOOD_MARGIN;
+        mockUserService.stubFor(get(urlEqualTo("/fast")).willReturn(aResponse().withStatus(200).withBody(TEST_BODY)));
+        mockModService.stubFor(get(urlEqualTo("/slow")).willReturn(aResponse().withStatus(200).withBody(TEST_BODY)));
+        for (int i = 0; i < 20; i++) {
+            TEMPLATE.getForEntity(routeBuilder("/mod/slow"), String.class);               // Healthy Mod latency
+        }
+
+        mockModService.stubFor(get(urlEqualTo("/slow"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(SLOW_DELAY).withBody(TEST_BODY)));
+        int healthyLimit = bulkheads.getBulkhead("mod").getLimit();
+        assertTrue(healthyLimit < serverProperties.getTomcat().getMaxThreads() / 2);   // A share of the threads
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder shed = new LongAdder();
+        ExecutorService flooding = Executors.newFixedThreadPool(flooders);
+        long floodStarted = System.currentTimeMillis();
+        for (int i = 0; i < flooders; i++) {
+            flooding.submit(() -> {
+                TestRestTemplate template = new TestRestTemplate();
+                while (running.get()) {
+                    ResponseEntity<String> response = template.getForEntity(routeBuilder("/mod/slow"), String.class);
+                    if (response.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE) {
+                        shed.increment();
+                        Thread.sleep(100);
+                    }
+                }
+                return null;
+            });
+        }
+
+        long slowestUser;
+        try {
+            Thread.sleep(500);
+            slowestUser = 0;
+            for (int i = 0; i < 20; i++) {
+                long started = System.nanoTime();
+                ResponseEntity<String> response = TEMPLATE.getForEntity(routeBuilder("/user/fast"), String.class);
+                slowestUser = Math.max(slowestUser, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                assertEquals(HttpStatus.OK, response.getStatusCode());                 // It was successful
+            }
+            Thread.sleep(Math.max(0, floodStarted + 3L * SLOW_DELAY - System.currentTimeMillis()));
+        } finally {
+            running.set(false);
+            flooding.shutdown();
+            flooding.awaitTermination(30, TimeUnit.SECONDS);
+        }
+
+        assertTrue("Slowest user request took " + slowestUser + "ms", slowestUser < SLOW_DELAY / 3); // User unaffected
+        assertTrue(shed.sum() > 0);                                                     // Mod excess shed with 503
+        assertTrue(bulkheads.getBulkhead("mod").getLimit() < healthyLimit);            // Limit followed the latency
+    }
+}
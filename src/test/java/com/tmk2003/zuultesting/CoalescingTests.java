@@ -0,0 +1,180 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.tmk2003.zuultesting.cache.RequestCoalescer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CoalescingTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockUserService     = new WireMockRule(8081);     // Mocked User Service
+    @Rule public final WireMockRule mockModService      = new WireMockRule(8083);     // Mocked Mod Service
+    @Autowired private RequestCoalescer coalescer;                                          // Gateway single-flight registry
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final String TEST_BODY                      = "Tester";                         // Test response from mock services
+    private final int CALLERS                           = 16;                               // Parallel identical requests
+    private final int UPSTREAM_DELAY                    = 1000;                             // Slow upstream, in millis
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure parallel identical GETs to /User reach the User service exactly once
+     */
+    @Test
+    public void whenPathingToUserInParallelCoalesceIntoOneUpstreamRequest() throws Exception {
+        // When the mock user service get hit at its /coalesced endpoint, lets answer slowly
+        mockUserService.stubFor(get(urlEqualTo("/coalesced"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withStatus(200)
+                        .withFixedDelay(UPSTREAM_DELAY)
+                        .withBody(TEST_BODY)));
+
+        long coalescedBefore = coalescer.getCoalesced();
+        List<ResponseEntity<String>> responses = callInParallel(routeBuilder("/user/coalesced"), new HttpHeaders());
+
+        for (ResponseEntity<String> response : responses) {
+            assertEquals(TEST_BODY, response.getBody());                               // Everyone gets the body
+            assertEquals(HttpStatus.OK, response.getStatusCode());                     // Everyone was successful
+        }
+        assertEquals(CALLERS - 1, coalescer.getCoalesced() - coalescedBefore);         // All but the leader waited
+        mockUserService.verify(1, getRequestedFor(urlPathEqualTo("/coalesced"))); // Ensure it was hit once
+    }
+
+    /**
+     * Ensure requests differing in their query are not coalesced
+     */
+    @Test
+    public void whenPathingToUserWithDifferentParamsRouteEachUpstream() throws Exception {
+        mockUserService.stubFor(get(urlPathEqualTo("/distinct"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withStatus(200)
+                        .withBody(TEST_BODY)));
+
+        TestRestTemplate template = new TestRestTemplate();
+        template.getForEntity(routeBuilder("/user/distinct?page=1"), String.class);
+        template.getForEntity(routeBuilder("/user/distinct?page=2"), String.class);
+
+        mockUserService.verify(2, getRequestedFor(urlPathEqualTo("/distinct"))); // Ensure it was hit twice
+    }
+
+    /**
+     * Ensure routes without coalescing send every request upstream
+     */
+    @Test
+    public void whenPathingToModeratorInParallelRouteEachUpstream() throws Exception {
+        mockModService.stubFor(get(urlEqualTo("/coalesced"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withStatus(200)
+                        .withFixedDelay(UPSTREAM_DELAY)
+                        .withBody(TEST_BODY)));
+
+        callInParallel(routeBuilder("/mod/coalesced"), new HttpHeaders());
+
+        mockModService.verify(CALLERS, getRequestedFor(urlPathEqualTo("/coalesced"))); // Ensure every call went upstream
+    }
+
+    /**
+     * Ensure parallel GETs carrying credentials are each routed, the upstream may answer them differently
+     */
+    @Test
+    public void whenPathingToUserWithCredentialsRouteEachUpstream() throws Exception {
+        mockUserService.stubFor(get(urlEqualTo("/account"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withStatus(200)
+                        .withFixedDelay(UPSTREAM_DELAY)
+                        .withBody(TEST_BODY)));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer tester");
+        long coalescedBefore = coalescer.getCoalesced();
+        callInParallel(routeBuilder("/user/account"), headers);
+
+        assertEquals(0, coalescer.getCoalesced() - coalescedBefore);                   // Nobody waited on a leader
+        mockUserService.verify(CALLERS, getRequestedFor(urlPathEqualTo("/account"))); // Ensure every call went upstream
+    }
+
+    /**
+     * Ensure a leader response setting a cookie is not handed to the followers
+     */
+    @Test
+    public void whenUpstreamSetsCookieDoNotShareResponse() throws Exception {
+        mockUserService.stubFor(get(urlEqualTo("/session"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withHeader("Set-Cookie", "session=leader; Path=/; HttpOnly")
+                        .withStatus(200)
+                        .withFixedDelay(UPSTREAM_DELAY)
+                        .withBody(TEST_BODY)));
+
+        List<ResponseEntity<String>> responses = callInParallel(routeBuilder("/user/session"), new HttpHeaders());
+
+        for (ResponseEntity<String> response : responses) {
+            assertEquals(HttpStatus.OK, response.getStatusCode());                     // Everyone was successful
+        }
+        mockUserService.verify(CALLERS, getRequestedFor(urlPathEqualTo("/session"))); // Followers routed themselves
+    }
+
+    /**
+     * Helper firing CALLERS identical GETs at once, each caller has its own connection pool
+     */
+    private List<ResponseEntity<String>> callInParallel(String url, HttpHeaders headers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ResponseEntity<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return new TestRestTemplate().exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+                }));
+            }
+            start.countDown();
+
+            List<ResponseEntity<String>> responses = new ArrayList<>();
+            for (Future<ResponseEntity<String>> future : futures) {
+                responses.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.tmk2003.zuultesting.support.DeflaterPool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "zuul.routes.zipped.path=/zipped/**",
+        "zuul.routes.zipped.url=http://localhost:8081",
+        "gateway.routes.zipped.compression.enabled=true",
+        "gateway.routes.zipped.compression.min-size=1KB"
+})
+public class CompressionTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockUserService     = new WireMockRule(8081);     // Mocked User Service
+    @Autowired private DeflaterPool deflaterPool;                                           // Gateway gzip deflaters
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final String LARGE_BODY                     = json(2000);                       // Compressible body above the minimum size
+    private final String SMALL_BODY                     = "{\"id\":1}";                     // Body below the minimum size
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure compressible bodies are gzipped for clients accepting gzip and inflate to the upstream body
+     */
+    @Test
+    public void whenClientAcceptsGzipCompressJson() throws IOException {
+        stub("/json", "application/json;charset=UTF-8", LARGE_BODY);
+
+        HttpURLConnection connection = open("/zipped/json", "gzip");
+        assertEquals(200, connection.getResponseCode());                               // It was successful
+        assertEquals("gzip", connection.getHeaderField("Content-Encoding"));           // Sent compressed
+        assertEquals("Accept-Encoding", connection.getHeaderField("Vary"));            // Caches keep both variants
+        assertEquals(LARGE_BODY, read(new GZIPInputStream(connection.getInputStream())));
+    }
+
+    /**
+     * Ensure clients without gzip support get the body as is
+     */
+    @Test
+    public void whenClientDoesNotAcceptGzipSendIdentity() throws IOException {
+        stub("/identity", "application/json", LARGE_BODY);
+
+        HttpURLConnection connection = open("/zipped/identity", "identity");
+        assertEquals(200, connection.getResponseCode());                               // It was successful
+        assertNull(connection.getHeaderField("Content-Encoding"));                     // Sent as is
+        assertEquals(LARGE_BODY, read(connection.getInputStream()));
+    }
+
+    /**
+     * Ensure content types outside the configured mime types are not compressed
+     */
+    @Test
+    public void whenContentTypeIsNotCompressibleSendIdentity() throws IOException {
+        stub("/image", "image/png", LARGE_BODY);
+
+        HttpURLConnection connection = open("/zipped/image", "gzip");
+        assertEquals(200, connection.getResponseCode());                               // It was successful
+        assertNull(connection.getHeaderField("Content-Encoding"));                     // Sent as is
+        assertEquals(LARGE_BODY, read(connection.getInputStream()));
+    }
+
+    /**
+     * Ensure bodies below the minimum size are not compressed
+     */
+    @Test
+    public void whenBodyIsSmallSendIdentity() throws IOException {
+        stub("/small", "application/json", SMALL_BODY);
+
+        HttpURLConnection connection = open("/zipped/small", "gzip");
+        assertEquals(200, connection.getResponseCode());                               // It was successful
+        assertNull(connection.getHeaderField("Content-Encoding"));                     // Sent as is
+        assertEquals(SMALL_BODY, read(connection.getInputStream()));
+    }
+
+    /**
+     * Ensure bodies the upstream already encoded are relayed untouched
+     */
+    @Test
+    public void whenUpstreamAlreadyCompressedRelayAsIs() throws IOException {
+        mockUserService.stubFor(get(urlEqualTo("/encoded"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Content-Encoding", "br")
+                        .withBody(LARGE_BODY)));
+
+        HttpURLConnection connection = open("/zipped/encoded", "gzip, br");
+        assertEquals(200, connection.getResponseCode());                               // It was successful
+        assertEquals("br", connection.getHeaderField("Content-Encoding"));             // Upstream encoding kept
+        assertEquals(LARGE_BODY, read(connection.getInputStream()));
+    }
+
+    /**
+     * Ensure the route metrics report the bytes saved and the deflaters are reused
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void whenCompressingReportSavingsAndReuseDeflaters() throws Exception {
+        stub("/metered", "text/plain", LARGE_BODY);
+
+        for (int i = 0; i < 5; i++) {
+            HttpURLConnection connection = open("/zipped/metered", "gzip");
+            assertEquals(LARGE_BODY, read(new GZIPInputStream(connection.getInputStream())));
+        }
+        long allocated = deflaterPool.getAllocated();
+        for (int i = 0; i < 20; i++) {
+            HttpURLConnection connection = open("/zipped/metered", "gzip");
+            assertEquals(LARGE_BODY, read(new GZIPInputStream(connection.getInputStream())));
+        }
+        assertEquals(allocated, deflaterPool.getAllocated());                          // Sequential requests reuse one
+
+        Map<String, Object> compression = compressionMetrics();
+        for (int i = 0; i < 50 && ((Number) compression.get("responses")).longValue() < 25; i++) {
+            Thread.sleep(20);
+            compression = compressionMetrics();
+        }
+        assertTrue(((Number) compression.get("responses")).longValue() >= 25);         // Every response counted
+        assertTrue(((Number) compression.get("bytesSaved")).longValue() > 0);          // Smaller on the wire
+        assertTrue(((Number) compression.get("bytesIn")).longValue() >= 25L * LARGE_BODY.length());
+    }
+
+    /**
+     * Helper reading the compression counters of the zipped route from the metrics endpoint
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> compressionMetrics() {
+        ResponseEntity<Map> response = TEMPLATE.getForEntity(routeBuilder("/gateway/metrics"), Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        Map<String, Object> zipped = (Map<String, Object>) response.getBody().get("zipped");
+        assertNotNull(zipped);                                                         // Zipped route is measured
+        return (Map<String, Object>) zipped.get("compression");
+    }
+
+    private void stub(String path, String contentType, String body) {
+        mockUserService.stubFor(get(urlEqualTo(path))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", contentType)
+                        .withBody(body)));
+    }
+
+    /**
+     * Helper opening a connection that does not decode gzip on its own
+     */
+    private HttpURLConnection open(String path, String acceptEncoding) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(routeBuilder(path)).openConnection();
+        connection.setRequestProperty("Accept-Encoding", acceptEncoding);
+        return connection;
+    }
+
+    private String read(InputStream in) throws IOException {
+        try (InputStream body = in) {
+            return StreamUtils.copyToString(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String json(int entries) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < entries; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"user\"}");
+        }
+        return json.append(']').toString();
+    }
+}
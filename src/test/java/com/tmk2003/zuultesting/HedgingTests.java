@@ -0,0 +1,139 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.tmk2003.zuultesting.hedge.HedgeRegistry;
+import com.tmk2003.zuultesting.hedge.RouteHedger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "zuul.routes.plain.path=/plain/**",
+        "zuul.routes.plain.url=http://localhost:8081",
+        "zuul.routes.hedged.path=/hedged/**",
+        "zuul.routes.hedged.url=http://localhost:8081",
+        "gateway.routes.hedged.hedge.enabled=true",
+        "gateway.routes.hedged.hedge.delay=50ms",
+        "gateway.routes.hedged.hedge.budget=0.5"
+})
+public class HedgingTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockUserService     = new WireMockRule(options()
+            .port(8081)
+            .containerThreads(20));                                                         // Mocked User Service, room for abandoned attempts
+    @Autowired private HedgeRegistry hedges;                                                // Gateway per route hedging
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final String TEST_BODY                      = "Tester";                         // Test response from mock services
+    private final int SLOW_EVERY                        = 10;                               // Every Nth upstream call is slow
+    private final int SLOW_DELAY                        = 1000;                             // Latency of the slow calls, in millis
+    private final int REQUESTS                          = 40;                               // Requests per route
+    private final int LARGE_BODY_SIZE                   = 12 * 1024 * 1024;                 // Above the 10MB hedged bodies were once capped at
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure hedging cuts the tail of a service with an occasional slow call, within the hedge budget
+     */
+    @Test
+    public void whenUpstreamIsOccasionallySlowHedgingCutsTail() {
+        stubEveryNthSlow("/tail");
+
+        long plainMax = Collections.max(latencies("/plain/tail"));
+        mockUserService.resetRequests();
+        mockUserService.resetScenarios();
+        long hedgedMax = Collections.max(latencies("/hedged/tail"));
+        int upstreamCalls = mockUserService.findAll(getRequestedFor(urlPathEqualTo("/tail"))).size();
+
+        RouteHedger hedger = hedges.getHedger("hedged");
+        assertTrue("Slowest plain request took " + plainMax + "ms",
+                plainMax >= SLOW_DELAY);                                               // Slow calls reach the client
+        assertTrue("Slowest hedged request took " + hedgedMax + "ms",
+                hedgedMax < SLOW_DELAY / 2);                                           // Tail cut
+        assertTrue(hedger.getHedged() > 0);                                             // Hedges were sent
+        assertTrue(hedger.getHedged() <= REQUESTS / 2);                                 // Within the budget
+        assertTrue(upstreamCalls <= REQUESTS * 3 / 2);                                  // Upstream load bounded
+    }
+
+    /**
+     * Ensure the body of a hedged GET is streamed, not buffered up to a limit
+     */
+    @Test
+    public void whenHedgedBodyIsLargeStreamItWhole() {
+        byte[] body = new byte[LARGE_BODY_SIZE];
+        new Random(LARGE_BODY_SIZE).nextBytes(body);
+        mockUserService.stubFor(get(urlPathEqualTo("/large"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/octet-stream")
+                        .withBody(body)));
+
+        ResponseEntity<byte[]> response = new TestRestTemplate().getForEntity(routeBuilder("/hedged/large"), byte[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        assertArrayEquals(body, response.getBody());                                   // Every byte arrived in order
+    }
+
+    /**
+     * Helper cycling a stub through SLOW_EVERY states, the last of which answers after SLOW_DELAY
+     */
+    private void stubEveryNthSlow(String path) {
+        for (int i = 0; i < SLOW_EVERY; i++) {
+            String state = i == 0 ? Scenario.STARTED : "call-" + i;
+            String next = i == SLOW_EVERY - 1 ? Scenario.STARTED : "call-" + (i + 1);
+            mockUserService.stubFor(get(urlPathEqualTo(path))
+                    .inScenario(path)
+                    .whenScenarioStateIs(state)
+                    .willSetStateTo(next)
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withFixedDelay(i == SLOW_EVERY - 1 ? SLOW_DELAY : 0)
+                            .withBody(TEST_BODY)));
+        }
+    }
+
+    /**
+     * Helper sending GETs one after another
+     * @return - Latency of every request, in millis
+     */
+    private List<Long> latencies(String path) {
+        TestRestTemplate template = new TestRestTemplate();
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            long started = System.nanoTime();
+            ResponseEntity<String> response = template.getForEntity(routeBuilder(path), String.class);
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            assertEquals(HttpStatus.OK, response.getStatusCode());                     // It was successful
+            assertEquals(TEST_BODY, response.getBody());                               // It get the body
+        }
+        return latencies;
+    }
+}
@@ -0,0 +1,138 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "zuul.routes.even.path=/even/**",
+        "zuul.routes.even.url=http://localhost:8081",
+        "gateway.routes.even.balancer.enabled=true",
+        "gateway.routes.even.balancer.urls=http://localhost:8081,http://localhost:8084,http://localhost:8085",
+        "zuul.routes.uneven.path=/uneven/**",
+        "zuul.routes.uneven.url=http://localhost:8081",
+        "gateway.routes.uneven.balancer.enabled=true",
+        "gateway.routes.uneven.balancer.urls=http://localhost:8081,http://localhost:8084,http://localhost:8085"
+})
+public class LoadBalancingTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockInstance1       = new WireMockRule(8081);     // First upstream instance
+    @Rule public final WireMockRule mockInstance2       = new WireMockRule(8084);     // Second upstream instance
+    @Rule public final WireMockRule mockInstance3       = new WireMockRule(8085);     // Third upstream instance
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final String TEST_BODY                      = "Tester";                         // Test response from mock services
+    private final int CALLERS                           = 6;                                // Parallel clients
+    private final int REQUESTS                          = 50;                               // Requests per client
+    private final AtomicInteger sequence                = new AtomicInteger();              // Distinct request urls
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure equal instances get an even share of a route
+     */
+    @Test
+    public void whenInstancesAreEqualSpreadLoadEvenly() throws Exception {
+        for (WireMockRule instance : instances()) {
+            stub(instance, 20);
+        }
+
+        load("/even/balanced");
+
+        int share = CALLERS * REQUESTS / 3;
+        for (WireMockRule instance : instances()) {
+            int served = served(instance);
+            assertTrue("Instance served " + served + " of " + CALLERS * REQUESTS,
+                    served > share / 2 && served < share * 3 / 2);                      // Close to a third each
+        }
+    }
+
+    /**
+     * Ensure a slow instance gets few of a route's requests, each route balances on its own
+     */
+    @Test
+    public void whenInstanceIsSlowAvoidIt() throws Exception {
+        stub(mockInstance1, 5);
+        stub(mockInstance2, 300);
+        stub(mockInstance3, 5);
+
+        load("/uneven/balanced");
+
+        int served = served(mockInstance2);
+        assertTrue("Slow instance served " + served + " of " + CALLERS * REQUESTS,
+                served < CALLERS * REQUESTS / 10);                                      // Well below a third
+    }
+
+    private void stub(WireMockRule instance, int delay) {
+        instance.stubFor(get(urlPathEqualTo("/balanced"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withStatus(200)
+                        .withFixedDelay(delay)
+                        .withBody(TEST_BODY)));
+    }
+
+    /**
+     * Helper sending every client's requests in parallel
+     */
+    private void load(String path) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                callers.add(pool.submit(() -> {
+                    TestRestTemplate template = new TestRestTemplate();
+                    for (int j = 0; j < REQUESTS; j++) {
+                        assertEquals(HttpStatus.OK, template.getForEntity(
+                                routeBuilder(path + "?n=" + sequence.incrementAndGet()), String.class)
+                                .getStatusCode());                                      // It was successful
+                    }
+                }));
+            }
+            for (Future<?> caller : callers) {
+                caller.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int served(WireMockRule instance) {
+        return instance.findAll(getRequestedFor(urlPathEqualTo("/balanced"))).size();
+    }
+
+    private List<WireMockRule> instances() {
+        List<WireMockRule> instances = new ArrayList<>();
+        instances.add(mockInstance1);
+        instances.add(mockInstance2);
+        instances.add(mockInstance3);
+        return instances;
+    }
+}
@@ -0,0 +1,143 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "zuul.routes.limited.path=/limited/**",
+        "zuul.routes.limited.url=http://localhost:8082",
+        "gateway.routes.limited.rate-limit.enabled=true",
+        "gateway.routes.limited.rate-limit.route.permits=1",
+        "gateway.routes.limited.rate-limit.route.period=1h"
+})
+public class MetricsTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockAdminService    = new WireMockRule(8082);     // Mocked Admin Service
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final String TEST_BODY                      = "Tester";                         // Test response from mock services
+    private final int UPSTREAM_DELAY                    = 50;                               // Upstream latency, in millis
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure routed requests show up in the route's metrics
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void whenPathingToAdminRecordAdminMetrics() throws InterruptedException {
+        mockAdminService.stubFor(get(urlEqualTo("/metered"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withStatus(200)
+                        .withFixedDelay(UPSTREAM_DELAY)
+                        .withBody(TEST_BODY)));
+
+        TEMPLATE.getForEntity(routeBuilder("/admin/metered"), String.class);
+        long before = ((Number) awaitIdleAdmin().get("requests")).longValue();
+        for (int i = 0; i < 3; i++) {
+            TEMPLATE.getForEntity(routeBuilder("/admin/metered"), String.class);
+        }
+        Map<String, Object> admin = awaitIdleAdmin();
+
+        assertEquals(before + 3, ((Number) admin.get("requests")).longValue());       // Every request counted
+        assertEquals(0, ((Number) admin.get("inFlight")).longValue());                 // Nothing left in flight
+        assertTrue(((Number) admin.get("bytesOut")).longValue() >= 3 * TEST_BODY.length());
+
+        Map<String, Object> upstream = (Map<String, Object>) admin.get("upstreamMicros");
+        Map<String, Object> total = (Map<String, Object>) admin.get("totalMicros");
+        assertTrue(((Number) upstream.get("max")).longValue() >= UPSTREAM_DELAY * 1000L); // Upstream delay measured
+        assertTrue(((Number) total.get("max")).longValue() >= ((Number) upstream.get("max")).longValue());
+    }
+
+    /**
+     * Ensure requests shed before routing are still counted against their route
+     */
+    @Test
+    public void whenRateLimitedRecordRouteMetrics() throws InterruptedException {
+        mockAdminService.stubFor(get(urlEqualTo("/metered"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withBody(TEST_BODY)));
+
+        TEMPLATE.getForEntity(routeBuilder("/limited/metered"), String.class);
+        ResponseEntity<String> response = TEMPLATE.getForEntity(routeBuilder("/limited/metered"), String.class);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());          // It was shed
+
+        Map<String, Object> limited = routeMetrics("limited");
+        for (int i = 0; i < 50 && ((Number) limited.get("inFlight")).longValue() > 0; i++) {
+            Thread.sleep(20);
+            limited = routeMetrics("limited");
+        }
+        assertEquals(2, ((Number) limited.get("requests")).longValue());               // Shed request counted too
+        assertEquals(0, ((Number) limited.get("inFlight")).longValue());               // Nothing left in flight
+        assertNotNull(limited.get("windowMillis"));                                    // Latency window reported
+    }
+
+    /**
+     * Helper waiting for the admin route to have nothing in flight, requests are recorded right
+     * after their response is written
+     */
+    private Map<String, Object> awaitIdleAdmin() throws InterruptedException {
+        Map<String, Object> admin = adminMetrics();
+        for (int i = 0; i < 50 && ((Number) admin.get("inFlight")).longValue() > 0; i++) {
+            Thread.sleep(20);
+            admin = adminMetrics();
+        }
+        return admin;
+    }
+
+    /**
+     * Helper reading the admin route from the metrics endpoint
+     */
+    private Map<String, Object> adminMetrics() {
+        return routeMetrics("admin");
+    }
+
+    /**
+     * Helper reading one route from the metrics endpoint
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> routeMetrics(String routeId) {
+        ResponseEntity<Map> response = TEMPLATE.getForEntity(routeBuilder("/gateway/metrics"), Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        Map<String, Object> route = (Map<String, Object>) response.getBody().get(routeId);
+        assertNotNull(route);                                                          // Route is measured
+        return route;
+    }
+
+    /**
+     * Ensure the dashboard page renders
+     */
+    @Test
+    public void whenPathingToIndexRenderDashboard() {
+        ResponseEntity<String> response = TEMPLATE.getForEntity(routeBuilder("/"), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        assertTrue(response.getBody().contains("/gateway/metrics"));                   // It polls the metrics
+    }
+}
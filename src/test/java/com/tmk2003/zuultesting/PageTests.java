@@ -0,0 +1,113 @@
+package com.tmk2003.zuultesting;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PageTests {
+
+    /* Variables */
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure the index carries a strong ETag and is answered with 304 once the client holds it
+     */
+    @Test
+    public void whenPathingToIndexWithETagAnswerNotModified() {
+        ResponseEntity<String> first = TEMPLATE.getForEntity(routeBuilder("/"), String.class);
+        String eTag = first.getHeaders().getETag();
+        assertEquals(HttpStatus.OK, first.getStatusCode());                            // It was successful
+        assertNotNull(eTag);                                                           // It has a validator
+        assertFalse(eTag.startsWith("W/"));                                            // Validator is strong
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        ResponseEntity<String> second = TEMPLATE.exchange(routeBuilder("/"), HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());                 // Client copy is current
+        assertNull(second.getBody());                                                  // Nothing re-sent
+    }
+
+    /**
+     * Ensure gzip and identity variants hold the same page under different ETags
+     */
+    @Test
+    public void whenPathingToIndexServeGzipAndIdentityVariants() throws IOException {
+        HttpURLConnection identity = open("/", "identity");
+        HttpURLConnection gzip = open("/", "gzip");
+
+        assertEquals(200, identity.getResponseCode());                                 // It was successful
+        assertEquals(200, gzip.getResponseCode());                                     // It was successful
+        assertNull(identity.getHeaderField("Content-Encoding"));                       // Sent as is
+        assertEquals("gzip", gzip.getHeaderField("Content-Encoding"));                 // Sent compressed
+        assertNotEquals(identity.getHeaderField("ETag"), gzip.getHeaderField("ETag")); // One validator per variant
+
+        String plain = read(identity.getInputStream());
+        String inflated = read(new GZIPInputStream(gzip.getInputStream()));
+        assertEquals(plain, inflated);                                                 // Same page either way
+    }
+
+    /**
+     * Ensure error pages keep their status even when the client sends a matching ETag
+     */
+    @Test
+    public void whenPathingToUnknownPageServeErrorPageWithStatus() {
+        ResponseEntity<String> first = TEMPLATE.getForEntity(routeBuilder("/unknown/page"), String.class);
+        assertEquals(HttpStatus.NOT_FOUND, first.getStatusCode());                     // It was NOT successful
+        assertTrue(first.getBody().contains("Something went wrong"));                  // Error page rendered
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+        ResponseEntity<String> second = TEMPLATE.exchange(routeBuilder("/unknown/page"), HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.NOT_FOUND, second.getStatusCode());                    // Still NOT successful
+        assertEquals(first.getBody(), second.getBody());                               // Same cached page
+    }
+
+    /**
+     * Helper opening a connection that does not decode gzip on its own
+     */
+    private HttpURLConnection open(String path, String acceptEncoding) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(routeBuilder(path)).openConnection();
+        connection.setRequestProperty("Accept-Encoding", acceptEncoding);
+        return connection;
+    }
+
+    private String read(InputStream in) throws IOException {
+        try (InputStream body = in) {
+            return StreamUtils.copyToString(body, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.tmk2003.zuultesting.routing.IgnoredPatternFilter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "zuul.prefix=/gateway",
+        "zuul.ignoredPatterns=/gateway/heartbeat/**,/gateway/metrics,/heartbeat/**"
+})
+public class PrefixedRouteTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockUserService     = new WireMockRule(8081);     // Mocked User Service
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final String TEST_BODY                      = "Tester";                         // Test response from mock services
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure routes live under the prefix
+     */
+    @Test
+    public void whenPathingToPrefixedUserRouteToUserService() {
+        mockUserService.stubFor(get(urlEqualTo("/"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withBody(TEST_BODY)));
+
+        ResponseEntity<String> response = TEMPLATE.getForEntity(routeBuilder("/gateway/user"), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        assertEquals(TEST_BODY, response.getBody());                                   // It got the body
+    }
+
+    /**
+     * Ensure ignored paths under the prefix get the precomputed 404
+     */
+    @Test
+    public void whenPathingToPrefixedHeartbeatAnswerWithoutErrorPage() {
+        ResponseEntity<String> response = TEMPLATE.getForEntity(routeBuilder("/gateway/heartbeat"), String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());                  // It was NOT successful
+        assertEquals(IgnoredPatternFilter.NOT_FOUND_BODY, response.getBody());         // Answered before the dispatcher
+    }
+
+    /**
+     * Ensure an ignored path a controller maps still reaches the controller
+     */
+    @Test
+    public void whenIgnoredPathHasControllerLetItAnswer() {
+        ResponseEntity<String> response = TEMPLATE.getForEntity(routeBuilder("/gateway/metrics"), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // Controller answered
+    }
+
+    /**
+     * Ensure paths outside the prefix are left to the dispatcher, Zuul never routes them
+     */
+    @Test
+    public void whenIgnoredPathIsOutsidePrefixLeaveItToDispatcher() {
+        ResponseEntity<String> response = TEMPLATE.getForEntity(routeBuilder("/heartbeat"), String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());                  // It was NOT successful
+        assertNotEquals(IgnoredPatternFilter.NOT_FOUND_BODY, response.getBody());      // Answered by the dispatcher
+    }
+}
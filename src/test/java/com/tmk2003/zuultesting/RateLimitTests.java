@@ -0,0 +1,92 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.routes.mod.rate-limit.enabled=true",
+        "gateway.routes.mod.rate-limit.client.permits=3",
+        "gateway.routes.mod.rate-limit.client.period=1m",
+        "gateway.routes.mod.rate-limit.client-header=X-Client-Id"
+})
+public class RateLimitTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockModService      = new WireMockRule(8083);     // Mocked Mod Service
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final String TEST_BODY                      = "Tester";                         // Test response from mock services
+    private final int CLIENT_PERMITS                    = 3;                                // Requests per client per minute
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure a client over its limit gets 429 with Retry-After, without reaching the Mod service
+     */
+    @Test
+    public void whenClientExceedsLimitAnswerTooManyRequests() {
+        stubMod("/limited");
+
+        for (int i = 0; i < CLIENT_PERMITS; i++) {
+            assertEquals(HttpStatus.OK, call("/mod/limited", "greedy").getStatusCode());   // Within the limit
+        }
+        ResponseEntity<String> limited = call("/mod/limited", "greedy");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, limited.getStatusCode());           // It was refused
+        long retryAfter = Long.parseLong(limited.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertTrue(retryAfter >= 1 && retryAfter <= 60);                               // Next permit within the period
+        mockModService.verify(CLIENT_PERMITS, getRequestedFor(urlEqualTo("/limited"))); // Upstream protected
+    }
+
+    /**
+     * Ensure one client's limit does not affect another client
+     */
+    @Test
+    public void whenOtherClientIsLimitedStillRoute() {
+        stubMod("/shared");
+
+        for (int i = 0; i <= CLIENT_PERMITS; i++) {
+            call("/mod/shared", "noisy");
+        }
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, call("/mod/shared", "noisy").getStatusCode());
+        assertEquals(HttpStatus.OK, call("/mod/shared", "quiet").getStatusCode());       // Own bucket
+    }
+
+    private void stubMod(String path) {
+        mockModService.stubFor(get(urlEqualTo(path))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withStatus(200)
+                        .withBody(TEST_BODY)));
+    }
+
+    private ResponseEntity<String> call(String path, String clientId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Client-Id", clientId);
+        return TEMPLATE.exchange(routeBuilder(path), HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,146 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.tmk2003.zuultesting.support.RequestBodySpool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "zuul.routes.spooled.path=/spooled/**",
+        "zuul.routes.spooled.url=http://localhost:8081",
+        "gateway.routes.spooled.request-body.buffered=true",
+        "gateway.routes.spooled.request-body.memory-threshold=64KB",
+        "gateway.request-bodies.max-memory=1MB",
+        "zuul.routes.limited.path=/limited/**",
+        "zuul.routes.limited.url=http://localhost:8081",
+        "gateway.routes.limited.request-body.buffered=true",
+        "gateway.routes.limited.rate-limit.enabled=true",
+        "gateway.routes.limited.rate-limit.route.permits=1",
+        "gateway.routes.limited.rate-limit.route.period=1h"
+})
+public class RequestBodyTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockUserService     = new WireMockRule(8081);     // Mocked User Service
+    @Rule public final WireMockRule mockAdminService    = new WireMockRule(8082);     // Mocked Admin Service
+    @Autowired private RequestBodySpool spool;                                              // Gateway body buffering
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure uploads to routes without buffering are streamed upstream intact, see RequestBodyLoadIT for size
+     */
+    @Test
+    public void whenUploadingToAdminStreamUpstream() {
+        mockAdminService.stubFor(post(urlEqualTo("/upload")).willReturn(aResponse().withStatus(200)));
+        byte[] body = randomBytes(1024 * 1024);
+        long spooled = spool.getSpooled();
+
+        ResponseEntity<String> response = TEMPLATE.postForEntity(routeBuilder("/admin/upload"), body, String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        assertEquals(spooled, spool.getSpooled());                                     // Streamed, not buffered
+        List<LoggedRequest> requests = mockAdminService.findAll(postRequestedFor(urlEqualTo("/upload")));
+        assertEquals(1, requests.size());                                              // Sent once
+        assertArrayEquals(body, requests.get(0).getBody());                            // Forwarded intact
+    }
+
+    /**
+     * Ensure buffered bodies below the threshold stay in memory and reach upstream intact
+     */
+    @Test
+    public void whenBufferingSmallBodyKeepInMemory() {
+        mockUserService.stubFor(post(urlEqualTo("/small")).willReturn(aResponse().withStatus(200)));
+        byte[] body = randomBytes(16 * 1024);
+        long spilled = spool.getSpilled();
+
+        ResponseEntity<String> response = TEMPLATE.postForEntity(routeBuilder("/spooled/small"), body, String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        assertEquals(spilled, spool.getSpilled());                                     // Kept in memory
+        assertArrayEquals(body, receivedBody("/small"));                               // Forwarded intact
+        assertEquals(0, spool.getMemoryInUse());                                       // Released after the response
+    }
+
+    /**
+     * Ensure buffered bodies above the threshold spill to disk and reach upstream intact
+     */
+    @Test
+    public void whenBufferingLargeBodySpillToDisk() throws IOException {
+        mockUserService.stubFor(post(urlEqualTo("/large")).willReturn(aResponse().withStatus(200)));
+        byte[] body = randomBytes(4 * 1024 * 1024);
+        long spilled = spool.getSpilled();
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(routeBuilder("/spooled/large")).openConnection();
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(8192);                                      // Length unknown up front
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+
+        assertEquals(200, connection.getResponseCode());                               // It was successful
+        assertEquals(spilled + 1, spool.getSpilled());                                 // Went to disk
+        assertArrayEquals(body, receivedBody("/large"));                               // Forwarded intact
+        assertEquals(0, spool.getMemoryInUse());                                       // Nothing left in heap
+    }
+
+    /**
+     * Ensure requests turned away before routing never have their body read
+     */
+    @Test
+    public void whenRequestIsRejectedDoNotBufferBody() {
+        mockUserService.stubFor(post(urlEqualTo("/limited")).willReturn(aResponse().withStatus(200)));
+        byte[] body = randomBytes(16 * 1024);
+        long spooled = spool.getSpooled();
+
+        ResponseEntity<String> admitted = TEMPLATE.postForEntity(routeBuilder("/limited/limited"), body, String.class);
+        ResponseEntity<String> rejected = TEMPLATE.postForEntity(routeBuilder("/limited/limited"), body, String.class);
+
+        assertEquals(HttpStatus.OK, admitted.getStatusCode());                         // It was successful
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());          // Over the route limit
+        assertEquals(spooled + 1, spool.getSpooled());                                 // Only the admitted body was read
+    }
+
+    private byte[] receivedBody(String path) {
+        List<LoggedRequest> requests = mockUserService.findAll(postRequestedFor(urlEqualTo(path)));
+        assertEquals(1, requests.size());                                              // Sent once
+        return requests.get(0).getBody();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,103 @@
+package com.tmk2003.zuultesting;
+
+import com.tmk2003.zuultesting.routing.TrieRouteLocator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.SimpleRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class RouteLocatorTests {
+
+    /* Variables */
+    @Autowired private RouteLocator routeLocator;                                           // Locator Zuul routes with
+    @Autowired private TrieRouteLocator trieRouteLocator;                                   // Underlying trie locator
+    @Autowired private ZuulProperties zuulProperties;                                       // Configured zuul.* properties
+
+    /* Final Variables */
+    private final List<String> PATHS = Arrays.asList(                                       // Paths to compare
+            "/", "/user", "/user/", "/user/horse", "/user/horse/saddle", "/users",
+            "/admin", "/admin/horse", "/admin/horse/", "/mod", "/mod/horse", "/moderator",
+            "/heartbeat", "/heartbeat/", "/heartbeat/admin", "/heartbeat/user/horse",
+            "/unknown", "/unknown/user", "//user//horse");
+
+    /**
+     * Ensure the trie locator is the one Zuul routes with
+     */
+    @Test
+    public void whenLoadingContextUseTrieRouteLocator() {
+        assertTrue(routeLocator.getRoutes().size() >= 3);                             // All routes are exposed
+        assertEquals(zuulProperties.getIgnoredPatterns(),
+                new HashSet<>(routeLocator.getIgnoredPaths()));                        // Ignored patterns are exposed
+    }
+
+    /**
+     * Ensure the trie resolves every path to the same route as the ant pattern scan
+     */
+    @Test
+    public void whenMatchingPathsResolveSameRoutesAsAntPatternScan() {
+        SimpleRouteLocator reference = new SimpleRouteLocator("", zuulProperties);
+
+        for (String path : PATHS) {
+            assertSameRoute(path, reference.getMatchingRoute(path), routeLocator.getMatchingRoute(path));
+        }
+    }
+
+    /**
+     * Ensure the configured routes resolve to their services
+     */
+    @Test
+    public void whenMatchingConfiguredRoutesResolveToServices() {
+        assertEquals("http://localhost:8081", routeLocator.getMatchingRoute("/user/horse").getLocation());
+        assertEquals("http://localhost:8082", routeLocator.getMatchingRoute("/admin").getLocation());
+        assertEquals("http://localhost:8083", routeLocator.getMatchingRoute("/mod/horse").getLocation());
+        assertEquals("/horse", routeLocator.getMatchingRoute("/user/horse").getPath());
+    }
+
+    /**
+     * Ensure heartbeat paths never resolve to a route
+     */
+    @Test
+    public void whenMatchingHeartbeatResolveNoRoute() {
+        assertNull(routeLocator.getMatchingRoute("/heartbeat"));
+        assertNull(routeLocator.getMatchingRoute("/heartbeat/admin"));
+    }
+
+    /**
+     * Ensure the compiled table agrees with the ignored patterns
+     */
+    @Test
+    public void whenMatchingIgnoredPatternsUseCompiledTable() {
+        assertTrue(trieRouteLocator.isIgnored("/heartbeat"));                          // Ignored
+        assertTrue(trieRouteLocator.isIgnored("/heartbeat/mod"));                      // Ignored with extension
+        assertFalse(trieRouteLocator.isIgnored("/user"));                              // Routed
+    }
+
+    /**
+     * Helper comparing two resolved routes
+     */
+    private void assertSameRoute(String path, Route expected, Route actual) {
+        if (expected == null) {
+            assertNull(path, actual);
+            return;
+        }
+        assertNotNull(path, actual);
+        assertEquals(path, expected.getId(), actual.getId());
+        assertEquals(path, expected.getFullPath(), actual.getFullPath());
+        assertEquals(path, expected.getPath(), actual.getPath());
+        assertEquals(path, expected.getLocation(), actual.getLocation());
+        assertEquals(path, expected.getPrefix(), actual.getPrefix());
+    }
+}
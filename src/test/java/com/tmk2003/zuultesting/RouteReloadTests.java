@@ -0,0 +1,181 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.tmk2003.zuultesting.routing.RouteFileWatcher;
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.route-file.location=${java.io.tmpdir}/gateway-route-reload-tests.properties",
+        "gateway.route-file.poll-interval=50ms"
+})
+public class RouteReloadTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockUserService     = new WireMockRule(8081);     // Mocked User Service
+    @Rule public final WireMockRule mockAdminService    = new WireMockRule(8082);     // Mocked Admin Service
+    @Autowired private RouteFileWatcher watcher;                                            // Gateway routes file
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private static final Path ROUTES_FILE               = Paths.get(System.getProperty("java.io.tmpdir"),
+            "gateway-route-reload-tests.properties");                                       // Watched routes file
+    private final String USER_BODY                      = "User";                           // Test response of the user service
+    private final String ADMIN_BODY                     = "Admin";                          // Test response of the admin service
+    private final int CALLERS                           = 4;                                // Parallel clients
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    @AfterClass
+    public static void deleteRoutesFile() throws IOException {
+        Files.deleteIfExists(ROUTES_FILE);
+    }
+
+    /**
+     * Ensure rewriting the routes file under load moves traffic to the new routes without failing a request
+     */
+    @Test
+    public void whenRoutesFileChangesUnderLoadSwitchRoutesWithoutFailures() throws Exception {
+        mockUserService.stubFor(get(urlEqualTo("/ping")).willReturn(aResponse().withStatus(200).withBody(USER_BODY)));
+        mockAdminService.stubFor(get(urlEqualTo("/ping")).willReturn(aResponse().withStatus(200).withBody(ADMIN_BODY)));
+
+        writeRoutes("zuul.routes.dynamic.path=/dynamic/**\n"
+                + "zuul.routes.dynamic.url=http://localhost:8081\n");
+        awaitBody("/dynamic/ping", USER_BODY);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger switched = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int c = 0; c < CALLERS; c++) {
+                results.add(callers.submit(() -> {
+                    TestRestTemplate template = new TestRestTemplate();
+                    int requests = 0;
+                    while (running.get()) {
+                        requests++;
+                        try {
+                            ResponseEntity<String> response = template.getForEntity(routeBuilder("/dynamic/ping"), String.class);
+                            if (response.getStatusCode() != HttpStatus.OK) {
+                                failures.incrementAndGet();
+                            } else if (ADMIN_BODY.equals(response.getBody())) {
+                                switched.incrementAndGet();
+                            } else if (!USER_BODY.equals(response.getBody())) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return requests;
+                }));
+            }
+
+            Thread.sleep(300);
+            writeRoutes("zuul.routes.dynamic.path=/dynamic/**\n"
+                    + "zuul.routes.dynamic.url=http://localhost:8082\n"
+                    + "zuul.routes.fresh.path=/fresh/**\n"
+                    + "zuul.routes.fresh.url=http://localhost:8082\n"
+                    + "zuul.ignoredPatterns=/blocked/**\n");
+            for (int i = 0; i < 200 && switched.get() < 100; i++) {
+                Thread.sleep(20);
+            }
+            running.set(false);
+
+            int requests = 0;
+            for (Future<Integer> result : results) {
+                requests += result.get(1, TimeUnit.MINUTES);
+            }
+            assertEquals(0, failures.get());                                           // No request failed
+            assertTrue(switched.get() >= 100);                                         // Traffic moved over
+            assertTrue(requests > switched.get());                                     // Load ran across the swap
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(ADMIN_BODY, TEMPLATE.getForObject(routeBuilder("/fresh/ping"), String.class)); // New route
+        assertEquals(HttpStatus.NOT_FOUND,
+                TEMPLATE.getForEntity(routeBuilder("/blocked/ping"), String.class).getStatusCode()); // New ignored pattern
+        assertEquals(0, watcher.getFailures());                                        // Every version parsed
+    }
+
+    /**
+     * Ensure a broken routes file keeps the current routes
+     */
+    @Test
+    public void whenRoutesFileIsInvalidKeepCurrentRoutes() throws Exception {
+        mockUserService.stubFor(get(urlEqualTo("/ping")).willReturn(aResponse().withStatus(200).withBody(USER_BODY)));
+
+        writeRoutes("zuul.routes.kept.path=/kept/**\n"
+                + "zuul.routes.kept.url=http://localhost:8081\n");
+        awaitBody("/kept/ping", USER_BODY);
+
+        long failures = watcher.getFailures();
+        writeRoutes("zuul.routes.kept.strip-prefix=not-a-boolean\n");
+        for (int i = 0; i < 100 && watcher.getFailures() == failures; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(failures + 1, watcher.getFailures());                             // Rejected
+        assertEquals(USER_BODY, TEMPLATE.getForObject(routeBuilder("/kept/ping"), String.class)); // Still routed
+    }
+
+    /**
+     * Helper replacing the routes file in one rename, the way deployments should
+     */
+    private void writeRoutes(String content) throws IOException {
+        Path next = Files.createTempFile(ROUTES_FILE.getParent(), "routes", ".tmp");
+        Files.write(next, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(next, ROUTES_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Helper waiting for a reload to route the path
+     */
+    private void awaitBody(String path, String body) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ResponseEntity<String> response = TEMPLATE.getForEntity(routeBuilder(path), String.class);
+            if (response.getStatusCode() == HttpStatus.OK && body.equals(response.getBody())) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail(path + " never answered " + body);
+    }
+}
@@ -1,6 +1,7 @@
 package com.tmk2003.zuultesting;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.tmk2003.zuultesting.routing.IgnoredPatternFilter;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -91,6 +92,16 @@ public class RouteTests {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());                  // It was NOT successful
     }
 
+    /**
+     * Ensure heartbeat gets the precomputed 404 instead of the rendered error page
+     */
+    @Test
+    public void whenPathingToHeartbeatAnswerWithoutErrorPage() {
+        ResponseEntity<String> response = TEMPLATE.postForEntity(routeBuilder("/heartbeat/user"), TEST_BODY, String.class);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());                  // It was NOT successful
+        assertEquals(IgnoredPatternFilter.NOT_FOUND_BODY, response.getBody());         // Answered before the dispatcher
+    }
+
     /* User Routes */
 
     /**
@@ -397,4 +408,67 @@ public class RouteTests {
         mockAdminService.verify(1, getRequestedFor(urlPathEqualTo("/horse"))); // Ensure it was hit once
     }
 
+    /* Cached Routes */
+
+    /**
+     * Ensure a second identical GET to a cacheable /User response is answered by the gateway cache
+     */
+    @Test
+    public void whenRequestingCacheableUserResponseTwiceServeSecondFromCache() {
+        // When the mock user service get hit at its /cached endpoint, lets return a cacheable response
+        mockUserService.stubFor(get(urlEqualTo("/cached"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withHeader("Cache-Control", "public, max-age=60")
+                        .withStatus(200)
+                        .withBody(TEST_BODY)));
+
+        ResponseEntity<String> first = TEMPLATE.getForEntity(routeBuilder("/user/cached"), String.class);
+        ResponseEntity<String> second = TEMPLATE.getForEntity(routeBuilder("/user/cached"), String.class);
+
+        assertEquals(TEST_BODY, first.getBody());                                      // It get the body
+        assertEquals(TEST_BODY, second.getBody());                                     // It get the cached body
+        assertEquals(HttpStatus.OK, second.getStatusCode());                           // It was successful
+        mockUserService.verify(1, getRequestedFor(urlPathEqualTo("/cached"))); // Ensure it was hit once
+    }
+
+    /**
+     * Ensure /User responses marked no-store always reach the User service
+     */
+    @Test
+    public void whenRequestingNoStoreUserResponseTwiceRouteBothToUserService() {
+        // When the mock user service get hit at its /uncached endpoint, lets return an uncacheable response
+        mockUserService.stubFor(get(urlEqualTo("/uncached"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withHeader("Cache-Control", "no-store")
+                        .withStatus(200)
+                        .withBody(TEST_BODY)));
+
+        TEMPLATE.getForEntity(routeBuilder("/user/uncached"), String.class);
+        ResponseEntity<String> second = TEMPLATE.getForEntity(routeBuilder("/user/uncached"), String.class);
+
+        assertEquals(TEST_BODY, second.getBody());                                     // It get the body
+        mockUserService.verify(2, getRequestedFor(urlPathEqualTo("/uncached"))); // Ensure it was hit twice
+    }
+
+    /**
+     * Ensure responses of routes without a cache always reach their service
+     */
+    @Test
+    public void whenRequestingCacheableAdminResponseTwiceRouteBothToAdminService() {
+        // When the mock admin service get hit at its /cached endpoint, lets return a cacheable response
+        mockAdminService.stubFor(get(urlEqualTo("/cached"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/json")
+                        .withHeader("Cache-Control", "public, max-age=60")
+                        .withStatus(200)
+                        .withBody(TEST_BODY)));
+
+        TEMPLATE.getForEntity(routeBuilder("/admin/cached"), String.class);
+        TEMPLATE.getForEntity(routeBuilder("/admin/cached"), String.class);
+
+        mockAdminService.verify(2, getRequestedFor(urlPathEqualTo("/cached"))); // Ensure it was hit twice
+    }
+
 }
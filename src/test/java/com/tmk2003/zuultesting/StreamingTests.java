@@ -0,0 +1,60 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class StreamingTests {
+
+    /* Variables */
+    @Rule public final WireMockRule mockAdminService    = new WireMockRule(8082);     // Mocked Admin Service
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final int MEDIUM_BODY                       = 3 * 1024 * 1024 + 17;             // Just above the threshold
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure bodies above the threshold arrive intact
+     */
+    @Test
+    public void whenPathingToAdminLargeBodyRelayIntact() {
+        byte[] body = new byte[MEDIUM_BODY];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) (i * 31);
+        }
+        mockAdminService.stubFor(get(urlEqualTo("/medium"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/octet-stream")
+                        .withHeader("X-Upstream", "admin")
+                        .withStatus(200)
+                        .withBody(body)));
+
+        ResponseEntity<byte[]> response = TEMPLATE.getForEntity(routeBuilder("/admin/medium"), byte[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        assertEquals("admin", response.getHeaders().getFirst("X-Upstream"));           // Upstream headers relayed
+        assertArrayEquals(body, response.getBody());                                   // Every byte relayed
+    }
+}
@@ -0,0 +1,102 @@
+package com.tmk2003.zuultesting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.tmk2003.zuultesting.metrics.GatewayMetrics;
+import com.tmk2003.zuultesting.warmup.GatewayWarmup;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "zuul.routes.warm.path=/warm/**",
+        "zuul.routes.warm.url=http://localhost:8084",
+        "gateway.warmup.enabled=true",
+        "gateway.warmup.connections-per-route=3",
+        "gateway.warmup.requests=50",
+        "gateway.warmup.path=/ping",
+        "gateway.routes.warm.rate-limit.enabled=true",
+        "gateway.routes.warm.rate-limit.route.permits=10",
+        "gateway.routes.warm.rate-limit.route.period=1h",
+        "gateway.routes.warm.cache.enabled=true"
+})
+public class WarmupTests {
+
+    /* Variables */
+    @ClassRule public static final WireMockRule mockWarmService = new WireMockRule(8084);  // Mocked service, up before the warm-up
+    @Autowired private GatewayWarmup warmup;                                                // Gateway warm-up
+    @Autowired private GatewayMetrics metrics;                                              // Gateway per route metrics
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    @BeforeClass
+    public static void stubWarmService() {
+        mockWarmService.stubFor(get(urlEqualTo("/ping")).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Cache-Control", "max-age=60")
+                .withBody("pong")));
+    }
+
+    /**
+     * Ensure the warm-up sent its synthetic requests through the gateway before the context was ready
+     */
+    @Test
+    public void whenStartingWarmUpRoutesBeforeReady() {
+        assertTrue(warmup.isReady());                                                  // Over before the tests run
+        assertEquals(53, mockWarmService.findAll(getRequestedFor(urlEqualTo("/ping"))).size()); // Connections and requests
+        assertTrue(warmup.getPhases().keySet().containsAll(
+                Arrays.asList("routes", "connections", "requests", "total"))); // Every phase timed
+    }
+
+    /**
+     * Ensure synthetic requests are neither limited, cached nor measured, and their marker is not forwarded
+     */
+    @Test
+    public void whenWarmingUpLeaveTrafficAccountingAlone() {
+        // 53 requests past a 10 request limit and a cacheable response all reached the service
+        assertEquals(53, mockWarmService.findAll(getRequestedFor(urlEqualTo("/ping"))).size());
+        assertEquals(0, mockWarmService.findAll(getRequestedFor(urlEqualTo("/ping"))
+                .withHeader(GatewayWarmup.WARMUP_HEADER, matching(".*"))).size());     // Marker stripped
+        assertFalse(metrics.snapshot().containsKey("warm"));                           // Not measured
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, TEMPLATE.getForEntity(routeBuilder("/warm/other"),
+                String.class).getStatusCode());                                         // Limit not spent
+    }
+
+    /**
+     * Ensure the readiness endpoint reports the warm-up
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void whenWarmedUpReportReady() {
+        ResponseEntity<Map> response = TEMPLATE.getForEntity(routeBuilder("/gateway/ready"), Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());                         // It was successful
+        assertEquals(Boolean.TRUE, response.getBody().get("ready"));                   // Taking traffic
+        assertNotNull(((Map<String, Object>) response.getBody().get("warmupMillis")).get("total"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.tmk2003.zuultesting.accesslog;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AccessLogRingTests {
+
+    /**
+     * Ensure a full ring rejects records until the writer drains it, and reuses its slots afterwards
+     */
+    @Test
+    public void whenRingIsFullRejectUntilDrained() {
+        AccessLogRing ring = new AccessLogRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, offer(ring, 200 + i));                                      // Claimed in order
+        }
+        assertEquals(-1, offer(ring, 500));                                             // No free slot
+
+        List<Integer> statuses = new ArrayList<>();
+        assertEquals(2, ring.drain(record -> statuses.add(record.getStatus()), 2));
+        assertEquals(4, offer(ring, 204));                                              // Freed slots reused
+        assertEquals(5, offer(ring, 205));
+        assertEquals(4, ring.drain(record -> statuses.add(record.getStatus()), 10));
+        assertEquals(Arrays.asList(200, 201, 202, 203, 204, 205), statuses);            // Nothing lost or reordered
+        assertEquals(0, ring.size());
+    }
+
+    /**
+     * Ensure the capacity is rounded up to a power of two
+     */
+    @Test
+    public void whenCapacityIsNotPowerOfTwoRoundUp() {
+        assertEquals(8, new AccessLogRing(5).getCapacity());
+        assertEquals(8192, new AccessLogRing(8192).getCapacity());
+    }
+
+    /**
+     * Ensure records of parallel requests are all drained once, whatever the interleaving
+     */
+    @Test
+    public void whenRequestsLogInParallelDrainEveryRecordOnce() throws Exception {
+        AccessLogRing ring = new AccessLogRing(1024);
+        int threads = 4;
+        int perThread = 10000;
+        ExecutorService requests = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int status = t;
+                results.add(requests.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        while (offer(ring, status) < 0) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+            int[] drained = new int[threads];
+            int total = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (total < threads * perThread && System.nanoTime() < deadline) {
+                total += ring.drain(record -> drained[record.getStatus()]++, 256);
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+            for (int t = 0; t < threads; t++) {
+                assertEquals(perThread, drained[t]);                                    // Every record of the thread
+            }
+            assertEquals(0, ring.size());
+        } finally {
+            requests.shutdownNow();
+        }
+    }
+
+    /**
+     * Ensure a writer that cannot keep up drops and counts records instead of holding requests
+     */
+    @Test
+    public void whenWriterFallsBehindDropAndCount() {
+        AccessLogWriter writer = new AccessLogWriter(settings(OverflowPolicy.DROP, 0)); // Never started
+        for (int i = 0; i < 10; i++) {
+            writer.log("user", "GET", "/user/horse", 200, 1000, 2000, 0, 64);
+        }
+        assertEquals(4, writer.getLogged());                                            // The ring's capacity
+        assertEquals(6, writer.getDropped());
+    }
+
+    /**
+     * Ensure WAIT gives up after max-wait when the writer frees nothing
+     */
+    @Test
+    public void whenWaitingPastMaxWaitDrop() {
+        AccessLogWriter writer = new AccessLogWriter(settings(OverflowPolicy.WAIT, 20));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(writer.log("user", "GET", "/user/horse", 200, 1000, 2000, 0, 64));
+        }
+        long started = System.nanoTime();
+        assertFalse(writer.log("user", "GET", "/user/horse", 200, 1000, 2000, 0, 64));  // Dropped in the end
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(20));   // After waiting
+        assertEquals(1, writer.getDropped());
+    }
+
+    private static long offer(AccessLogRing ring, int status) {
+        return ring.offer(0, "user", "GET", "/user/horse", status, 1000, 2000, 0, 64);
+    }
+
+    private static GatewayProperties.AccessLog settings(OverflowPolicy policy, long maxWaitMillis) {
+        GatewayProperties.AccessLog settings = new GatewayProperties.AccessLog();
+        settings.setCapacity(4);
+        settings.setOverflowPolicy(policy);
+        settings.setMaxWait(Duration.ofMillis(maxWaitMillis));
+        return settings;
+    }
+}
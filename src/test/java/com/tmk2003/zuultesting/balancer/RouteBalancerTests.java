@@ -0,0 +1,117 @@
+package com.tmk2003.zuultesting.balancer;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RouteBalancerTests {
+
+    /* Final Variables */
+    private final long NOW                              = TimeUnit.SECONDS.toNanos(1);     // Fixed clock
+    private final long FAST                             = TimeUnit.MILLISECONDS.toNanos(5); // Healthy latency
+    private final long SLOW                             = TimeUnit.SECONDS.toNanos(1);     // Degraded latency
+
+    /**
+     * Ensure least outstanding picks the instance with the fewest requests in flight
+     */
+    @Test
+    public void whenInstancesAreBusyPickLeastOutstanding() {
+        RouteBalancer balancer = new RouteBalancer(settings(BalancingStrategy.LEAST_OUTSTANDING));
+
+        UpstreamInstance first = balancer.choose(NOW);
+        UpstreamInstance second = balancer.choose(NOW);
+        UpstreamInstance third = balancer.choose(NOW);
+        assertEquals(3, Arrays.asList(first, second, third).stream().distinct().count()); // One each
+
+        balancer.release(second, FAST, false, NOW);
+        assertSame(second, balancer.choose(NOW));                                     // Only idle instance
+    }
+
+    /**
+     * Ensure power of two choices steers away from a slow instance
+     */
+    @Test
+    public void whenInstanceIsSlowAvoidIt() {
+        RouteBalancer balancer = new RouteBalancer(settings(BalancingStrategy.POWER_OF_TWO_CHOICES));
+        UpstreamInstance slow = balancer.getInstances().get(0);
+        for (UpstreamInstance instance : balancer.getInstances()) {
+            instance.acquire();
+            balancer.release(instance, instance == slow ? SLOW : FAST, false, NOW);
+        }
+        long before = slow.getRequests();
+
+        for (int i = 0; i < 1000; i++) {
+            balancer.release(balancer.choose(NOW), FAST, false, NOW);
+        }
+        assertEquals(before, slow.getRequests());                                      // Always the costlier pick
+    }
+
+    /**
+     * Ensure repeated failures eject an instance until the ejection time passed
+     */
+    @Test
+    public void whenInstanceKeepsFailingEjectIt() {
+        RouteBalancer balancer = new RouteBalancer(settings(BalancingStrategy.LEAST_OUTSTANDING));
+        UpstreamInstance broken = balancer.getInstances().get(1);
+        for (int i = 0; i < 3; i++) {
+            broken.acquire();
+            balancer.release(broken, FAST, true, NOW);
+        }
+        assertEquals(1, broken.getEjections());
+
+        for (int i = 0; i < 100; i++) {
+            UpstreamInstance chosen = balancer.choose(NOW);
+            assertNotSame(broken, chosen);                                             // Sitting out
+            balancer.release(chosen, FAST, false, NOW);
+        }
+        UpstreamInstance[] picked = new UpstreamInstance[3];
+        long later = NOW + Duration.ofSeconds(31).toNanos();
+        for (int i = 0; i < picked.length; i++) {
+            picked[i] = balancer.choose(later);                                        // Held, so each pick differs
+        }
+        assertTrue(Arrays.asList(picked).contains(broken));                            // Back after the ejection time
+    }
+
+    /**
+     * Ensure a hedge never goes to the instance of the first attempt, nor to an ejected one
+     */
+    @Test
+    public void whenHedgingPickAnotherInstance() {
+        RouteBalancer balancer = new RouteBalancer(settings(BalancingStrategy.POWER_OF_TWO_CHOICES));
+        UpstreamInstance broken = balancer.getInstances().get(2);
+        for (int i = 0; i < 3; i++) {
+            broken.acquire();
+            balancer.release(broken, FAST, true, NOW);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            UpstreamInstance primary = balancer.choose(NOW);
+            UpstreamInstance hedge = balancer.chooseOther(NOW, primary);
+            assertNotSame(primary, hedge);                                             // Another instance
+            assertNotSame(broken, hedge);                                              // Sitting out
+            balancer.release(hedge, FAST, false, NOW);
+            balancer.release(primary, FAST, false, NOW);
+        }
+        UpstreamInstance other = balancer.getInstances().get(0);
+        for (int i = 0; i < 3; i++) {
+            other.acquire();
+            balancer.release(other, FAST, true, NOW);
+        }
+        assertNull(balancer.chooseOther(NOW, balancer.getInstances().get(1)));         // Nowhere else to go
+    }
+
+    private GatewayProperties.Balancer settings(BalancingStrategy strategy) {
+        GatewayProperties.Balancer settings = new GatewayProperties.Balancer();
+        settings.setEnabled(true);
+        settings.setStrategy(strategy);
+        settings.setUrls(Arrays.asList("http://localhost:8081", "http://localhost:8084", "http://localhost:8085"));
+        settings.setMaxFailures(3);
+        settings.setEjectionTime(Duration.ofSeconds(30));
+        return settings;
+    }
+}
@@ -0,0 +1,153 @@
+package com.tmk2003.zuultesting.cache;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.context.RequestContext;
+import com.tmk2003.zuultesting.support.ResponseSnapshot;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RouteResponseCacheTests {
+
+    /* Final Variables */
+    private final long NOW                              = 1_000_000L;                       // Fixed clock
+    private final long TTL                              = 60_000L;                          // Entry lifetime
+
+    @After
+    public void tearDown() {
+        RequestContext.getCurrentContext().unset();
+    }
+
+    /**
+     * Ensure hits and misses are counted
+     */
+    @Test
+    public void whenLookingUpEntriesCountHitsAndMisses() {
+        RouteResponseCache cache = new RouteResponseCache(1024, 1024);
+        cache.put("/horse", snapshot(100), NOW + TTL);
+
+        assertNotNull(cache.get("/horse", NOW));                                      // Hit
+        assertNull(cache.get("/pony", NOW));                                           // Miss
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * Ensure expired entries are dropped
+     */
+    @Test
+    public void whenEntryExpiresEvictIt() {
+        RouteResponseCache cache = new RouteResponseCache(1024, 1024);
+        cache.put("/horse", snapshot(100), NOW + TTL);
+
+        assertNull(cache.get("/horse", NOW + TTL));                                    // Expired
+        assertEquals(1, cache.getEvictions());
+        assertEquals(0, cache.getEntries());
+    }
+
+    /**
+     * Ensure the least recently used entry is evicted once the byte cap is reached
+     */
+    @Test
+    public void whenCacheIsFullEvictLeastRecentlyUsed() {
+        RouteResponseCache cache = new RouteResponseCache(300, 300);
+        cache.put("/a", snapshot(100), NOW + TTL);
+        cache.put("/b", snapshot(100), NOW + TTL);
+        cache.get("/a", NOW);                                                               // /b is now the LRU
+        cache.put("/c", snapshot(150), NOW + TTL);
+
+        assertNotNull(cache.get("/a", NOW));                                          // Recently used
+        assertNull(cache.get("/b", NOW));                                              // Evicted
+        assertNotNull(cache.get("/c", NOW));                                          // Newest
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.getBytes() <= 300);
+    }
+
+    /**
+     * Ensure Cache-Control and Expires drive the lifetime
+     */
+    @Test
+    public void whenReadingHeadersHonorCacheControlAndExpires() {
+        assertEquals(60_000L, Freshness.lifetimeMillis(
+                headers("Cache-Control", "public, max-age=60"), NOW));
+        assertEquals(10_000L, Freshness.lifetimeMillis(
+                headers("Cache-Control", "max-age=60, s-maxage=10"), NOW));
+        assertEquals(Freshness.NOT_CACHEABLE, Freshness.lifetimeMillis(
+                headers("Cache-Control", "no-store"), NOW));
+        assertEquals(Freshness.NOT_CACHEABLE, Freshness.lifetimeMillis(
+                headers("Expires", "Thu, 01 Jan 1970 00:00:00 GMT"), NOW));
+        assertEquals(Freshness.NOT_CACHEABLE, Freshness.lifetimeMillis(
+                Collections.emptyList(), NOW));
+    }
+
+    /**
+     * Ensure responses to authorized requests are only shared when the origin allows it
+     */
+    @Test
+    public void whenRequestWasAuthorizedRequireExplicitSharing() {
+        assertTrue(Freshness.allowsAuthorized(headers("Cache-Control", "public, max-age=60")));
+        assertTrue(Freshness.allowsAuthorized(headers("Cache-Control", "s-maxage=60")));
+        assertTrue(Freshness.allowsAuthorized(headers("Cache-Control", "max-age=60, must-revalidate")));
+        assertFalse(Freshness.allowsAuthorized(headers("Cache-Control", "max-age=60")));    // max-age alone is not enough
+        assertFalse(Freshness.allowsAuthorized(headers("Expires", "Thu, 01 Jan 2099 00:00:00 GMT")));
+    }
+
+    /**
+     * Ensure responses varying on anything but the encoding are not cached, the key does not cover them
+     */
+    @Test
+    public void whenResponseVariesOnRequestHeadersDoNotCache() {
+        assertEquals(60_000L, Freshness.lifetimeMillis(Arrays.asList(
+                new Pair<>("Cache-Control", "max-age=60"), new Pair<>("Vary", "accept-encoding")), NOW));
+        assertEquals(Freshness.NOT_CACHEABLE, Freshness.lifetimeMillis(Arrays.asList(
+                new Pair<>("Cache-Control", "max-age=60"), new Pair<>("Vary", "Accept-Encoding, Origin")), NOW));
+        assertEquals(Freshness.NOT_CACHEABLE, Freshness.lifetimeMillis(Arrays.asList(
+                new Pair<>("Cache-Control", "max-age=60"), new Pair<>("Vary", "*")), NOW));
+    }
+
+    /**
+     * Ensure replayed responses carry their age, on top of the age the upstream sent
+     */
+    @Test
+    public void whenReplayingSnapshotAddAgeHeader() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setResponseStatusCode(200);
+        ctx.addZuulResponseHeader("Cache-Control", "max-age=60");
+        ctx.addZuulResponseHeader("Age", "5");
+        ResponseSnapshot snapshot = ResponseSnapshot.capture(ctx, new byte[10], NOW);
+        ctx.unset();
+
+        RequestContext replay = RequestContext.getCurrentContext();
+        snapshot.applyTo(replay, NOW + 12_500L);
+
+        List<String> ages = new ArrayList<>();
+        for (Pair<String, String> header : replay.getZuulResponseHeaders()) {
+            if ("Age".equalsIgnoreCase(header.first())) {
+                ages.add(header.second());
+            }
+        }
+        assertEquals(Collections.singletonList("17"), ages);                           // 5s upstream plus 12s cached
+    }
+
+    /**
+     * Helper building a response with a body of the given size
+     */
+    private ResponseSnapshot snapshot(int bodySize) {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setResponseStatusCode(200);
+        return ResponseSnapshot.capture(ctx, new byte[bodySize]);
+    }
+
+    /**
+     * Helper building a single header list
+     */
+    private List<Pair<String, String>> headers(String name, String value) {
+        return Arrays.asList(new Pair<>(name, value));
+    }
+}
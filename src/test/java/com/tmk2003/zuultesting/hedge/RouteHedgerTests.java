@@ -0,0 +1,95 @@
+package com.tmk2003.zuultesting.hedge;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class RouteHedgerTests {
+
+    /* Final Variables */
+    private final AtomicLong clock                      = new AtomicLong();                     // Fake nano time
+
+    /**
+     * Ensure hedges never outnumber the budgeted share of requests
+     */
+    @Test
+    public void whenBudgetIsSpentDenyHedges() {
+        RouteHedger hedger = new RouteHedger(settings(0.25, 0), null, clock::get);
+
+        int hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            hedger.onRequest();
+            if (hedger.tryHedge()) {
+                hedges++;
+            }
+        }
+        assertEquals(250, hedges);                                                     // A quarter of the requests
+        assertEquals(750, hedger.getDenied());
+    }
+
+    /**
+     * Ensure a budget above one is capped, so hedging at most doubles the upstream load
+     */
+    @Test
+    public void whenBudgetIsAboveOneHedgeEveryRequestAtMost() {
+        RouteHedger hedger = new RouteHedger(settings(5, 0), null, clock::get);
+
+        int hedges = 0;
+        for (int i = 0; i < 100; i++) {
+            hedger.onRequest();
+            while (hedger.tryHedge()) {
+                hedges++;
+            }
+        }
+        assertEquals(100, hedges);                                                     // One hedge per request
+    }
+
+    /**
+     * Ensure the delay follows the percentile of the last full window
+     */
+    @Test
+    public void whenWindowEndsDelayFollowsPercentile() {
+        RouteHedger hedger = new RouteHedger(settings(0.1, 90), null, clock::get);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), hedger.getDelayNanos());       // Fixed delay until known
+
+        for (int i = 1; i <= 100; i++) {
+            hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+
+        long delay = TimeUnit.NANOSECONDS.toMillis(hedger.getDelayNanos());
+        assertTrue("Delay of " + delay + "ms", delay >= 89 && delay <= 92);            // p90 of 1..100ms
+    }
+
+    /**
+     * Ensure a fixed delay ignores the latencies
+     */
+    @Test
+    public void whenPercentileIsUnsetKeepFixedDelay() {
+        RouteHedger hedger = new RouteHedger(settings(0.1, 0), null, clock::get);
+
+        for (int i = 1; i <= 100; i++) {
+            hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), hedger.getDelayNanos());
+    }
+
+    private static GatewayProperties.Hedge settings(double budget, double percentile) {
+        GatewayProperties.Hedge settings = new GatewayProperties.Hedge();
+        settings.setEnabled(true);
+        settings.setDelay(Duration.ofMillis(50));
+        settings.setWindow(Duration.ofSeconds(10));
+        settings.setBudget(budget);
+        settings.setPercentile(percentile);
+        return settings;
+    }
+}
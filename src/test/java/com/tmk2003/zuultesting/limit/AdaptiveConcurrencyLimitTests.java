@@ -0,0 +1,97 @@
+package com.tmk2003.zuultesting.limit;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveConcurrencyLimitTests {
+
+    /* Final Variables */
+    private final long FAST                             = TimeUnit.MILLISECONDS.toNanos(5);     // Healthy latency
+    private final long SLOW                             = TimeUnit.MILLISECONDS.toNanos(500);   // Degraded latency
+
+    /**
+     * Ensure calls over the limit are refused at once
+     */
+    @Test
+    public void whenLimitIsReachedRejectCalls() {
+        AdaptiveConcurrencyLimit bulkhead = new AdaptiveConcurrencyLimit(settings(4, 2, 8));
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(bulkhead.tryAcquire());                                         // Within the limit
+        }
+        assertFalse(bulkhead.tryAcquire());                                            // Over the limit
+        assertEquals(1, bulkhead.getRejected());
+        bulkhead.release(FAST);
+        assertTrue(bulkhead.tryAcquire());                                             // Room again
+    }
+
+    /**
+     * Ensure a saturated healthy upstream grows the limit up to the ceiling
+     */
+    @Test
+    public void whenUpstreamIsHealthyGrowLimit() {
+        AdaptiveConcurrencyLimit bulkhead = new AdaptiveConcurrencyLimit(settings(10, 2, 50));
+
+        for (int i = 0; i < 200; i++) {
+            saturate(bulkhead, FAST);
+        }
+        assertEquals(50, bulkhead.getLimit());
+    }
+
+    /**
+     * Ensure latency growing past the tolerance shrinks the limit towards the floor
+     */
+    @Test
+    public void whenUpstreamSlowsDownShrinkLimit() {
+        AdaptiveConcurrencyLimit bulkhead = new AdaptiveConcurrencyLimit(settings(40, 2, 40));
+        for (int i = 0; i < 50; i++) {
+            saturate(bulkhead, FAST);
+        }
+        assertEquals(40, bulkhead.getLimit());
+
+        for (int i = 0; i < 20; i++) {
+            saturate(bulkhead, SLOW);
+        }
+        assertTrue(bulkhead.getLimit() < 10);                                          // Shrunk
+        assertEquals(0, bulkhead.getInFlight());                                       // Everything released
+    }
+
+    /**
+     * Ensure failed calls back the limit off
+     */
+    @Test
+    public void whenCallsFailBackOff() {
+        AdaptiveConcurrencyLimit bulkhead = new AdaptiveConcurrencyLimit(settings(20, 2, 20));
+
+        assertTrue(bulkhead.tryAcquire());
+        bulkhead.releaseDropped();
+        assertEquals(18, bulkhead.getLimit());
+        assertEquals(1, bulkhead.getDropped());
+    }
+
+    /**
+     * Helper filling the bulkhead, then completing every call with the given latency
+     */
+    private void saturate(AdaptiveConcurrencyLimit bulkhead, long rtt) {
+        int admitted = 0;
+        while (bulkhead.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            bulkhead.release(rtt);
+        }
+    }
+
+    private GatewayProperties.Bulkhead settings(int initial, int min, int max) {
+        GatewayProperties.Bulkhead settings = new GatewayProperties.Bulkhead();
+        settings.setEnabled(true);
+        settings.setInitialLimit(initial);
+        settings.setMinLimit(min);
+        settings.setMaxLimit(max);
+        return settings;
+    }
+}
@@ -0,0 +1,174 @@
+package com.tmk2003.zuultesting.limit;
+
+import com.tmk2003.zuultesting.config.GatewayProperties;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class RouteRateLimiterTests {
+
+    /* Final Variables */
+    private final long SECOND                           = TimeUnit.SECONDS.toNanos(1);     // One second, in nanos
+    private final AtomicLong clock                      = new AtomicLong(SECOND);           // Fixed clock
+
+    /**
+     * Ensure the burst is granted, then requests are refused with the time until the next permit
+     */
+    @Test
+    public void whenBurstIsSpentRejectUntilRefill() {
+        TokenBucket bucket = new TokenBucket(limit(10, Duration.ofSeconds(1), 5), clock.get());
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(TokenBucket.ALLOWED, bucket.tryAcquire(clock.get()));         // Burst allowed
+        }
+        long wait = bucket.tryAcquire(clock.get());
+        assertEquals(SECOND / 10, wait);                                               // One emission interval away
+
+        clock.addAndGet(wait);
+        assertEquals(TokenBucket.ALLOWED, bucket.tryAcquire(clock.get()));             // Refilled one permit
+        assertTrue(bucket.tryAcquire(clock.get()) > 0);                                // And only one
+    }
+
+    /**
+     * Ensure clients are limited separately, and the route limit applies to all of them
+     */
+    @Test
+    public void whenClientsShareRouteLimitEachHasOwnBucket() {
+        GatewayProperties.RateLimit settings = settings(5, 2, 100);
+        RouteRateLimiter limiter = new RouteRateLimiter(settings, clock::get);
+
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("a"));
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);                                       // Client a spent
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("b"));                    // Client b unaffected
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("b"));
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("c"));
+        assertTrue(limiter.tryAcquire("d") > 0);                                       // Route spent
+        assertEquals(5, limiter.getAllowed());
+        assertEquals(2, limiter.getLimited());
+    }
+
+    /**
+     * Ensure requests refused by the route limit do not spend the client's permits
+     */
+    @Test
+    public void whenRouteRejectsKeepClientPermit() {
+        GatewayProperties.RateLimit settings = settings(0, 2, 100);
+        settings.setRoute(limit(1, Duration.ofSeconds(1), 0));
+        settings.setClient(limit(2, Duration.ofHours(1), 0));
+        RouteRateLimiter limiter = new RouteRateLimiter(settings, clock::get);
+
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("a"));                    // Route spent
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("a") > 0);                                   // Refused by the route
+        }
+        clock.addAndGet(SECOND);
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("a"));                    // Second client permit still there
+        clock.addAndGet(SECOND);
+        assertTrue(limiter.tryAcquire("a") > 0);                                       // Now the client is spent
+    }
+
+    /**
+     * Ensure the client map never exceeds its cap and idle buckets are evicted
+     */
+    @Test
+    public void whenManyClientsArriveKeepMemoryBounded() {
+        RouteRateLimiter limiter = new RouteRateLimiter(settings(0, 1, 100), clock::get);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("client-" + i);
+        }
+        assertEquals(100, limiter.getClients());                                       // Capped
+        assertEquals(900, limiter.getEvictions());                                     // One eviction per newcomer
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        limiter.tryAcquire("newcomer");
+        assertEquals(1, limiter.getClients());                                         // Idle buckets swept
+        assertEquals(1000, limiter.getEvictions());
+    }
+
+    /**
+     * Ensure a flood of client keys neither takes the quota of a fresh client nor resets a spent one
+     */
+    @Test
+    public void whenClientKeysFloodGiveFreshClientItsOwnQuota() {
+        RouteRateLimiter limiter = new RouteRateLimiter(settings(0, 2, 100), clock::get);
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("spent"));
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("spent"));
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("flood-" + i);
+        }
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("fresh"));                // Own bucket, not a shared one
+        assertEquals(TokenBucket.ALLOWED, limiter.tryAcquire("fresh"));                // With its whole quota
+        assertTrue(limiter.tryAcquire("fresh") > 0);
+        assertTrue(limiter.tryAcquire("spent") > 0);                                   // Spent client kept its state
+        assertTrue(limiter.getClients() <= 100);                                       // Still capped
+    }
+
+    /**
+     * Ensure no permit is handed out twice when many threads contend for one bucket
+     */
+    @Test
+    public void whenThreadsContendGrantExactlyTheBurst() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int permits = 100_000;
+        TokenBucket bucket = new TokenBucket(limit(permits, Duration.ofHours(1), permits), clock.get());
+
+        List<Long> granted = runConcurrently(threads, () -> {
+            long count = 0;
+            for (int i = 0; i < permits; i++) {
+                if (bucket.tryAcquire(clock.get()) == TokenBucket.ALLOWED) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        assertEquals(permits, granted.stream().mapToLong(Long::longValue).sum());     // Exactly the burst
+    }
+
+    private static List<Long> runConcurrently(int threads, Callable<Long> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(task));
+            }
+            List<Long> results = new ArrayList<>();
+            for (Future<Long> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static GatewayProperties.RateLimit settings(int routePermits, int clientPermits, int maxClients) {
+        GatewayProperties.RateLimit settings = new GatewayProperties.RateLimit();
+        settings.setEnabled(true);
+        settings.setRoute(limit(routePermits, Duration.ofMinutes(1), 0));
+        settings.setClient(limit(clientPermits, Duration.ofMinutes(1), 0));
+        settings.setMaxClients(maxClients);
+        settings.setIdleTimeout(Duration.ofMinutes(5));
+        return settings;
+    }
+
+    private static GatewayProperties.Limit limit(int permits, Duration period, int burst) {
+        GatewayProperties.Limit limit = new GatewayProperties.Limit();
+        limit.setPermits(permits);
+        limit.setPeriod(period);
+        limit.setBurst(burst);
+        return limit;
+    }
+}
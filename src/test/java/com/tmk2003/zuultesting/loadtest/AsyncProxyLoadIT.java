@@ -0,0 +1,150 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Holds thousands of slow requests in flight through async mode and checks the gateway does not spend a
+ * thread on each. Run with ./mvnw -Ploadtest verify.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.async.enabled=true",
+        "gateway.async.max-connections=20000",
+        "gateway.async.max-connections-per-route=20000",
+        "gateway.routes.mod.bulkhead.enabled=false",
+        "server.tomcat.max-threads=50",
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=10000",
+        "zuul.host.socket-timeout-millis=60000"
+})
+public class AsyncProxyLoadIT {
+
+    /* Variables */
+    @Rule public final WireMockRule mockModService      = new WireMockRule(options()
+            .port(8083)
+            .containerThreads(64)
+            .jettyAcceptQueueSize(CONCURRENCY)
+            .asynchronousResponseEnabled(true)
+            .asynchronousResponseThreads(8));                                               // Mocked Mod Service, delays without threads
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private static final int CONCURRENCY                = Integer.getInteger("async.concurrency", 10000); // Requests in flight at once
+    private static final int SLOW_DELAY                 = 2000;                             // Mod latency, in millis
+    private static final int MAX_EXTRA_THREADS          = 100;                              // Allowed growth over the warmed up JVM
+    private final String TEST_BODY                      = "Tester";                         // Test response from mock services
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure ten thousand concurrent requests to a slow service are served without a thread each
+     */
+    @Test
+    public void whenManySlowRequestsKeepThreadCountFlat() throws Exception {
+        assumeTrue("Needs about " + 5 * CONCURRENCY + " file descriptors", openFileLimit() >= 5L * CONCURRENCY);
+        mockModService.stubFor(get(urlPathEqualTo("/slow"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(SLOW_DELAY)
+                        .withBody(TEST_BODY)));
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(30000)
+                .setSocketTimeout(60000)
+                .build();
+        try (CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setDefaultRequestConfig(requestConfig)
+                .setMaxConnTotal(CONCURRENCY)
+                .setMaxConnPerRoute(CONCURRENCY)
+                .build()) {
+            client.start();
+            assertEquals(100, send(client, 100));                                      // Worker threads and pools started
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            int baseline = threads.getThreadCount();
+            threads.resetPeakThreadCount();
+            long started = System.nanoTime();
+            int succeeded = send(client, CONCURRENCY);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            int peak = threads.getPeakThreadCount();
+
+            assertEquals(CONCURRENCY, succeeded);                                      // Every request answered
+            assertTrue("Peak of " + peak + " threads, " + baseline + " before",
+                    peak - baseline < MAX_EXTRA_THREADS);                               // Threads stayed flat
+            // 50 blocking workers would need CONCURRENCY / 50 rounds of the delay
+            assertTrue("Took " + elapsed + "ms", elapsed < 15L * SLOW_DELAY);
+        }
+    }
+
+    /**
+     * Helper sending requests all at once to the slow Mod endpoint
+     * @return - Requests answered with 200
+     */
+    private int send(CloseableHttpAsyncClient client, int requests) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger succeeded = new AtomicInteger();
+        for (int i = 0; i < requests; i++) {
+            client.execute(new HttpGet(routeBuilder("/mod/slow?n=" + i)), new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse response) {
+                    if (response.getStatusLine().getStatusCode() == 200) {
+                        succeeded.incrementAndGet();
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    done.countDown();
+                }
+
+                @Override
+                public void cancelled() {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.MINUTES));                                   // Nothing left hanging
+        return succeeded.get();
+    }
+
+    /**
+     * Helper reading the open file limit, every request holds four sockets
+     */
+    private static long openFileLimit() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        return os instanceof UnixOperatingSystemMXBean ? ((UnixOperatingSystemMXBean) os).getMaxFileDescriptorCount() : 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Time to steady latency without the warm-up, compare with {@link WarmStartLoadIT}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.warmup.enabled=false"
+})
+public class ColdStartLoadIT extends StartupLatencyProbe {
+
+    @Override
+    protected String variant() {
+        return "cold";
+    }
+}
@@ -0,0 +1,80 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.*;
+
+/**
+ * Loads every route through the gateway against WireMock backends and compares throughput and tail
+ * latency with the committed baseline. It fails when no baseline is committed, or when the baseline was
+ * measured with other settings or on a machine with another CPU count, as nothing was compared then.
+ * Run with ./mvnw -Ploadtest verify.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GatewayLoadIT {
+
+    /* Final Variables */
+    private static final LoadSettings SETTINGS          = LoadSettings.fromSystemProperties(); // Run knobs
+    private static final int BACKEND_THREADS            = SETTINGS.getConcurrency() + 10;     // Backend never the bottleneck
+
+    /* Variables */
+    @Rule public final WireMockRule mockUserService     = new WireMockRule(options().port(8081).containerThreads(BACKEND_THREADS));
+    @Rule public final WireMockRule mockAdminService    = new WireMockRule(options().port(8082).containerThreads(BACKEND_THREADS));
+    @Rule public final WireMockRule mockModService      = new WireMockRule(options().port(8083).containerThreads(BACKEND_THREADS));
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /**
+     * Ensure no route got slower than the committed baseline allows
+     */
+    @Test
+    public void whenLoadingRoutesStayWithinBaseline() throws Exception {
+        byte[] payload = new byte[SETTINGS.getResponseBytes()];
+        Arrays.fill(payload, (byte) 'x');
+        for (WireMockRule backend : Arrays.asList(mockUserService, mockAdminService, mockModService)) {
+            backend.stubFor(any(urlPathEqualTo("/load"))
+                    .willReturn(aResponse()
+                            .withHeader("Content-Type", "application/octet-stream")
+                            .withStatus(200)
+                            .withFixedDelay(SETTINGS.getBackendDelayMs())
+                            .withBody(payload)));
+        }
+
+        LoadGenerator generator = new LoadGenerator(SETTINGS, "http://localhost:" + port);
+        List<LoadResult> results = new ArrayList<>();
+        for (String route : Arrays.asList("user", "admin", "mod")) {
+            results.add(generator.run(route, "/" + route + "/load"));
+        }
+        LoadBaseline.record(results, SETTINGS, Paths.get(SETTINGS.getReportDirectory(), "baseline.properties"));
+
+        LoadBaseline baseline = LoadBaseline.load();
+        List<String> regressions = new ArrayList<>();
+        System.out.println("Load test: " + SETTINGS);
+        for (LoadResult result : results) {
+            System.out.println(result);
+            assertTrue(result.getRoute() + " served no requests", result.getRequests() > 0);
+            assertEquals(result.getRoute() + " had failed requests", 0, result.getErrors());
+            regressions.addAll(baseline.regressions(result, SETTINGS.getMargin()));
+        }
+        String recorded = SETTINGS.getReportDirectory() + "/baseline.properties";
+        assertNotNull("No baseline committed in src/test/resources/loadtest/baseline.properties, copy " + recorded
+                + " there from a run on the reference machine", baseline.getSettings());
+        assertEquals("Baseline was measured with other settings or CPU count, run with the baseline's settings on "
+                + "the reference machine or commit " + recorded + " as the new baseline",
+                baseline.getSettings(), SETTINGS.key());                                  // Only like for like
+        assertTrue(String.join("\n", regressions), regressions.isEmpty());                // Within the baseline margin
+    }
+}
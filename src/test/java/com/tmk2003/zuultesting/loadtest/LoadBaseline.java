@@ -0,0 +1,95 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Committed per route expectations, ${route}.throughput in requests per second and ${route}.p99Micros,
+ * measured with the settings recorded under settings. A result regresses when its throughput drops or its
+ * p99 rises by more than the margin.
+ */
+public final class LoadBaseline {
+
+    /* Final Variables */
+    private static final String RESOURCE = "/loadtest/baseline.properties";    // Committed baseline
+    private static final String SETTINGS = "settings";                          // Key of the measured settings
+
+    /* Variables */
+    private final Properties values;                                            // Loaded baseline
+
+    private LoadBaseline(Properties values) {
+        this.values = values;
+    }
+
+    /**
+     * @return - Baseline committed under src/test/resources/loadtest
+     */
+    public static LoadBaseline load() throws IOException {
+        Properties values = new Properties();
+        try (InputStream in = LoadBaseline.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                values.load(in);
+            }
+        }
+        return new LoadBaseline(values);
+    }
+
+    /**
+     * @return - {@link LoadSettings#key()} of the run the baseline was recorded from, null when none was
+     */
+    public String getSettings() {
+        return values.getProperty(SETTINGS);
+    }
+
+    /**
+     * @param result - Measured run
+     * @param margin - Allowed regression, 0.2 for 20%
+     * @return - Human readable regressions, empty when the result is within the margin
+     */
+    public List<String> regressions(LoadResult result, double margin) {
+        List<String> regressions = new ArrayList<>();
+        String throughput = values.getProperty(result.getRoute() + ".throughput");
+        String p99 = values.getProperty(result.getRoute() + ".p99Micros");
+        if (throughput == null || p99 == null) {
+            regressions.add(result.getRoute() + " has no baseline, record one");
+            return regressions;
+        }
+        if (result.getThroughput() < Double.parseDouble(throughput) * (1 - margin)) {
+            regressions.add(String.format("%s throughput %.1f req/s is below baseline %s req/s",
+                    result.getRoute(), result.getThroughput(), throughput));
+        }
+        if (result.getLatencyMicros(99) > Long.parseLong(p99) * (1 + margin)) {
+            regressions.add(String.format("%s p99 %dus is above baseline %sus",
+                    result.getRoute(), result.getLatencyMicros(99), p99));
+        }
+        return regressions;
+    }
+
+    /**
+     * Writes the results in baseline format, to be copied over the committed baseline when a change
+     * intentionally moves the numbers
+     * @param results - Measured runs
+     * @param settings - Settings of the run
+     * @param file - Target file
+     */
+    public static void record(List<LoadResult> results, LoadSettings settings, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# Recorded " + Instant.now() + " on Java " + System.getProperty("java.version") + "\n");
+            out.write(SETTINGS + "=" + settings.key() + "\n");
+            for (LoadResult result : results) {
+                out.write(String.format("# %s%n", result));
+                out.write(String.format("%s.throughput=%.0f%n", result.getRoute(), result.getThroughput()));
+                out.write(String.format("%s.p99Micros=%d%n", result.getRoute(), result.getLatencyMicros(99)));
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import com.tmk2003.zuultesting.metrics.LatencyHistogram;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed loop load generator, a fixed number of clients each sending their next request as soon as the
+ * previous one completed. Latency is recorded from the client side, after the body was read.
+ */
+public final class LoadGenerator {
+
+    /* Variables */
+    private final LoadSettings settings;                                        // Run knobs
+    private final String baseUrl;                                               // http://localhost:${port}
+
+    public LoadGenerator(LoadSettings settings, String baseUrl) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Warms the route up, then measures it
+     * @param route - Route id, used for reporting
+     * @param path - Gateway path to load
+     * @return - Measured run
+     */
+    public LoadResult run(String route, String path) throws InterruptedException {
+        try (CloseableHttpClient client = HttpClients.custom()
+                .setMaxConnTotal(settings.getConcurrency())
+                .setMaxConnPerRoute(settings.getConcurrency())
+                .disableAutomaticRetries()
+                .build()) {
+            runFor(client, route, path, settings.getWarmupSeconds(), null);
+            return runFor(client, route, path, settings.getDurationSeconds(), null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not close load test client", e);
+        }
+    }
+
+    /**
+     * Measures the route from its first request, without warming it up
+     * @param route - Route id, used for reporting
+     * @param path - Gateway path to load
+     * @param windowMillis - Length of one latency window
+     * @return - Latencies per window since the start
+     */
+    public StartupResult runFromStart(String route, String path, long windowMillis) throws InterruptedException {
+        int seconds = settings.getWarmupSeconds() + settings.getDurationSeconds();
+        LatencyHistogram[] windows = new LatencyHistogram[(int) Math.max(1, TimeUnit.SECONDS.toMillis(seconds) / windowMillis)];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new LatencyHistogram();
+        }
+        try (CloseableHttpClient client = HttpClients.custom()
+                .setMaxConnTotal(settings.getConcurrency())
+                .setMaxConnPerRoute(settings.getConcurrency())
+                .disableAutomaticRetries()
+                .build()) {
+            LoadResult result = runFor(client, route, path, seconds, windows);
+            return new StartupResult(route, windows, windowMillis, result.getErrors());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not close load test client", e);
+        }
+    }
+
+    /**
+     * @param windows - Latencies by completion time since the start, null when not needed
+     */
+    private LoadResult runFor(CloseableHttpClient client, String route, String path, int seconds,
+                              LatencyHistogram[] windows) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        AtomicLong sequence = new AtomicLong();
+        byte[] body = new byte[settings.getRequestBytes()];
+        Arrays.fill(body, (byte) 'x');
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> clients = new ArrayList<>(settings.getConcurrency());
+        AtomicLong deadline = new AtomicLong();
+        AtomicLong began = new AtomicLong();
+        long windowNanos = windows == null ? 1 : TimeUnit.SECONDS.toNanos(seconds) / windows.length;
+        for (int i = 0; i < settings.getConcurrency(); i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (System.nanoTime() - deadline.get() < 0) {
+                    HttpUriRequest request = request(path, sequence.incrementAndGet(), body);
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse response = client.execute(request);
+                        EntityUtils.consume(response.getEntity());
+                        if (response.getStatusLine().getStatusCode() / 100 == 2) {
+                            long completed = System.nanoTime();
+                            latency.record(completed - sent);
+                            if (windows != null) {
+                                windows[(int) Math.min(windows.length - 1, (completed - began.get()) / windowNanos)]
+                                        .record(completed - sent);
+                            }
+                        } else {
+                            errors.increment();
+                        }
+                    } catch (IOException e) {
+                        errors.increment();
+                    }
+                }
+            }, "load-" + route + "-" + i);
+            thread.setDaemon(true);
+            clients.add(thread);
+            thread.start();
+        }
+
+        long started = System.nanoTime();
+        began.set(started);
+        deadline.set(started + TimeUnit.SECONDS.toNanos(seconds));
+        start.countDown();
+        for (Thread thread : clients) {
+            thread.join();
+        }
+        return new LoadResult(route, latency.snapshot(), errors.sum(), System.nanoTime() - started);
+    }
+
+    private HttpUriRequest request(String path, long sequence, byte[] body) {
+        String url = baseUrl + path + (settings.isUniqueUrls() ? "?n=" + sequence : "");
+        if (body.length == 0) {
+            return new HttpGet(url);
+        }
+        HttpPost post = new HttpPost(url);
+        post.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_OCTET_STREAM));
+        return post;
+    }
+}
@@ -0,0 +1,62 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import com.tmk2003.zuultesting.metrics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one measured run against a route
+ */
+public final class LoadResult {
+
+    /* Variables */
+    private final String route;                                                 // Route id
+    private final LatencyHistogram.Snapshot latency;                            // Client side latency, in nanos
+    private final long errors;                                                  // Failed or non 2xx requests
+    private final long elapsedNanos;                                            // Measured wall time
+
+    LoadResult(String route, LatencyHistogram.Snapshot latency, long errors, long elapsedNanos) {
+        this.route = route;
+        this.latency = latency;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getRequests() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return - Successful requests per second
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : latency.getCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @param percentile - Percentile, 0 to 100
+     * @return - Latency at the percentile, in micros
+     */
+    public long getLatencyMicros(double percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(latency.percentile(percentile));
+    }
+
+    public long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(latency.getMax());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-6s %9d req %6d err %10.1f req/s  p50 %7dus  p99 %7dus  p99.9 %7dus  max %7dus",
+                route, getRequests(), errors, getThroughput(), getLatencyMicros(50), getLatencyMicros(99),
+                getLatencyMicros(99.9), getMaxMicros());
+    }
+}
@@ -0,0 +1,89 @@
+package com.tmk2003.zuultesting.loadtest;
+
+/**
+ * Load test knobs, read from loadtest.* system properties so they can be set on the command line
+ */
+public final class LoadSettings {
+
+    /* Variables */
+    private final int concurrency;                                              // Parallel clients per route
+    private final int warmupSeconds;                                            // Unmeasured run before the measurement
+    private final int durationSeconds;                                          // Measured run
+    private final int responseBytes;                                            // Backend response body size
+    private final int requestBytes;                                             // Request body size, 0 sends GETs
+    private final int backendDelayMs;                                           // Fixed backend latency
+    private final double margin;                                                // Allowed regression against the baseline
+    private final boolean uniqueUrls;                                           // Append a counter so requests are not coalesced
+    private final String reportDirectory;                                       // Where report and recorded baseline go
+
+    private LoadSettings() {
+        this.concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        this.warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 5);
+        this.durationSeconds = Integer.getInteger("loadtest.durationSeconds", 20);
+        this.responseBytes = Integer.getInteger("loadtest.responseBytes", 1024);
+        this.requestBytes = Integer.getInteger("loadtest.requestBytes", 0);
+        this.backendDelayMs = Integer.getInteger("loadtest.backendDelayMs", 5);
+        this.margin = Double.parseDouble(System.getProperty("loadtest.margin", "0.20"));
+        this.uniqueUrls = Boolean.parseBoolean(System.getProperty("loadtest.uniqueUrls", "true"));
+        this.reportDirectory = System.getProperty("loadtest.reportDirectory", "target/loadtest");
+    }
+
+    /**
+     * @return - Settings of the current JVM
+     */
+    public static LoadSettings fromSystemProperties() {
+        return new LoadSettings();
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getResponseBytes() {
+        return responseBytes;
+    }
+
+    public int getRequestBytes() {
+        return requestBytes;
+    }
+
+    public int getBackendDelayMs() {
+        return backendDelayMs;
+    }
+
+    public double getMargin() {
+        return margin;
+    }
+
+    public boolean isUniqueUrls() {
+        return uniqueUrls;
+    }
+
+    public String getReportDirectory() {
+        return reportDirectory;
+    }
+
+    /**
+     * @return - The settings a measurement depends on, a baseline only applies to runs with the same key
+     */
+    public String key() {
+        return "concurrency=" + concurrency + ",warmupSeconds=" + warmupSeconds + ",durationSeconds=" + durationSeconds
+                + ",responseBytes=" + responseBytes + ",requestBytes=" + requestBytes + ",backendDelayMs=" + backendDelayMs
+                + ",uniqueUrls=" + uniqueUrls + ",cpus=" + Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public String toString() {
+        return "concurrency=" + concurrency + ", warmup=" + warmupSeconds + "s, duration=" + durationSeconds
+                + "s, responseBytes=" + responseBytes + ", requestBytes=" + requestBytes
+                + ", backendDelay=" + backendDelayMs + "ms, margin=" + margin;
+    }
+}
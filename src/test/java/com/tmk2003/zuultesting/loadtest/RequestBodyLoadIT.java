@@ -0,0 +1,124 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tmk2003.zuultesting.support.BufferPool;
+import com.tmk2003.zuultesting.support.RequestBodySpool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Streams a large upload through the admin route and checks the gateway neither buffers nor copies it.
+ * Run with ./mvnw -Ploadtest verify, -Dupload.size changes the upload size.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class RequestBodyLoadIT {
+
+    /* Variables */
+    @Autowired private RequestBodySpool spool;                                              // Gateway body buffering
+    @Autowired private BufferPool bufferPool;                                               // Gateway copy buffers
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+    private HttpServer adminSink;                                                           // Admin Service discarding uploads
+
+    /* Final Variables */
+    private final long UPLOAD_SIZE                      = Long.getLong("upload.size", 64L << 20); // Streamed upload, -Dupload.size
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Stands in for the Admin Service, WireMock keeps every request body in heap
+     */
+    @Before
+    public void startAdminSink() throws IOException {
+        adminSink = HttpServer.create(new InetSocketAddress(8082), 0);
+        adminSink.setExecutor(Executors.newFixedThreadPool(2));
+        adminSink.createContext("/", exchange -> {
+            long received = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = exchange.getRequestBody()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    received += read;
+                }
+            }
+            byte[] body = Long.toString(received).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        adminSink.start();
+    }
+
+    @After
+    public void stopAdminSink() {
+        adminSink.stop(0);
+    }
+
+    /**
+     * Ensure a large upload streams through the admin route without being buffered by the gateway
+     */
+    @Test
+    public void whenUploadingToAdminStreamWithoutBuffering() throws Exception {
+        long spooled = spool.getSpooled();
+        long spilled = spool.getSpilled();
+        long allocated = bufferPool.getAllocated();
+
+        String received = upload("/admin/upload", UPLOAD_SIZE);
+
+        assertEquals(Long.toString(UPLOAD_SIZE), received);                            // Every byte arrived
+        assertEquals(spooled, spool.getSpooled());                                     // Streamed, not buffered
+        assertEquals(spilled, spool.getSpilled());                                     // Never written to disk
+        assertEquals(0, spool.getMemoryInUse());                                       // No heap held for it
+        assertEquals(allocated, bufferPool.getAllocated());                            // No copy buffers taken
+    }
+
+    /**
+     * Helper sending generated bytes without holding them
+     * @return - Response body
+     */
+    private String upload(String path, long size) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(routeBuilder(path)).openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("PUT");
+        connection.setRequestProperty("Content-Type", "application/octet-stream");
+        connection.setFixedLengthStreamingMode(size);
+        byte[] chunk = new byte[64 * 1024];
+        new Random(size).nextBytes(chunk);
+        try (OutputStream out = connection.getOutputStream()) {
+            for (long sent = 0; sent < size; sent += chunk.length) {
+                out.write(chunk, 0, (int) Math.min(chunk.length, size - sent));
+            }
+        }
+        assertEquals(200, connection.getResponseCode());                               // It was successful
+        try (InputStream in = connection.getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.*;
+
+/**
+ * Loads the admin route from the gateway's first request on and reports how long its latency took to
+ * settle. The backends are class rules so they already answer while the context, and with it the
+ * warm-up, starts. Subclasses differ only in gateway.warmup.enabled, each runs in a fresh JVM under
+ * ./mvnw -Ploadtest verify.
+ */
+public abstract class StartupLatencyProbe {
+
+    /* Final Variables */
+    static final LoadSettings SETTINGS                  = LoadSettings.fromSystemProperties(); // Run knobs
+    private static final int BACKEND_THREADS            = SETTINGS.getConcurrency() + 10;     // Backend never the bottleneck
+    private static final long WINDOW_MILLIS             = 250;                                // Latency window
+
+    /* Variables */
+    @ClassRule public static final WireMockRule mockUserService  = new WireMockRule(options().port(8081).containerThreads(BACKEND_THREADS));
+    @ClassRule public static final WireMockRule mockAdminService = new WireMockRule(options().port(8082).containerThreads(BACKEND_THREADS));
+    @ClassRule public static final WireMockRule mockModService   = new WireMockRule(options().port(8083).containerThreads(BACKEND_THREADS));
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    @BeforeClass
+    public static void stubBackends() {
+        byte[] payload = new byte[SETTINGS.getResponseBytes()];
+        Arrays.fill(payload, (byte) 'x');
+        for (WireMockRule backend : Arrays.asList(mockUserService, mockAdminService, mockModService)) {
+            backend.stubFor(any(anyUrl())
+                    .willReturn(aResponse()
+                            .withHeader("Content-Type", "application/octet-stream")
+                            .withStatus(200)
+                            .withFixedDelay(SETTINGS.getBackendDelayMs())
+                            .withBody(payload)));
+        }
+    }
+
+    /**
+     * @return - Name of the variant, used for reporting
+     */
+    protected abstract String variant();
+
+    /**
+     * Measure the admin route from the first request on
+     */
+    @Test
+    public void whenStartingMeasureTimeToSteadyLatency() throws Exception {
+        StartupResult result = new LoadGenerator(SETTINGS, "http://localhost:" + port)
+                .runFromStart("admin", "/admin/load", WINDOW_MILLIS);
+        result.record(SETTINGS.toString(), Paths.get(SETTINGS.getReportDirectory(), "startup-" + variant() + ".properties"));
+
+        System.out.println("Startup " + variant() + ": " + result);
+        assertEquals(0, result.getErrors());                                           // No failed requests
+    }
+}
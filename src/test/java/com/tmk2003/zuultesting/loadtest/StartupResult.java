@@ -0,0 +1,97 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import com.tmk2003.zuultesting.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a route from the gateway's first request on, by window, and how long it took to settle
+ */
+public final class StartupResult {
+
+    /* Final Variables */
+    private static final double TOLERANCE       = 1.5;                          // Steady once within this factor of the end
+
+    /* Variables */
+    private final String route;                                                 // Route id
+    private final long[] p99Micros;                                             // p99 per window, MAX_VALUE when empty
+    private final long windowMillis;                                            // Length of one window
+    private final long errors;                                                  // Failed or non 2xx requests
+
+    StartupResult(String route, LatencyHistogram[] windows, long windowMillis, long errors) {
+        this.route = route;
+        this.windowMillis = windowMillis;
+        this.errors = errors;
+        this.p99Micros = new long[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            LatencyHistogram.Snapshot window = windows[i].snapshot();
+            this.p99Micros[i] = window.getCount() == 0
+                    ? Long.MAX_VALUE
+                    : TimeUnit.NANOSECONDS.toMicros(window.percentile(99));
+        }
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return - p99 of the first window, in micros
+     */
+    public long getFirstP99Micros() {
+        return this.p99Micros[0];
+    }
+
+    /**
+     * @return - Median of the window p99s over the last quarter of the run, in micros
+     */
+    public long getSteadyP99Micros() {
+        long[] tail = Arrays.copyOfRange(this.p99Micros, this.p99Micros.length * 3 / 4, this.p99Micros.length);
+        Arrays.sort(tail);
+        return tail[tail.length / 2];
+    }
+
+    /**
+     * @return - Time from the first request until every following window stays close to the steady p99
+     */
+    public long getTimeToSteadyMillis() {
+        long limit = (long) (getSteadyP99Micros() * TOLERANCE);
+        int settled = this.p99Micros.length;
+        while (settled > 0 && this.p99Micros[settled - 1] <= limit) {
+            settled--;
+        }
+        return settled * this.windowMillis;
+    }
+
+    /**
+     * Writes the numbers so runs with and without the warm-up can be compared
+     * @param settings - Settings of the run, written as a comment
+     * @param file - Target file
+     */
+    public void record(String settings, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# " + settings + "\n");
+            out.write(String.format("# %s%n", this));
+            out.write(String.format("%s.firstP99Micros=%d%n", this.route, getFirstP99Micros()));
+            out.write(String.format("%s.steadyP99Micros=%d%n", this.route, getSteadyP99Micros()));
+            out.write(String.format("%s.timeToSteadyMillis=%d%n", this.route, getTimeToSteadyMillis()));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-6s %6d err  first %dms p99 %7dus  steady p99 %7dus  steady after %6dms",
+                route, errors, windowMillis, getFirstP99Micros(), getSteadyP99Micros(), getTimeToSteadyMillis());
+    }
+}
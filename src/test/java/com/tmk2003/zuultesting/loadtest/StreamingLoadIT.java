@@ -0,0 +1,87 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.tmk2003.zuultesting.support.BufferPool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * Relays a large download through the admin route and checks it reuses the pooled copy buffers.
+ * Run with ./mvnw -Ploadtest verify, -Ddownload.size changes the download size.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class StreamingLoadIT {
+
+    /* Variables */
+    @Rule public final WireMockRule mockAdminService    = new WireMockRule(8082);     // Mocked Admin Service
+    @Autowired private BufferPool bufferPool;                                               // Gateway copy buffers
+    @LocalServerPort int port;                                                              // Current port for Zuul Gateway
+
+    /* Final Variables */
+    private final int LARGE_BODY                        = Integer.getInteger("download.size", 64 << 20); // Download size, -Ddownload.size
+    private final TestRestTemplate TEMPLATE             = new TestRestTemplate();           // Test rest template for routing
+
+    /**
+     * Helper for building localhost & port pathings
+     * @param path relative path to route to
+     * @return http://localhost:${port}${path}
+     */
+    private String routeBuilder(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    /**
+     * Ensure large downloads through /Admin are relayed with the pooled buffers, not one per request
+     */
+    @Test
+    public void whenPathingToAdminHugeBodyReuseBuffers() {
+        byte[] body = new byte[LARGE_BODY];
+        Arrays.fill(body, (byte) 'x');
+        mockAdminService.stubFor(get(urlEqualTo("/download"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/octet-stream")
+                        .withStatus(200)
+                        .withBody(body)));
+
+        assertEquals(LARGE_BODY, download("/admin/download"));                         // Warm the pool and connections
+        long allocated = bufferPool.getAllocated();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(LARGE_BODY, download("/admin/download"));                     // Whole body arrived
+        }
+
+        assertEquals(allocated, bufferPool.getAllocated());                            // Copy buffers reused
+    }
+
+    /**
+     * Helper reading a response in chunks, counting its bytes
+     */
+    private long download(String path) {
+        return TEMPLATE.execute(routeBuilder(path), HttpMethod.GET, null, response -> {
+            assertEquals(HttpStatus.OK, response.getStatusCode());                     // It was successful
+            byte[] chunk = new byte[64 * 1024];
+            long total = 0;
+            int read;
+            try (InputStream in = response.getBody()) {
+                while ((read = in.read(chunk)) != -1) {
+                    total += read;
+                }
+            }
+            return total;
+        });
+    }
+}
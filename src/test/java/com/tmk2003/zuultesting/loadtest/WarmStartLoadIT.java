@@ -0,0 +1,20 @@
+package com.tmk2003.zuultesting.loadtest;
+
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Time to steady latency after the warm-up, compare with {@link ColdStartLoadIT}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.warmup.enabled=true"
+})
+public class WarmStartLoadIT extends StartupLatencyProbe {
+
+    @Override
+    protected String variant() {
+        return "warm";
+    }
+}
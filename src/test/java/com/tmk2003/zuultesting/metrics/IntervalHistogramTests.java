@@ -0,0 +1,36 @@
+package com.tmk2003.zuultesting.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IntervalHistogramTests {
+
+    /* Final Variables */
+    private final long SPIKE                            = 5_000_000_000L;                   // One slow request, 5s
+    private final long STEADY                           = 2_000_000L;                       // Usual latency, 2ms
+
+    /**
+     * Ensure a latency spike leaves the percentiles two windows later instead of staying forever
+     */
+    @Test
+    public void whenWindowsRotateForgetOldSpikes() {
+        IntervalHistogram histogram = new IntervalHistogram();
+        histogram.record(SPIKE);
+        for (int i = 0; i < 99; i++) {
+            histogram.record(STEADY);
+        }
+        assertEquals(SPIKE, histogram.snapshot().getMax());                            // Spike reported
+
+        histogram.rotate();
+        histogram.record(STEADY);
+        assertEquals(101, histogram.snapshot().getCount());                            // Previous window kept
+        assertEquals(SPIKE, histogram.snapshot().getMax());                            // Spike still reported
+
+        histogram.rotate();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.getCount());                                          // Only the last window left
+        assertTrue(snapshot.getMax() < SPIKE);                                         // Spike forgotten
+        assertTrue(snapshot.percentile(99.0) <= STEADY * 1.016);                       // Percentiles recovered
+    }
+}
@@ -0,0 +1,84 @@
+package com.tmk2003.zuultesting.metrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTests {
+
+    /* Final Variables */
+    private final double MAX_ERROR                      = 0.016;                            // Bucket precision, 1/64
+    private final int THREADS                           = 8;                                // Concurrent recorders
+    private final int VALUES_PER_THREAD                 = 250_000;                          // Values each recorder adds
+
+    /**
+     * Ensure percentiles stay within the bucket precision of the exact values
+     */
+    @Test
+    public void whenRecordingValuesReportPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[200_000];
+        Random random = new Random(7);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 50_000L + (long) (Math.abs(random.nextGaussian()) * 2_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        for (double percentile : new double[]{50.0, 90.0, 99.0, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100.0 * values.length) - 1];
+            long reported = snapshot.percentile(percentile);
+            assertTrue(percentile + "th", reported >= exact);                          // Never under reports
+            assertTrue(percentile + "th", reported <= exact * (1 + MAX_ERROR));        // Within one bucket
+        }
+        assertEquals(values[values.length - 1], snapshot.getMax());
+    }
+
+    /**
+     * Ensure concurrent recorders lose no values
+     */
+    @Test
+    public void whenRecordingConcurrentlyCountEveryValue() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < VALUES_PER_THREAD; i++) {
+                    histogram.record(1_000L + i % 1_000);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals((long) THREADS * VALUES_PER_THREAD, snapshot.getCount());        // Nothing lost
+        assertEquals(1_999L, snapshot.getMax());
+        assertTrue(Math.abs(snapshot.percentile(50.0) - 1_500L) <= 1_500L * MAX_ERROR); // Median of the range
+    }
+
+    /**
+     * Ensure every value lands in a bucket whose bound covers it
+     */
+    @Test
+    public void whenIndexingValuesBucketBoundsCoverThem() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.highestValue(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValue(index - 1) < value);
+        }
+        LatencyHistogram.index(Long.MAX_VALUE);                                             // Largest value fits
+    }
+}
@@ -0,0 +1,115 @@
+package com.tmk2003.zuultesting.routing;
+
+import org.junit.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RouteTrieTests {
+
+    /* Final Variables */
+    private final int ROUTE_COUNT                       = 1500;                             // Synthetic routes to compile
+    private final AntPathMatcher MATCHER                = new AntPathMatcher();             // Reference matcher
+
+    /**
+     * Ensure literal, wildcard and catch-all patterns match like AntPathMatcher
+     */
+    @Test
+    public void whenMatchingPatternsFollowAntSemantics() {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("/user/**", "user");
+        patterns.put("/admin/*", "admin");
+        patterns.put("/mod", "mod");
+        patterns.put("/mod/", "modSlash");
+        patterns.put("/files/*.txt", "files");
+        RouteTrie<String> trie = RouteTrie.compile(patterns);
+
+        String[] paths = {"/user", "/user/", "/user/horse/saddle", "/users", "/admin", "/admin/",
+                "/admin/horse", "/admin/horse/", "/admin/horse/saddle", "/mod", "/mod/", "/mod/horse",
+                "/files/a.txt", "/files/a.csv", "user", "/"};
+        for (String path : paths) {
+            assertEquals(path, reference(patterns, path), trie.match(path));
+        }
+        assertEquals(1, trie.fallbackSize());                                          // Only *.txt is not compiled
+    }
+
+    /**
+     * Ensure the first declared pattern wins when several match
+     */
+    @Test
+    public void whenSeveralPatternsMatchPreferDeclarationOrder() {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("/user/?orse", "fallback");
+        patterns.put("/user/*", "wildcard");
+        patterns.put("/user/horse", "literal");
+        patterns.put("/**", "all");
+        RouteTrie<String> trie = RouteTrie.compile(patterns);
+
+        assertEquals("fallback", trie.match("/user/horse"));                            // Fallback declared first
+        assertEquals("wildcard", trie.match("/user/pony"));                             // Wildcard before literal
+        assertEquals("all", trie.match("/admin"));                                      // Catch all last
+    }
+
+    /**
+     * Ensure a large synthetic route table matches exactly like the linear ant pattern scan, see
+     * RouteLocatorBenchmark for the timing
+     */
+    @Test
+    public void whenMatchingThousandsOfRoutesAgreeWithLinearScan() {
+        Map<String, String> patterns = syntheticRoutes();
+        RouteTrie<String> trie = RouteTrie.compile(patterns);
+
+        for (String path : syntheticPaths(new Random(42))) {
+            assertEquals(path, reference(patterns, path), trie.match(path));
+        }
+    }
+
+    /**
+     * Helper reproducing the linear scan of SimpleRouteLocator
+     */
+    private String reference(Map<String, String> patterns, String path) {
+        for (Map.Entry<String, String> entry : patterns.entrySet()) {
+            if (MATCHER.match(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper building ROUTE_COUNT routes in the shapes zuul.routes uses
+     */
+    private Map<String, String> syntheticRoutes() {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        for (int i = 0; i < ROUTE_COUNT; i++) {
+            switch (i % 3) {
+                case 0:  patterns.put("/service" + i + "/**", "route" + i); break;
+                case 1:  patterns.put("/api/v" + i + "/*/items", "route" + i); break;
+                default: patterns.put("/static/" + i + "/index", "route" + i); break;
+            }
+        }
+        patterns.put("/**", "catchAll");
+        return patterns;
+    }
+
+    /**
+     * Helper building request paths that hit, miss and fall through to the catch all
+     */
+    private List<String> syntheticPaths(Random random) {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int route = random.nextInt(ROUTE_COUNT * 2);
+            paths.add("/service" + route + "/horse/" + i);
+            paths.add("/api/v" + route + "/user" + i + "/items");
+            paths.add("/api/v" + route + "/user" + i + "/items/");
+            paths.add("/static/" + route + "/index");
+        }
+        return paths;
+    }
+}
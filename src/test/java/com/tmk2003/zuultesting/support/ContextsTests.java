@@ -0,0 +1,40 @@
+package com.tmk2003.zuultesting.support;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static org.junit.Assert.*;
+
+public class ContextsTests {
+
+    /**
+     * Ensure Accept-Encoding is read with its qvalues, q=0 refusing gzip
+     */
+    @Test
+    public void whenReadingAcceptEncodingHonorQvalues() {
+        assertTrue(Contexts.acceptsGzip(request("gzip, deflate, br")));
+        assertTrue(Contexts.acceptsGzip(request("deflate;q=1.0, GZIP;q=0.5")));
+        assertTrue(Contexts.acceptsGzip(request("x-gzip")));
+        assertTrue(Contexts.acceptsGzip(request("br, *;q=0.1")));                     // Covered by the wildcard
+        assertFalse(Contexts.acceptsGzip(request("gzip;q=0")));                        // Explicitly refused
+        assertFalse(Contexts.acceptsGzip(request("gzip; q=0.000, identity")));
+        assertFalse(Contexts.acceptsGzip(request("*;q=0.5, gzip;q=0")));               // Refusal wins over the wildcard
+        assertFalse(Contexts.acceptsGzip(request("br, *;q=0")));
+        assertFalse(Contexts.acceptsGzip(request("identity")));
+        assertFalse(Contexts.acceptsGzip(request(null)));                              // No header
+        assertFalse(Contexts.acceptsGzip((HttpServletRequest) null));
+    }
+
+    /**
+     * Helper building a request with the given Accept-Encoding
+     */
+    private MockHttpServletRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return request;
+    }
+}